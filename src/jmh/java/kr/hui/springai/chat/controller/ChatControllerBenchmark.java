@@ -0,0 +1,47 @@
+package kr.hui.springai.chat.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.prompt.DefaultChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 본문으로 Prompt를 만드는 {@link ChatController#buildPrompt} 경로의 시간을 측정합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatControllerBenchmark {
+
+    @Param({"true", "false"})
+    public boolean withSystemPrompt;
+
+    private ChatController.PromptBody body;
+
+    @Setup
+    public void setUp() {
+        DefaultChatOptions chatOptions = new DefaultChatOptions();
+        chatOptions.setTemperature(0.2);
+        this.body = new ChatController.PromptBody("conv-1234", "안녕하세요, 제주도 날씨 어때요?",
+                this.withSystemPrompt ? "You are a helpful assistant." : null, chatOptions);
+    }
+
+    @Benchmark
+    public Prompt buildPrompt() {
+        return ChatController.buildPrompt(this.body);
+    }
+}
@@ -0,0 +1,80 @@
+package kr.hui.springai.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.hui.springai.common.memory.ChatMemoryProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 많은 대화에 동시에 접근할 때 {@link CommonChatConfig#chatMemory}와 같은 설정
+ * (BoundedChatMemoryRepository + MessageWindowChatMemory)의 add/get 처리량을 측정합니다.
+ * 저장소 상한은 측정 중 대화가 제거되지 않도록 대화 수보다 넉넉하게 둡니다. (세그먼트별 상한이므로 2배)
+ * 한 번의 호출은 MessageChatMemoryAdvisor가 요청마다 하는 일(기록 조회, 질문 추가, 답변 추가)과 같습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ChatMemoryBenchmark {
+
+    private static final Message USER = new UserMessage("제주도 날씨 어때요?");
+    private static final Message ASSISTANT = new AssistantMessage("제주도는 오늘 맑고 기온은 18도입니다.");
+
+    @Param({"100", "100000"})
+    public int conversations;
+
+    private ChatMemory chatMemory;
+    private String[] conversationIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CommonChatConfig config = new CommonChatConfig();
+        ChatMemoryProperties properties = new ChatMemoryProperties("window", 10, this.conversations * 2,
+                DataSize.ofMegabytes(512), Duration.ofMinutes(30),
+                new ChatMemoryProperties.Durable(false, null, null, null, 0, 0, null), null);
+        this.chatMemory = config.chatMemory(properties,
+                config.chatMemoryRepository(properties, new ObjectMapper(), new SimpleMeterRegistry()));
+        this.conversationIds = new String[this.conversations];
+        for (int i = 0; i < this.conversations; i++) {
+            this.conversationIds[i] = "conversation-" + i;
+            // 창이 가득 찬 상태에서 시작하여 오래된 메시지를 버리는 경로까지 측정
+            for (int j = 0; j < 5; j++) {
+                this.chatMemory.add(this.conversationIds[i], List.of(USER, ASSISTANT));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Message> exchange() {
+        String conversationId = this.conversationIds[ThreadLocalRandom.current().nextInt(this.conversations)];
+        List<Message> history = this.chatMemory.get(conversationId);
+        this.chatMemory.add(conversationId, USER);
+        this.chatMemory.add(conversationId, ASSISTANT);
+        return history;
+    }
+}
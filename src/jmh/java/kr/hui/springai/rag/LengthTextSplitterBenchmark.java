@@ -0,0 +1,75 @@
+package kr.hui.springai.rag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 문서 크기와 청크 설정별 {@link LengthTextSplitter} 분할 시간을 측정합니다.
+ * splitText는 결과 리스트를 만드는 ETL 경로이고, splitStreaming은 청크를 하나씩 전달하는 경로입니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LengthTextSplitterBenchmark {
+
+    private static final String[] WORDS = {"스프링", "검색", "증강", "생성은", "문서를", "청크로", "나누고", "임베딩합니다",
+            "vector", "store", "retrieval", "chunk", "overlap", "boundary"};
+
+    @Param({"10000", "1000000"})
+    public int textLength;
+
+    @Param({"500", "2000"})
+    public int chunkSize;
+
+    @Param({"0", "50"})
+    public int boundaryWindow;
+
+    private String text;
+    private LengthTextSplitter splitter;
+
+    @Setup
+    public void setUp() {
+        this.text = generateText(this.textLength, new Random(42));
+        this.splitter = new LengthTextSplitter(this.chunkSize, this.chunkSize / 5, this.boundaryWindow);
+    }
+
+    @Benchmark
+    public List<String> splitText() {
+        return this.splitter.splitText(this.text);
+    }
+
+    @Benchmark
+    public void splitStreaming(Blackhole blackhole) {
+        this.splitter.split(this.text, blackhole::consume);
+    }
+
+    /**
+     * 단어, 공백, 문장 끝이 섞인 텍스트를 만듭니다. (boundaryWindow가 경계를 찾을 수 있도록)
+     */
+    static String generateText(int length, Random random) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+}
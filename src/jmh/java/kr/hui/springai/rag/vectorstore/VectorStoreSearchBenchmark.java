@@ -0,0 +1,170 @@
+package kr.hui.springai.rag.vectorstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 인메모리 VectorStore(SimpleVectorStore 전체 탐색, HnswVectorStore 근사 탐색)의 문서 수별 유사도 검색 시간을 측정합니다.
+ * 임베딩은 텍스트 해시로 시드를 정한 난수 벡터이므로 임베딩 API 없이 검색 비용만 측정합니다.
+ * 1,000,000개 청크는 힙을 수 GB 사용하고 HNSW 그래프 생성에 오래 걸리므로, 처음 만든 HNSW 저장소는
+ * build/jmh-fixtures에 스냅숏으로 저장하여 다음 실행부터 다시 만들지 않습니다. (임베딩이 결정적이므로 같은 설정이면 같은 그래프)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class VectorStoreSearchBenchmark {
+
+    private static final int DIMENSIONS = 384;
+    private static final int BATCH_SIZE = 1000;
+    private static final int QUERIES = 64;
+
+    @Param({"SIMPLE", "HNSW"})
+    public InMemoryVectorStoreProperties.Type type;
+
+    @Param({"10000", "100000", "1000000"})
+    public int documents;
+
+    @Param({"4"})
+    public int topK;
+
+    private VectorStore vectorStore;
+    private List<SearchRequest> requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        EmbeddingModel embeddingModel = new RandomEmbeddingModel(DIMENSIONS);
+        if (this.type == InMemoryVectorStoreProperties.Type.HNSW) {
+            HnswVectorStore hnswVectorStore = new HnswVectorStore(embeddingModel,
+                    new InMemoryVectorStoreProperties.Hnsw(16, 200, 64),
+                    new InMemoryVectorStoreProperties.Quantization(InMemoryVectorStoreProperties.Encoding.NONE,
+                            3.0, 0.02, 0, null),
+                    new InMemoryVectorStoreProperties.FilterIndex(List.of("source"), 2000));
+            this.vectorStore = hnswVectorStore;
+            ObjectMapper objectMapper = new ObjectMapper();
+            Path snapshot = Path.of("build", "jmh-fixtures", "hnsw-" + DIMENSIONS + "d-" + this.documents + ".snapshot");
+            if (!hnswVectorStore.load(snapshot, objectMapper)) {
+                addDocuments();
+                Files.createDirectories(snapshot.getParent());
+                hnswVectorStore.save(snapshot, objectMapper);
+            }
+        } else {
+            this.vectorStore = SimpleVectorStore.builder(embeddingModel).build();
+            addDocuments();
+        }
+        this.requests = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            this.requests.add(SearchRequest.builder().query("query " + i).topK(this.topK).build());
+        }
+    }
+
+    private void addDocuments() {
+        // 두 저장소 모두 동시 추가를 지원하므로 배치 단위로 병렬 삽입하여 준비 시간을 줄임
+        IntStream.range(0, (this.documents + BATCH_SIZE - 1) / BATCH_SIZE).parallel().forEach(batch -> {
+            List<Document> chunk = new ArrayList<>(BATCH_SIZE);
+            for (int i = batch * BATCH_SIZE; i < Math.min(this.documents, (batch + 1) * BATCH_SIZE); i++) {
+                chunk.add(new Document("doc-" + i, "chunk " + i, Map.of("source", "file-" + (i % 100) + ".pdf")));
+            }
+            this.vectorStore.add(chunk);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (this.vectorStore instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public List<Document> similaritySearch() {
+        SearchRequest request = this.requests.get(this.next++ & (QUERIES - 1));
+        return this.vectorStore.similaritySearch(request);
+    }
+
+    /**
+     * 텍스트마다 항상 같은 난수 벡터를 반환하는 EmbeddingModel입니다.
+     */
+    static class RandomEmbeddingModel implements EmbeddingModel {
+
+        private final int dimensions;
+
+        RandomEmbeddingModel(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (int i = 0; i < request.getInstructions().size(); i++) {
+                embeddings.add(new Embedding(vector(request.getInstructions().get(i)), i));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public List<float[]> embed(List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+            // 토큰 수 기준 배치 분할을 건너뛰어 준비 시간을 줄임
+            return documents.stream().map(document -> vector(document.getText())).toList();
+        }
+
+        @Override
+        public float[] embed(String text) {
+            return vector(text);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return vector(document.getText());
+        }
+
+        @Override
+        public int dimensions() {
+            return this.dimensions;
+        }
+
+        private float[] vector(String text) {
+            Random random = new Random(text.hashCode());
+            float[] vector = new float[this.dimensions];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package kr.hui.springai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.SpringaiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * /chat, /rag, /tool 엔드포인트에 동시 사용자 수를 늘려 가며 요청을 보내고 처리량, 지연 시간(p50/p99),
+ * 스트리밍의 첫 토큰까지의 시간(TTFT)을 측정하는 부하 테스트 드라이버입니다. ({@code ./gradlew loadTest})
+ * <p>
+ * loadtest.base-url이 없으면 'loadtest' 프로파일(대체 모델)로 애플리케이션을 같은 JVM에서 임의 포트로 띄운 뒤 측정하므로,
+ * 결과에서 설정한 모델 지연을 빼면 애플리케이션 자체의 오버헤드와 동시성 한계를 볼 수 있습니다.
+ * 동시 사용자는 응답을 받자마자 다음 요청을 보내며(closed model), 워밍업 구간의 요청은 집계하지 않습니다.
+ * 결과는 표로 출력하고 JSON 파일로 저장하여 버전 간에 비교할 수 있습니다.
+ * <p>
+ * 설정 (Gradle 프로퍼티 -Ploadtest.*=값 또는 시스템 프로퍼티 -Dloadtest.*=값):
+ * <ul>
+ *     <li>loadtest.base-url: 이미 실행 중인 애플리케이션 주소 (e.g., http://localhost:8080)</li>
+ *     <li>loadtest.endpoints: 측정할 엔드포인트 (기본값: chat/call,chat/stream,rag/call,rag/stream,tool/call,tool/stream)</li>
+ *     <li>loadtest.concurrency: 동시 사용자 수 단계 (기본값: 1,4,16,64)</li>
+ *     <li>loadtest.warmup, loadtest.duration: 단계별 워밍업/측정 시간 (기본값: 5s, 20s)</li>
+ *     <li>loadtest.output: 결과 JSON 파일 (기본값: build/results/loadtest/results.json)</li>
+ * </ul>
+ */
+public class LoadTestDriver {
+
+    private static final Map<String, String> PROMPTS = Map.of(
+            "chat", "Spring AI의 Advisor는 어떤 역할을 하나요?",
+            "rag", "VectorStore는 어떻게 유사도 검색을 하나요?",
+            "tool", "서울 날씨 어때요?");
+
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final Duration warmup;
+    private final Duration duration;
+
+    LoadTestDriver(HttpClient httpClient, URI baseUrl, Duration warmup, Duration duration) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> endpoints = list(property("loadtest.endpoints",
+                "chat/call,chat/stream,rag/call,rag/stream,tool/call,tool/stream"));
+        List<Integer> concurrencyLevels = list(property("loadtest.concurrency", "1,4,16,64")).stream()
+                .map(Integer::parseInt).toList();
+        Duration warmup = DurationStyle.detectAndParse(property("loadtest.warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(property("loadtest.duration", "20s"));
+        Path output = Path.of(property("loadtest.output", "build/results/loadtest/results.json"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = System.getProperty("loadtest.base-url");
+        if (baseUrl == null || baseUrl.isBlank()) {
+            context = new SpringApplicationBuilder(SpringaiApplication.class)
+                    .profiles("loadtest")
+                    .properties("server.port=0")
+                    .run(args);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        ExecutorService httpExecutor = Executors.newCachedThreadPool();
+        try {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(httpExecutor)
+                    .build();
+            LoadTestDriver driver = new LoadTestDriver(httpClient, URI.create(baseUrl), warmup, duration);
+            List<Result> results = new ArrayList<>();
+            System.out.printf("%-12s %6s %9s %7s %10s %10s %10s %10s %10s%n", "endpoint", "users", "requests",
+                    "errors", "req/s", "p50(ms)", "p99(ms)", "ttft50", "ttft99");
+            for (String endpoint : endpoints) {
+                for (int concurrency : concurrencyLevels) {
+                    Result result = driver.run(endpoint, concurrency);
+                    results.add(result);
+                    System.out.printf("%-12s %6d %9d %7d %10.1f %10.1f %10.1f %10s %10s%n", result.endpoint(),
+                            result.concurrency(), result.requests(), result.errors(), result.throughput(),
+                            result.latencyP50Millis(), result.latencyP99Millis(), format(result.ttftP50Millis()),
+                            format(result.ttftP99Millis()));
+                }
+            }
+            write(output, baseUrl, warmup, duration, results);
+            System.out.println("Results written to " + output.toAbsolutePath());
+        } finally {
+            httpExecutor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * 동시 사용자 수만큼 스레드를 띄워 워밍업 + 측정 시간 동안 요청을 반복하고, 측정 구간에 시작한 요청만 집계합니다.
+     */
+    Result run(String endpoint, int concurrency) throws InterruptedException {
+        long measureStart = System.nanoTime() + this.warmup.toNanos();
+        long measureEnd = measureStart + this.duration.toNanos();
+        List<Samples> samples = new ArrayList<>();
+        List<Thread> users = new ArrayList<>();
+        for (int user = 0; user < concurrency; user++) {
+            Samples userSamples = new Samples();
+            samples.add(userSamples);
+            String conversationId = "loadtest-" + endpoint.replace('/', '-') + "-" + user;
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < measureEnd) {
+                    long start = System.nanoTime();
+                    Outcome outcome = send(endpoint, conversationId);
+                    if (start >= measureStart) {
+                        userSamples.add(outcome);
+                    }
+                }
+            }, "loadtest-user-" + user);
+            thread.setDaemon(true);
+            thread.start();
+            users.add(thread);
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+        return Result.of(endpoint, concurrency, this.duration, samples);
+    }
+
+    private Outcome send(String endpoint, String conversationId) {
+        String prompt = PROMPTS.getOrDefault(endpoint.substring(0, endpoint.indexOf('/')), PROMPTS.get("chat"));
+        String body = "{\"conversationId\":\"" + conversationId + "\",\"userPrompt\":\"" + prompt + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(this.baseUrl.resolve("/" + endpoint))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        try {
+            if (!endpoint.endsWith("/stream")) {
+                HttpResponse<InputStream> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream in = response.body()) {
+                    in.transferTo(OutputStreamSink.INSTANCE);
+                }
+                return new Outcome(response.statusCode() / 100 == 2, System.nanoTime() - start, -1);
+            }
+            HttpResponse<Stream<String>> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+            long firstToken = -1;
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    if (firstToken < 0 && iterator.next().startsWith("data:")) {
+                        firstToken = System.nanoTime() - start;
+                    }
+                }
+            }
+            // 스트리밍은 응답 헤더를 먼저 보내므로, 데이터 없이 끝나면 생성 중 오류로 봄
+            return new Outcome(response.statusCode() / 100 == 2 && firstToken >= 0, System.nanoTime() - start,
+                    firstToken);
+        } catch (IOException e) {
+            return new Outcome(false, System.nanoTime() - start, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(false, System.nanoTime() - start, -1);
+        }
+    }
+
+    private static void write(Path output, String baseUrl, Duration warmup, Duration duration, List<Result> results)
+            throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("baseUrl", baseUrl);
+        report.put("warmup", warmup.toString());
+        report.put("duration", duration.toString());
+        report.put("results", results);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    private static String format(Double millis) {
+        return millis == null ? "-" : String.format("%.1f", millis);
+    }
+
+    /**
+     * @param success 2xx 응답을 끝까지 받았는지
+     * @param latencyNanos 요청부터 응답 본문 끝까지의 시간
+     * @param firstTokenNanos 요청부터 첫 SSE 데이터까지의 시간 (스트리밍이 아니거나 데이터가 없으면 -1)
+     */
+    record Outcome(boolean success, long latencyNanos, long firstTokenNanos) {
+    }
+
+    /**
+     * 동시 사용자 한 명의 측정값입니다. (해당 사용자 스레드만 기록하므로 동기화하지 않음)
+     */
+    static final class Samples {
+
+        final List<Long> latencies = new ArrayList<>();
+        final List<Long> firstTokens = new ArrayList<>();
+        long errors;
+
+        void add(Outcome outcome) {
+            if (!outcome.success()) {
+                this.errors++;
+                return;
+            }
+            this.latencies.add(outcome.latencyNanos());
+            if (outcome.firstTokenNanos() >= 0) {
+                this.firstTokens.add(outcome.firstTokenNanos());
+            }
+        }
+    }
+
+    /**
+     * 엔드포인트와 동시 사용자 수별 측정 결과입니다. 지연 시간은 성공한 요청만 집계합니다.
+     */
+    record Result(String endpoint, int concurrency, long requests, long errors, double throughput,
+                  double latencyP50Millis, double latencyP99Millis, Double ttftP50Millis, Double ttftP99Millis) {
+
+        static Result of(String endpoint, int concurrency, Duration duration, List<Samples> samples) {
+            long[] latencies = samples.stream().flatMap(s -> s.latencies.stream()).mapToLong(Long::longValue)
+                    .sorted().toArray();
+            long[] firstTokens = samples.stream().flatMap(s -> s.firstTokens.stream()).mapToLong(Long::longValue)
+                    .sorted().toArray();
+            long errors = samples.stream().mapToLong(s -> s.errors).sum();
+            long requests = latencies.length + errors;
+            return new Result(endpoint, concurrency, requests, errors,
+                    latencies.length / (duration.toNanos() / 1e9),
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                    firstTokens.length > 0 ? percentileMillis(firstTokens, 0.50) : null,
+                    firstTokens.length > 0 ? percentileMillis(firstTokens, 0.99) : null);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    /**
+     * 응답 본문을 읽어서 버리는 OutputStream입니다.
+     */
+    private static final class OutputStreamSink extends java.io.OutputStream {
+
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -46,7 +46,7 @@ public class ChatController {
         return this.chatService.stream(buildPrompt(promptBody), promptBody.conversationId());
     }
 
-    private static Prompt buildPrompt(PromptBody promptBody) {
+    static Prompt buildPrompt(PromptBody promptBody) {
         List<Message> messages = new ArrayList<>();
         Optional.ofNullable(promptBody.systemPrompt()).filter(Predicate.not(String::isBlank))
                         .map(SystemMessage.builder()::text).map(SystemMessage.Builder::build).ifPresent(messages::add);
@@ -1,8 +1,8 @@
 package kr.hui.springai.chat.service;
 
+import kr.hui.springai.common.advisor.AdvisorPipelines;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.api.Advisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -17,8 +17,8 @@ public class ChatService {
 
     private final ChatClient chatClient;
 
-    public ChatService(ChatClient.Builder chatClientBuilder, Advisor[] advisors) {
-        this.chatClient = chatClientBuilder.defaultAdvisors(advisors).build();
+    public ChatService(ChatClient.Builder chatClientBuilder, AdvisorPipelines advisorPipelines) {
+        this.chatClient = chatClientBuilder.defaultAdvisors(advisorPipelines.get(AdvisorPipelines.CHAT)).build();
     }
 
     /**
@@ -0,0 +1,24 @@
+package kr.hui.springai.common.advisor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 엔드포인트별 어드바이저 파이프라인 설정입니다.
+ * 파이프라인 이름(chat, tool, rag 등)마다 실행할 Advisor Bean 이름 목록을 지정합니다.
+ *
+ * <pre>
+ * app.advisor.pipelines.chat: simpleLoggerAdvisor, messageChatMemoryAdvisor
+ * </pre>
+ *
+ * @param pipelines 파이프라인 이름 → Advisor Bean 이름 목록
+ */
+@ConfigurationProperties(prefix = "app.advisor")
+public record AdvisorPipelineProperties(Map<String, List<String>> pipelines) {
+
+    public AdvisorPipelineProperties {
+        pipelines = pipelines == null ? Map.of() : pipelines;
+    }
+}
@@ -0,0 +1,93 @@
+package kr.hui.springai.common.advisor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.OrderComparator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 이름으로 조회할 수 있는 어드바이저 파이프라인 모음입니다.
+ * 각 서비스는 전체 Advisor Bean 배열 대신 자신의 파이프라인(chat, tool, rag)만 받아서
+ * 불필요한 어드바이저(예: RAG 검색)가 다른 엔드포인트에서 실행되지 않도록 합니다.
+ * 설정에 있지만 등록되지 않은 Advisor Bean(조건부 Bean 등)은 건너뛰고 시작 시 리포트에 표시합니다.
+ * 모든 파이프라인의 앞뒤에는 단계별 지연 시간과 토큰 처리량을 기록하는 {@link ChatMetricsAdvisor}가 추가됩니다.
+ */
+@Slf4j
+@Component
+public class AdvisorPipelines {
+
+    public static final String CHAT = "chat";
+    public static final String TOOL = "tool";
+    public static final String RAG = "rag";
+
+    private final Map<String, List<Advisor>> pipelines = new LinkedHashMap<>();
+    private final Map<String, List<String>> missingAdvisors = new LinkedHashMap<>();
+
+    /**
+     * @param properties 파이프라인 설정
+     * @param advisorBeans Bean 이름 → Advisor (Spring이 자동으로 주입)
+     * @param meterRegistry 파이프라인별 지표를 등록할 MeterRegistry
+     */
+    public AdvisorPipelines(AdvisorPipelineProperties properties, Map<String, Advisor> advisorBeans,
+                            MeterRegistry meterRegistry) {
+        properties.pipelines().forEach((name, advisorNames) -> {
+            List<Advisor> advisors = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String advisorName : advisorNames) {
+                Advisor advisor = advisorBeans.get(advisorName.trim());
+                if (advisor == null) {
+                    missing.add(advisorName.trim());
+                } else {
+                    advisors.add(advisor);
+                }
+            }
+            advisors.addAll(ChatMetricsAdvisor.advisors(name, meterRegistry));
+            // ChatClient와 동일한 순서(order)로 정렬하여 리포트와 실제 실행 순서를 맞춤
+            OrderComparator.sort(advisors);
+            this.pipelines.put(name, List.copyOf(advisors));
+            this.missingAdvisors.put(name, List.copyOf(missing));
+        });
+    }
+
+    /**
+     * 이름에 해당하는 파이프라인의 어드바이저 목록을 반환합니다.
+     *
+     * @param name 파이프라인 이름 (e.g., "chat", "tool", "rag")
+     * @return 실행 순서대로 정렬된 어드바이저 목록
+     * @throws IllegalStateException 설정되지 않은 파이프라인 이름인 경우
+     */
+    public List<Advisor> get(String name) {
+        List<Advisor> advisors = this.pipelines.get(name);
+        if (advisors == null) {
+            throw new IllegalStateException("Advisor pipeline '" + name + "' is not configured (app.advisor.pipelines."
+                    + name + ")");
+        }
+        return advisors;
+    }
+
+    /**
+     * 애플리케이션 시작 후 파이프라인별로 실행되는 어드바이저를 로그로 출력합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        this.pipelines.forEach((name, advisors) -> {
+            String chain = advisors.stream()
+                    .map(advisor -> advisor.getName() + "(order=" + advisor.getOrder() + ")")
+                    .collect(Collectors.joining(" -> "));
+            log.info("Advisor pipeline [{}]: {}", name, chain.isEmpty() ? "(none)" : chain);
+            List<String> missing = this.missingAdvisors.get(name);
+            if (!missing.isEmpty()) {
+                log.warn("Advisor pipeline [{}] skipped unregistered advisors: {}", name, missing);
+            }
+        });
+    }
+}
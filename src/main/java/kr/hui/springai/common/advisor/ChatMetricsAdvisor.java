@@ -0,0 +1,221 @@
+package kr.hui.springai.common.advisor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 채팅 파이프라인(chat, rag, tool)의 단계별 지연 시간과 처리량을 기록하는 어드바이저입니다.
+ * {@link AdvisorPipelines}가 파이프라인마다 두 인스턴스를 추가하며, 어드바이저 체인의 가장 바깥과 가장 안쪽에서 실행됩니다.
+ * <ul>
+ *     <li>바깥: 요청 전체 시간 'chat.requests'(mode=call/stream, outcome), 스트리밍 첫 토큰까지의 시간 'chat.stream.first.token',
+ *     초당 생성 토큰 수 'chat.stream.tokens.per.second', 응답 메타데이터의 토큰 사용량 'chat.tokens'(type=prompt/completion)</li>
+ *     <li>안쪽: 모델 호출 전까지의 시간(대화 메모리, 캐시, 검색 증강) 'chat.stage.duration'(stage=augmentation)과
+ *     모델 호출 시간(stage=generation)</li>
+ * </ul>
+ * 모든 지표에는 pipeline 태그만 붙이므로(대화 ID, 질의 등 값이 많은 태그는 붙이지 않음) 시계열 수가 늘지 않습니다.
+ * 스트리밍 응답에 토큰 사용량이 없으면 내용이 있는 청크 수를 생성 토큰 수로 봅니다.
+ */
+class ChatMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+    private static final String START_NANOS = ChatMetricsAdvisor.class.getName() + ".startNanos";
+
+    private final String pipeline;
+    private final boolean outer;
+    private final MeterRegistry meterRegistry;
+    private final Timer firstToken;
+    private final DistributionSummary tokensPerSecond;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final Timer augmentation;
+    private final Timer generation;
+
+    private ChatMetricsAdvisor(String pipeline, boolean outer, MeterRegistry meterRegistry) {
+        this.pipeline = pipeline;
+        this.outer = outer;
+        this.meterRegistry = meterRegistry;
+        this.firstToken = Timer.builder("chat.stream.first.token")
+                .description("Time from request to the first streamed token")
+                .tag("pipeline", pipeline)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.tokensPerSecond = DistributionSummary.builder("chat.stream.tokens.per.second")
+                .description("Completion tokens per second after the first streamed token")
+                .tag("pipeline", pipeline)
+                .register(meterRegistry);
+        this.promptTokens = Counter.builder("chat.tokens").tag("pipeline", pipeline).tag("type", "prompt")
+                .register(meterRegistry);
+        this.completionTokens = Counter.builder("chat.tokens").tag("pipeline", pipeline).tag("type", "completion")
+                .register(meterRegistry);
+        this.augmentation = stageTimer("augmentation");
+        this.generation = stageTimer("generation");
+    }
+
+    /**
+     * 파이프라인의 가장 바깥과 가장 안쪽에 둘 어드바이저 두 개를 만듭니다.
+     *
+     * @param pipeline 지표의 pipeline 태그 (e.g., chat, rag, tool)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    static List<Advisor> advisors(String pipeline, MeterRegistry meterRegistry) {
+        return List.of(new ChatMetricsAdvisor(pipeline, true, meterRegistry),
+                new ChatMetricsAdvisor(pipeline, false, meterRegistry));
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        long start = System.nanoTime();
+        if (!this.outer) {
+            recordAugmentation(chatClientRequest, start);
+            ChatClientResponse chatClientResponse = callAdvisorChain.nextCall(chatClientRequest);
+            this.generation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return chatClientResponse;
+        }
+        String outcome = "error";
+        try {
+            ChatClientResponse chatClientResponse = callAdvisorChain.nextCall(
+                    chatClientRequest.mutate().context(START_NANOS, start).build());
+            recordUsage(chatClientResponse.chatResponse());
+            outcome = "success";
+            return chatClientResponse;
+        } finally {
+            requestTimer("call", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest chatClientRequest,
+                                                 StreamAdvisorChain streamAdvisorChain) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            if (!this.outer) {
+                recordAugmentation(chatClientRequest, start);
+                return streamAdvisorChain.nextStream(chatClientRequest).doFinally(signal ->
+                        this.generation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            }
+            AtomicLong firstTokenNanos = new AtomicLong();
+            AtomicLong chunks = new AtomicLong();
+            AtomicReference<Usage> usage = new AtomicReference<>();
+            return streamAdvisorChain.nextStream(chatClientRequest.mutate().context(START_NANOS, start).build())
+                    .doOnNext(chatClientResponse -> {
+                        ChatResponse chatResponse = chatClientResponse.chatResponse();
+                        if (chatResponse == null) {
+                            return;
+                        }
+                        if (hasText(chatResponse)) {
+                            chunks.incrementAndGet();
+                            if (firstTokenNanos.compareAndSet(0, System.nanoTime())) {
+                                this.firstToken.record(firstTokenNanos.get() - start, TimeUnit.NANOSECONDS);
+                            }
+                        }
+                        Usage chunkUsage = chatResponse.getMetadata() != null ? chatResponse.getMetadata().getUsage() : null;
+                        if (chunkUsage != null && chunkUsage.getTotalTokens() != null && chunkUsage.getTotalTokens() > 0) {
+                            usage.set(chunkUsage); // 사용량은 보통 마지막 청크에만 있음
+                        }
+                    })
+                    .doFinally(signal -> {
+                        long end = System.nanoTime();
+                        requestTimer("stream", outcome(signal)).record(end - start, TimeUnit.NANOSECONDS);
+                        long completion = chunks.get();
+                        if (usage.get() != null) {
+                            recordUsage(usage.get());
+                            if (usage.get().getCompletionTokens() != null) {
+                                completion = usage.get().getCompletionTokens();
+                            }
+                        }
+                        long first = firstTokenNanos.get();
+                        if (signal == SignalType.ON_COMPLETE && first != 0 && end > first && completion > 1) {
+                            this.tokensPerSecond.record(completion / ((end - first) / 1e9));
+                        }
+                    });
+        });
+    }
+
+    private void recordAugmentation(ChatClientRequest chatClientRequest, long now) {
+        if (chatClientRequest.context().get(START_NANOS) instanceof Long start) {
+            this.augmentation.record(now - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordUsage(ChatResponse chatResponse) {
+        if (chatResponse != null && chatResponse.getMetadata() != null) {
+            recordUsage(chatResponse.getMetadata().getUsage());
+        }
+    }
+
+    private void recordUsage(Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        if (usage.getPromptTokens() != null) {
+            this.promptTokens.increment(usage.getPromptTokens());
+        }
+        if (usage.getCompletionTokens() != null) {
+            this.completionTokens.increment(usage.getCompletionTokens());
+        }
+    }
+
+    private static boolean hasText(ChatResponse chatResponse) {
+        return chatResponse.getResult() != null && chatResponse.getResult().getOutput() != null
+                && StringUtils.hasLength(chatResponse.getResult().getOutput().getText());
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+
+    /**
+     * outcome 태그 값이 요청마다 달라지므로 등록된 Timer를 조회합니다. (같은 이름과 태그면 같은 Timer를 반환)
+     */
+    private Timer requestTimer(String mode, String outcome) {
+        return Timer.builder("chat.requests")
+                .description("Chat pipeline request latency")
+                .tag("pipeline", this.pipeline)
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("chat.stage.duration")
+                .description("Chat pipeline stage latency")
+                .tag("pipeline", this.pipeline)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return ChatMetricsAdvisor.class.getSimpleName() + (this.outer ? "[outer]" : "[inner]");
+    }
+
+    @Override
+    public int getOrder() {
+        return this.outer ? Ordered.HIGHEST_PRECEDENCE : Ordered.LOWEST_PRECEDENCE - 1; // 모델 호출 어드바이저(LOWEST_PRECEDENCE) 바로 앞
+    }
+}
@@ -0,0 +1,164 @@
+package kr.hui.springai.common.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 크기 제한과 선택적 TTL을 가진 LRU 캐시입니다.
+ * 키 해시로 나눈 여러 세그먼트가 각자 잠금을 가지므로, 서로 다른 세그먼트의 키는 경합하지 않습니다.
+ * 각 세그먼트는 maxSize / 세그먼트 수만큼 보관하며, 넘치면 가장 오래 사용하지 않은 항목을 제거합니다.
+ *
+ * @param <K> 키 타입
+ * @param <V> 값 타입
+ */
+public class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final BiConsumer<K, V> evictionListener;
+
+    /**
+     * @param maxSize 최대 항목 수
+     * @param ttl 항목 유지 시간 (null 또는 0이면 만료 없음)
+     * @param evictionListener 크기 초과로 제거된 항목을 받는 리스너 (만료/명시적 삭제는 포함하지 않음)
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize, Duration ttl, BiConsumer<K, V> evictionListener) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment<>(segmentSize);
+        }
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.evictionListener = evictionListener;
+    }
+
+    public LruCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, null);
+    }
+
+    /**
+     * @return 만료되지 않은 값, 없으면 null
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, System.nanoTime())) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        List<Map.Entry<K, Entry<V>>> evicted;
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, System.nanoTime()));
+            evicted = segment.drainEvicted();
+        }
+        if (evicted != null && this.evictionListener != null) {
+            evicted.forEach(entry -> this.evictionListener.accept(entry.getKey(), entry.getValue().value));
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 만료되지 않은 모든 항목을 순회합니다. 순회 중 LRU 순서는 바뀌지 않습니다.
+     */
+    public void forEach(BiConsumer<K, V> action) {
+        long now = System.nanoTime();
+        for (Segment<K, V> segment : this.segments) {
+            List<Map.Entry<K, V>> live = new ArrayList<>();
+            synchronized (segment) {
+                segment.entrySet().removeIf(entry -> isExpired(entry.getValue(), now));
+                segment.forEach((key, entry) -> live.add(Map.entry(key, entry.value)));
+            }
+            live.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * @return 현재 항목 수 (만료되었지만 아직 제거되지 않은 항목 포함)
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return this.ttlNanos > 0 && now - entry.createdNanos > this.ttlNanos;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return this.segments[Math.floorMod(hash, this.segments.length)];
+    }
+
+    private record Entry<V>(V value, long createdNanos) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int maxSize;
+        private List<Map.Entry<K, Entry<V>>> evicted;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > this.maxSize) {
+                if (this.evicted == null) {
+                    this.evicted = new ArrayList<>(1);
+                }
+                this.evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                return true;
+            }
+            return false;
+        }
+
+        List<Map.Entry<K, Entry<V>>> drainEvicted() {
+            List<Map.Entry<K, Entry<V>>> drained = this.evicted;
+            this.evicted = null;
+            return drained;
+        }
+    }
+}
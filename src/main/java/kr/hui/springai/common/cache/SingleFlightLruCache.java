@@ -0,0 +1,86 @@
+package kr.hui.springai.common.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 값을 계산하는 함수를 함께 받는 {@link LruCache}입니다.
+ * 같은 키를 동시에 요청하면 첫 요청만 값을 계산하고 나머지는 그 결과를 기다리므로(single-flight),
+ * 인기 있는 키의 캐시가 비어 있을 때 같은 계산(예: LLM 호출)이 여러 번 실행되지 않습니다.
+ * 계산이 실패하면 캐시하지 않고, 기다리던 요청에도 같은 예외를 던집니다.
+ *
+ * @param <K> 키 타입
+ * @param <V> 값 타입
+ */
+public class SingleFlightLruCache<K, V> {
+
+    private final LruCache<K, V> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize 최대 항목 수
+     * @param ttl 항목 유지 시간 (null 또는 0이면 만료 없음)
+     */
+    public SingleFlightLruCache(int maxSize, Duration ttl) {
+        this.cache = new LruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * 캐시된 값을 반환하고, 없으면 loader로 계산하여 저장합니다.
+     *
+     * @param loader 값을 계산하는 함수 (null을 반환하면 캐시하지 않음)
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = this.cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // 조회와 등록 사이에 다른 요청의 계산이 끝났을 수 있음
+            value = this.cache.get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    this.cache.put(key, value);
+                }
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public int size() {
+        return this.cache.size();
+    }
+}
@@ -1,13 +1,23 @@
 package kr.hui.springai.common.config;
 
 import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.memory.BoundedChatMemoryRepository;
+import kr.hui.springai.common.memory.ChatMemoryProperties;
+import kr.hui.springai.common.memory.DurableChatMemoryRepository;
+import kr.hui.springai.common.memory.SummarizingChatMemory;
+import kr.hui.springai.common.token.TokenCounter;
 import kr.hui.springai.rag.service.RagChatService;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -15,6 +25,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -38,15 +49,80 @@ public class CommonChatConfig {
     }
 
     /**
-     * 대화 기록을 인메모리에 저장하는 ChatMemory Bean을 생성합니다.
+     * 로컬 토크나이저로 토큰 수를 세는 TokenCounter Bean을 생성합니다.
+     * 토큰 예산 기반 청크 분할과 프롬프트 크기 계산에 공통으로 사용합니다.
+     *
+     * @param encoding jtokkit 인코딩 이름 (e.g., cl100k_base, o200k_base)
+     * @return TokenCounter 인스턴스
+     */
+    @Bean
+    public TokenCounter tokenCounter(@Value("${app.tokenizer.encoding:cl100k_base}") String encoding) {
+        return new TokenCounter(encoding);
+    }
+
+    /**
+     * 대화 기록을 저장하는 ChatMemoryRepository Bean을 생성합니다.
+     * 메모리에는 대화 수, 추정 크기, 유휴 시간에 상한을 두어 conversationId가 늘어나도 힙 사용량이 제한됩니다.
+     * 'app.chat.memory.durable.enabled=true'이면 로그 파일에도 저장하여 재시작 후 복원하며, 메모리 저장소는 캐시로 사용합니다.
+     *
+     * @param properties 대화 기록 저장소 설정
+     * @param objectMapper 로그 파일의 메시지 메타데이터 직렬화에 사용할 ObjectMapper
+     * @param meterRegistry 저장소 지표를 등록할 MeterRegistry
+     * @return BoundedChatMemoryRepository 또는 DurableChatMemoryRepository 인스턴스
+     */
+    @Bean
+    public ChatMemoryRepository chatMemoryRepository(ChatMemoryProperties properties, ObjectMapper objectMapper,
+                                                     MeterRegistry meterRegistry) {
+        BoundedChatMemoryRepository repository = new BoundedChatMemoryRepository(properties.maxConversations(),
+                properties.maxBytes().toBytes(), properties.idleTtl(), meterRegistry);
+        ChatMemoryProperties.Durable durable = properties.durable();
+        if (!durable.enabled()) {
+            return repository;
+        }
+        return new DurableChatMemoryRepository(Path.of(durable.directory()), repository,
+                durable.segmentSize().toBytes(), durable.flushInterval(), durable.queueCapacity(),
+                durable.compactionMinSegments(), durable.retention(), objectMapper, meterRegistry);
+    }
+
+    /**
+     * 대화 기록을 저장하는 ChatMemory Bean을 생성합니다.
      * MessageWindowChatMemory는 지정된 개수(maxMessages)만큼의 최근 대화만 유지하여
-     * 메모리 사용량을 관리합니다.
+     * 대화별 메모리 사용량을 관리합니다.
      *
+     * @param properties 대화 기록 저장소 설정 (maxMessages)
+     * @param chatMemoryRepository 대화 기록을 저장할 ChatMemoryRepository
      * @return ChatMemory 인스턴스
      */
     @Bean
-    public ChatMemory chatMemory() {
-        return MessageWindowChatMemory.builder().maxMessages(10).build();
+    @ConditionalOnProperty(prefix = "app.chat.memory", name = "type", havingValue = "window", matchIfMissing = true)
+    public ChatMemory chatMemory(ChatMemoryProperties properties, ChatMemoryRepository chatMemoryRepository) {
+        return MessageWindowChatMemory.builder()
+                .chatMemoryRepository(chatMemoryRepository)
+                .maxMessages(properties.maxMessages())
+                .build();
+    }
+
+    /**
+     * 토큰 예산 안의 최근 대화와 이전 대화의 요약을 유지하는 ChatMemory Bean을 생성합니다. ('app.chat.memory.type=summary')
+     * 최근 대화가 예산을 넘으면 응답이 끝난 뒤 백그라운드에서 오래된 대화를 요약에 합치므로,
+     * 긴 대화에서도 프롬프트 크기가 제한되고 요청 지연에 요약 시간이 들어가지 않습니다.
+     *
+     * @param properties 대화 기록 저장소 설정 (summary)
+     * @param chatMemoryRepository 요약과 최근 대화를 저장할 ChatMemoryRepository
+     * @param chatModel 요약에 사용할 ChatModel (대화 기록 어드바이저 없이 호출)
+     * @param tokenCounter 메시지 토큰 수를 셀 TokenCounter
+     * @param meterRegistry 요약 지표를 등록할 MeterRegistry
+     * @return SummarizingChatMemory 인스턴스
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.chat.memory", name = "type", havingValue = "summary")
+    public SummarizingChatMemory summarizingChatMemory(ChatMemoryProperties properties,
+                                                       ChatMemoryRepository chatMemoryRepository, ChatModel chatModel,
+                                                       TokenCounter tokenCounter, MeterRegistry meterRegistry) {
+        ChatMemoryProperties.Summary summary = properties.summary();
+        return new SummarizingChatMemory(chatMemoryRepository, ChatClient.builder(chatModel).build(), tokenCounter,
+                summary.maxTokens(), summary.recentTokens(), summary.summaryTokens(), summary.maxMessages(),
+                summary.concurrency(), meterRegistry);
     }
 
     /**
@@ -0,0 +1,275 @@
+package kr.hui.springai.common.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대화 수, 추정 크기, 유휴 시간에 상한이 있는 인메모리 ChatMemoryRepository입니다.
+ * 기본 InMemoryChatMemoryRepository는 conversationId마다 기록을 영원히 보관하므로, 클라이언트가 새 conversationId를
+ * 보낼 때마다 힙이 늘어납니다. 이 저장소는 상한을 넘으면 가장 오래 사용하지 않은 대화부터 제거합니다.
+ * <p>
+ * conversationId 해시로 나눈 세그먼트가 각자 잠금을 가지므로(lock striping) 서로 다른 세그먼트의 대화는 경합하지 않으며,
+ * 대화 수/크기 상한은 세그먼트마다 나누어 적용합니다. 각 세그먼트는 접근 순서로 정렬되어 있어
+ * 가장 오래 사용하지 않은 대화(LRU)와 만료된 대화를 앞에서부터 바로 찾을 수 있습니다.
+ * 만료된 대화는 접근할 때와 주기적인 정리(idleTtl / 2 간격, 최대 1분)에서 제거합니다.
+ */
+public class BoundedChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
+
+    private static final int MAX_SEGMENTS = 64;
+    // 세그먼트별 상한이 너무 작으면 해시 분포 차이로 전체 상한보다 훨씬 적게 보관하므로 세그먼트당 최소 대화 수를 둠
+    private static final int MIN_SEGMENT_CONVERSATIONS = 16;
+    private static final long MAX_SWEEP_INTERVAL_MILLIS = 60_000;
+
+    // 메시지 객체, 메타데이터 맵, 리스트 슬롯 등 본문 외 크기의 추정치
+    private static final int MESSAGE_OVERHEAD_BYTES = 256;
+
+    private final Segment[] segments;
+    private final long idleTtlNanos;
+    private final AtomicLong conversations = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param maxConversations 보관할 최대 대화 수
+     * @param maxBytes 보관할 대화 기록의 최대 추정 크기 (바이트)
+     * @param idleTtl 마지막 접근 이후 대화를 유지하는 시간 (null 또는 0이면 만료 없음)
+     * @param meterRegistry 대화 수/크기 게이지와 제거 카운터를 등록할 MeterRegistry
+     */
+    public BoundedChatMemoryRepository(int maxConversations, long maxBytes, Duration idleTtl,
+                                       MeterRegistry meterRegistry) {
+        if (maxConversations <= 0) {
+            throw new IllegalArgumentException("maxConversations must be positive: " + maxConversations);
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxConversations / MIN_SEGMENT_CONVERSATIONS));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentConversations = maxConversations / segmentCount + (i < maxConversations % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment(segmentConversations, Math.max(1, maxBytes / segmentCount));
+        }
+        this.idleTtlNanos = idleTtl == null ? 0 : idleTtl.toNanos();
+
+        Gauge.builder("chat.memory.conversations", this.conversations, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("chat.memory.retained", this.retainedBytes, AtomicLong::get).baseUnit("bytes")
+                .register(meterRegistry);
+        this.sizeEvictions = Counter.builder("chat.memory.evictions").tag("reason", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("chat.memory.evictions").tag("reason", "expired")
+                .register(meterRegistry);
+
+        if (this.idleTtlNanos > 0) {
+            long interval = Math.max(1, Math.min(MAX_SWEEP_INTERVAL_MILLIS, idleTtl.toMillis() / 2));
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chat-memory-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sweeper.scheduleWithFixedDelay(this::evictExpired, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        long now = System.nanoTime();
+        List<String> conversationIds = new ArrayList<>();
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                evictExpired(segment, now);
+                conversationIds.addAll(segment.keySet());
+            }
+        }
+        return conversationIds;
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        Segment segment = segmentFor(conversationId);
+        synchronized (segment) {
+            evictExpired(segment, System.nanoTime());
+            Conversation conversation = segment.get(conversationId);
+            if (conversation == null) {
+                return List.of();
+            }
+            conversation.lastAccessNanos = System.nanoTime();
+            return conversation.messages;
+        }
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        if (messages.isEmpty()) {
+            deleteByConversationId(conversationId);
+            return;
+        }
+        Conversation conversation = new Conversation(List.copyOf(messages), estimateBytes(messages), System.nanoTime());
+        Segment segment = segmentFor(conversationId);
+        synchronized (segment) {
+            evictExpired(segment, conversation.lastAccessNanos);
+            Conversation previous = segment.put(conversationId, conversation);
+            if (previous != null) {
+                segment.removed(previous);
+            }
+            segment.added(conversation);
+            // 방금 저장한 대화는 접근 순서의 맨 뒤에 있으므로 마지막 하나는 항상 남음
+            Iterator<Conversation> eldest = segment.values().iterator();
+            while (segment.size() > 1
+                    && (segment.size() > segment.maxConversations || segment.bytes > segment.maxBytes)) {
+                segment.removed(eldest.next());
+                eldest.remove();
+                this.sizeEvictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        Segment segment = segmentFor(conversationId);
+        synchronized (segment) {
+            Conversation removed = segment.remove(conversationId);
+            if (removed != null) {
+                segment.removed(removed);
+            }
+        }
+    }
+
+    /**
+     * 모든 세그먼트에서 유휴 시간을 넘긴 대화를 제거합니다.
+     */
+    public void evictExpired() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                evictExpired(segment, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * @return 보관 중인 대화 수 (만료되었지만 아직 제거되지 않은 대화 포함)
+     */
+    public long size() {
+        return this.conversations.get();
+    }
+
+    /**
+     * @return 보관 중인 대화 기록의 추정 크기 (바이트)
+     */
+    public long retainedBytes() {
+        return this.retainedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        if (this.sweeper != null) {
+            this.sweeper.shutdownNow();
+        }
+    }
+
+    // 접근 순서로 정렬되어 있으므로 앞에서부터 만료되지 않은 대화를 만날 때까지만 확인
+    private void evictExpired(Segment segment, long now) {
+        if (this.idleTtlNanos <= 0) {
+            return;
+        }
+        Iterator<Conversation> eldest = segment.values().iterator();
+        while (eldest.hasNext()) {
+            Conversation conversation = eldest.next();
+            if (now - conversation.lastAccessNanos <= this.idleTtlNanos) {
+                return;
+            }
+            segment.removed(conversation);
+            eldest.remove();
+            this.expiredEvictions.increment();
+        }
+    }
+
+    private Segment segmentFor(String conversationId) {
+        int hash = conversationId.hashCode();
+        hash ^= (hash >>> 16);
+        return this.segments[Math.floorMod(hash, this.segments.length)];
+    }
+
+    /**
+     * 메시지 본문, 도구 호출 인자, 도구 응답의 UTF-16 크기에 메시지당 고정 오버헤드를 더한 추정 크기입니다.
+     */
+    static long estimateBytes(List<Message> messages) {
+        long bytes = 0;
+        for (Message message : messages) {
+            bytes += MESSAGE_OVERHEAD_BYTES + chars(message.getText()) * 2L;
+            if (message instanceof AssistantMessage assistantMessage && assistantMessage.hasToolCalls()) {
+                for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
+                    bytes += (chars(toolCall.id()) + chars(toolCall.name()) + chars(toolCall.arguments())) * 2L;
+                }
+            }
+            if (message instanceof ToolResponseMessage toolResponseMessage) {
+                for (ToolResponseMessage.ToolResponse response : toolResponseMessage.getResponses()) {
+                    bytes += (chars(response.id()) + chars(response.name()) + chars(response.responseData())) * 2L;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static int chars(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private static final class Conversation {
+
+        final List<Message> messages;
+        final long bytes;
+        long lastAccessNanos;
+
+        Conversation(List<Message> messages, long bytes, long lastAccessNanos) {
+            this.messages = messages;
+            this.bytes = bytes;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    /**
+     * 접근 순서로 정렬된 대화 맵과 세그먼트별 상한입니다. 모든 접근은 세그먼트 잠금 안에서 합니다.
+     */
+    private final class Segment extends LinkedHashMap<String, Conversation> {
+
+        final int maxConversations;
+        final long maxBytes;
+        long bytes;
+
+        Segment(int maxConversations, long maxBytes) {
+            super(16, 0.75f, true);
+            this.maxConversations = maxConversations;
+            this.maxBytes = maxBytes;
+        }
+
+        void added(Conversation conversation) {
+            this.bytes += conversation.bytes;
+            conversations.incrementAndGet();
+            retainedBytes.addAndGet(conversation.bytes);
+        }
+
+        void removed(Conversation conversation) {
+            this.bytes -= conversation.bytes;
+            conversations.decrementAndGet();
+            retainedBytes.addAndGet(-conversation.bytes);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package kr.hui.springai.common.memory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 대화 기록의 추가 전용(append-only) 세그먼트 로그입니다. 대화 기록을 저장할 때마다 대화 전체를 레코드 하나로 덧붙이며,
+ * 같은 대화의 마지막 레코드가 현재 상태입니다. (삭제는 본문이 없는 레코드)
+ * <pre>
+ * 레코드 : 본문 길이(4) CRC32C(4) | 종류(1: P/D) 저장 시각(8, epoch millis) ID 길이(4) ID(UTF-8) 메시지({@link ChatMessageCodec})
+ * 파일   : {id}.log (세그먼트, 가장 큰 id가 쓰는 중인 세그먼트), {id}.compact (id 이하 세그먼트를 압축한 결과)
+ * </pre>
+ * 쓰는 중인 세그먼트가 segmentBytes를 넘으면 닫고(seal) 새 세그먼트를 엽니다. 압축은 닫힌 세그먼트들의 살아 있는 레코드만
+ * 새 파일에 복사한 뒤 {id}.compact로 이동(rename)하고 원래 세그먼트를 지우므로, 중간에 종료되어도 시작 시 가장 큰
+ * .compact 이하의 파일만 정리하면 됩니다. 시작 시 닫힌 세그먼트는 헤더만 읽고 본문을 건너뛰어 색인을 빠르게 복원하며,
+ * 종료 직전까지 쓰던 마지막 세그먼트만 CRC를 확인하여 덜 쓰인 꼬리를 잘라냅니다.
+ * <p>
+ * append는 한 스레드(쓰기 스레드)에서만, compact는 다른 한 스레드에서만 호출해야 합니다. read는 어느 스레드에서나 호출할 수 있습니다.
+ */
+@Slf4j
+final class ChatMemoryLog implements AutoCloseable {
+
+    static final byte PUT = 'P';
+    static final byte DELETE = 'D';
+
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final int BODY_FIXED_BYTES = 1 + Long.BYTES + Integer.BYTES;
+    private static final String LOG_SUFFIX = ".log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile Segment active;
+
+    /**
+     * @param directory 세그먼트 파일을 둘 디렉터리 (없으면 생성)
+     * @param segmentBytes 세그먼트를 닫고 새로 여는 크기
+     */
+    ChatMemoryLog(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * 남아 있는 세그먼트를 순서대로 읽어 대화별 마지막 레코드의 위치를 색인에 채우고, 쓸 세그먼트를 엽니다.
+     *
+     * @param index 대화 ID별 마지막 레코드 위치를 채울 맵 (삭제된 대화는 제거)
+     * @return 읽은 레코드 수
+     */
+    int open(Map<String, Location> index) throws IOException {
+        Files.createDirectories(this.directory);
+        List<Long> logIds = new ArrayList<>();
+        long compactedId = -1;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // 끝나지 않은 압축
+                } else if (name.endsWith(COMPACT_SUFFIX)) {
+                    compactedId = Math.max(compactedId, parseId(name, COMPACT_SUFFIX));
+                } else if (name.endsWith(LOG_SUFFIX)) {
+                    logIds.add(parseId(name, LOG_SUFFIX));
+                }
+            }
+        }
+        // 압축 후 지우지 못한 이전 세그먼트/압축 파일 정리
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if ((name.endsWith(LOG_SUFFIX) && parseId(name, LOG_SUFFIX) <= compactedId)
+                        || (name.endsWith(COMPACT_SUFFIX) && parseId(name, COMPACT_SUFFIX) < compactedId)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        long lastCompactedId = compactedId;
+        logIds.removeIf(id -> id <= lastCompactedId);
+        Collections.sort(logIds);
+
+        int records = 0;
+        if (compactedId >= 0) {
+            Segment compacted = openSegment(compactedId, COMPACT_SUFFIX);
+            records += replay(compacted, index, false);
+        }
+        for (int i = 0; i < logIds.size(); i++) {
+            Segment segment = openSegment(logIds.get(i), LOG_SUFFIX);
+            records += replay(segment, index, i == logIds.size() - 1);
+        }
+        if (logIds.isEmpty()) {
+            this.active = openSegment(Math.max(compactedId, 0) + 1, LOG_SUFFIX);
+        } else {
+            this.active = this.segments.get(logIds.get(logIds.size() - 1));
+        }
+        return records;
+    }
+
+    /**
+     * 레코드들을 쓰는 중인 세그먼트 끝에 덧붙이고 fsync합니다. 세그먼트가 segmentBytes를 넘었으면 먼저 새 세그먼트를 엽니다.
+     * 쓰기에 실패하면 덧붙이던 위치로 파일을 되돌립니다.
+     *
+     * @return 레코드별 위치 (입력 순서)
+     */
+    List<Location> append(List<Record> records) throws IOException {
+        Segment segment = this.active;
+        if (segment.size >= this.segmentBytes) {
+            segment.channel.force(true);
+            segment = openSegment(segment.id + 1, LOG_SUFFIX);
+            this.active = segment;
+        }
+        List<byte[]> encoded = new ArrayList<>(records.size());
+        int total = 0;
+        for (Record record : records) {
+            byte[] bytes = record.encode();
+            encoded.add(bytes);
+            total += bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        List<Location> locations = new ArrayList<>(records.size());
+        long position = segment.size;
+        for (int i = 0; i < records.size(); i++) {
+            byte[] bytes = encoded.get(i);
+            locations.add(new Location(segment, position + buffer.position(), bytes.length,
+                    records.get(i).timestampMillis()));
+            buffer.put(bytes);
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer, position + buffer.position());
+            }
+            segment.channel.force(false);
+        } catch (IOException e) {
+            try {
+                segment.channel.truncate(position);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        segment.size = position + total;
+        return locations;
+    }
+
+    /**
+     * @return 레코드의 메시지 본문 ({@link ChatMessageCodec} 형식)
+     * @throws ClosedChannelException 압축으로 세그먼트가 닫힌 경우 (색인에서 새 위치를 다시 찾아야 함)
+     */
+    byte[] read(Location location) throws IOException {
+        byte[] bytes = readRecord(location).array();
+        int idLength = ByteBuffer.wrap(bytes, RECORD_HEADER_BYTES + 1 + Long.BYTES, Integer.BYTES).getInt();
+        int payloadStart = RECORD_HEADER_BYTES + BODY_FIXED_BYTES + idLength;
+        byte[] payload = new byte[bytes.length - payloadStart];
+        System.arraycopy(bytes, payloadStart, payload, 0, payload.length);
+        return payload;
+    }
+
+    private static ByteBuffer readRecord(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        while (buffer.hasRemaining()) {
+            if (location.segment().channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                throw new EOFException("Truncated chat memory record in " + location.segment().path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @return 닫힌(더 이상 쓰지 않는) 세그먼트 수 (압축 결과 포함)
+     */
+    int sealedSegments() {
+        return this.segments.size() - 1;
+    }
+
+    /**
+     * 닫힌 세그먼트들에서 색인이 가리키는 살아 있는 레코드만 새 파일로 복사하고 원래 세그먼트를 지웁니다.
+     * 색인은 레코드를 옮기는 동안 바뀐 항목(새로 저장/삭제)을 덮어쓰지 않도록 원래 위치일 때만 바꿉니다.
+     *
+     * @param index 대화 ID별 마지막 레코드 위치
+     * @param expireBeforeMillis 마지막 저장 시각이 이보다 이르면 복사하지 않고 색인에서 제거 (0이면 만료 없음)
+     * @return 복사한 레코드 수
+     */
+    int compact(ConcurrentMap<String, Location> index, long expireBeforeMillis) throws IOException {
+        Map<Long, Segment> sealedById = this.segments.headMap(this.active.id);
+        Set<Segment> sealed = Collections.newSetFromMap(new IdentityHashMap<>());
+        sealed.addAll(sealedById.values());
+        // 압축 결과 하나만 남아 있으면 다시 압축할 것이 없음 (결과 id는 항상 닫힌 .log 세그먼트의 id)
+        if (sealed.stream().noneMatch(segment -> segment.path.toString().endsWith(LOG_SUFFIX))) {
+            return 0;
+        }
+        long targetId = Collections.max(sealedById.keySet());
+        Path target = this.directory.resolve(fileName(targetId, COMPACT_SUFFIX));
+        Path tempFile = this.directory.resolve(fileName(targetId, COMPACT_SUFFIX) + ".tmp");
+
+        Map<String, Location> copied = new HashMap<>();
+        Map<String, Long> copiedOffsets = new HashMap<>();
+        Map<String, Location> expired = new HashMap<>();
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Map.Entry<String, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                if (!sealed.contains(location.segment())) {
+                    continue;
+                }
+                if (expireBeforeMillis > 0 && location.timestampMillis() < expireBeforeMillis) {
+                    expired.put(entry.getKey(), location);
+                    continue;
+                }
+                ByteBuffer record = readRecord(location);
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+                copied.put(entry.getKey(), location);
+                copiedOffsets.put(entry.getKey(), position);
+                position += location.length();
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        // 이동이 끝나면 targetId 이하의 세그먼트는 시작 시 무시되므로, 이후 단계에서 종료되어도 안전함
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        Segment compacted = openSegment(targetId, COMPACT_SUFFIX);
+        copied.forEach((conversationId, from) -> index.replace(conversationId, from,
+                new Location(compacted, copiedOffsets.get(conversationId), from.length(), from.timestampMillis())));
+        expired.forEach(index::remove);
+        for (Segment segment : sealed) {
+            this.segments.remove(segment.id, segment); // targetId는 이미 압축 결과로 바뀜
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+        return copied.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : this.segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    // 닫힌 세그먼트는 헤더만 읽고 건너뜀, 마지막 세그먼트는 CRC를 확인하고 덜 쓰인 꼬리를 잘라냄
+    private int replay(Segment segment, Map<String, Location> index, boolean verify) throws IOException {
+        int records = 0;
+        long position = 0;
+        long fileSize = segment.channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(segment.channel.position(0)), 1 << 16));
+        try {
+            while (position < fileSize) {
+                if (fileSize - position < RECORD_HEADER_BYTES + BODY_FIXED_BYTES) {
+                    throw new EOFException();
+                }
+                int bodyLength = in.readInt();
+                int crc = in.readInt();
+                if (bodyLength < BODY_FIXED_BYTES || position + RECORD_HEADER_BYTES + bodyLength > fileSize) {
+                    throw new EOFException();
+                }
+                byte[] head = new byte[BODY_FIXED_BYTES];
+                in.readFully(head);
+                ByteBuffer headBuffer = ByteBuffer.wrap(head);
+                byte type = headBuffer.get();
+                long timestampMillis = headBuffer.getLong();
+                int idLength = headBuffer.getInt();
+                if (idLength < 0 || idLength > bodyLength - BODY_FIXED_BYTES) {
+                    throw new EOFException();
+                }
+                byte[] id = new byte[idLength];
+                in.readFully(id);
+                int payloadLength = bodyLength - BODY_FIXED_BYTES - idLength;
+                if (verify) {
+                    byte[] payload = new byte[payloadLength];
+                    in.readFully(payload);
+                    CRC32C checksum = new CRC32C();
+                    checksum.update(head);
+                    checksum.update(id);
+                    checksum.update(payload);
+                    if ((int) checksum.getValue() != crc) {
+                        throw new EOFException();
+                    }
+                } else {
+                    in.skipNBytes(payloadLength);
+                }
+                String conversationId = new String(id, StandardCharsets.UTF_8);
+                int length = RECORD_HEADER_BYTES + bodyLength;
+                if (type == PUT) {
+                    index.put(conversationId, new Location(segment, position, length, timestampMillis));
+                } else {
+                    index.remove(conversationId);
+                }
+                position += length;
+                records++;
+            }
+        } catch (EOFException e) {
+            if (!verify) {
+                throw new IOException("Corrupted chat memory segment: " + segment.path, e);
+            }
+            log.warn("Truncating incomplete chat memory records in {} at offset {} ({} bytes)", segment.path,
+                    position, fileSize - position);
+            segment.channel.truncate(position);
+            segment.channel.force(true);
+        }
+        segment.size = position;
+        return records;
+    }
+
+    private Segment openSegment(long id, String suffix) throws IOException {
+        Path path = this.directory.resolve(fileName(id, suffix));
+        FileChannel channel = LOG_SUFFIX.equals(suffix)
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        Segment segment = new Segment(id, path, channel);
+        segment.size = channel.size();
+        this.segments.put(id, segment);
+        return segment;
+    }
+
+    private static String fileName(long id, String suffix) {
+        return String.format("%016d%s", id, suffix);
+    }
+
+    private static long parseId(String fileName, String suffix) {
+        return Long.parseLong(fileName.substring(0, fileName.length() - suffix.length()));
+    }
+
+    /**
+     * 세그먼트 파일입니다. size는 쓰기 스레드(쓰는 중인 세그먼트)나 open에서만 바꿉니다.
+     */
+    static final class Segment {
+
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        volatile long size;
+
+        Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * 레코드의 위치입니다. 세그먼트 객체를 직접 가리키므로 압축으로 같은 id의 파일이 바뀌어도 혼동하지 않습니다.
+     *
+     * @param segment 레코드가 있는 세그먼트
+     * @param offset 세그먼트 안에서 레코드 시작 위치
+     * @param length 레코드 전체 크기 (헤더 포함)
+     * @param timestampMillis 저장 시각
+     */
+    record Location(Segment segment, long offset, int length, long timestampMillis) {
+    }
+
+    /**
+     * 덧붙일 레코드입니다.
+     *
+     * @param type {@link #PUT} 또는 {@link #DELETE}
+     * @param payload 메시지 본문 (삭제면 빈 배열)
+     */
+    record Record(byte type, String conversationId, long timestampMillis, byte[] payload) {
+
+        byte[] encode() {
+            byte[] id = this.conversationId.getBytes(StandardCharsets.UTF_8);
+            int bodyLength = BODY_FIXED_BYTES + id.length + this.payload.length;
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + bodyLength);
+            buffer.putInt(bodyLength);
+            buffer.putInt(0); // CRC 자리
+            buffer.put(this.type).putLong(this.timestampMillis).putInt(id.length).put(id).put(this.payload);
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.array(), RECORD_HEADER_BYTES, bodyLength);
+            buffer.putInt(Integer.BYTES, (int) checksum.getValue());
+            return buffer.array();
+        }
+    }
+}
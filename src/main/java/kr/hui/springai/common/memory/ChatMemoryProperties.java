@@ -0,0 +1,61 @@
+package kr.hui.springai.common.memory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 대화 기록(ChatMemory) 저장소 설정입니다.
+ *
+ * @param type window: 최근 maxMessages개만 유지(MessageWindowChatMemory),
+ *             summary: 토큰 예산 안의 최근 대화 + 이전 대화 요약(SummarizingChatMemory)
+ * @param maxMessages 대화별로 유지할 최근 메시지 수 (window)
+ * @param maxConversations 메모리에 보관할 최대 대화 수 (넘으면 가장 오래 사용하지 않은 대화부터 제거)
+ * @param maxBytes 메모리에 보관할 대화 기록의 최대 추정 크기 (넘으면 가장 오래 사용하지 않은 대화부터 제거)
+ * @param idleTtl 마지막 조회/저장 이후 메모리에 대화를 유지하는 시간 (0이면 만료 없음)
+ * @param durable 로그 파일 저장 설정
+ * @param summary 요약 메모리 설정 (summary)
+ */
+@ConfigurationProperties(prefix = "app.chat.memory")
+public record ChatMemoryProperties(@DefaultValue("window") String type,
+                                   @DefaultValue("10") int maxMessages,
+                                   @DefaultValue("10000") int maxConversations,
+                                   @DefaultValue("64MB") DataSize maxBytes,
+                                   @DefaultValue("30m") Duration idleTtl,
+                                   @DefaultValue Durable durable,
+                                   @DefaultValue Summary summary) {
+
+    /**
+     * @param enabled true이면 대화 기록을 로그 파일에도 저장하여 재시작 후 복원하고, 위의 메모리 상한은 캐시에 적용
+     * @param directory 세그먼트 파일을 둘 디렉터리
+     * @param segmentSize 세그먼트를 닫고 새로 여는 크기
+     * @param flushInterval fsync 사이의 최소 간격 (비정상 종료 시 잃을 수 있는 최대 시간)
+     * @param queueCapacity 로그에 쓰기를 기다리는 최대 저장 수 (넘으면 저장이 기다림)
+     * @param compactionMinSegments 압축을 시작할 닫힌 세그먼트 수
+     * @param retention 마지막 저장 이후 로그에 대화를 유지하는 시간 (0이면 계속 유지)
+     */
+    public record Durable(@DefaultValue("false") boolean enabled,
+                          @DefaultValue("./data/chat-memory") String directory,
+                          @DefaultValue("64MB") DataSize segmentSize,
+                          @DefaultValue("50ms") Duration flushInterval,
+                          @DefaultValue("10000") int queueCapacity,
+                          @DefaultValue("4") int compactionMinSegments,
+                          @DefaultValue("30d") Duration retention) {
+    }
+
+    /**
+     * @param maxTokens 프롬프트에 넣을 최근 메시지의 최대 토큰 수 (답변 후 넘으면 백그라운드에서 요약)
+     * @param recentTokens 요약 후 남길 최근 메시지의 최대 토큰 수 (maxTokens보다 작게 두어 매 응답마다 요약하지 않음)
+     * @param summaryTokens 요약의 목표 토큰 수
+     * @param maxMessages 저장할 최대 메시지 수 (요약이 실패하거나 따라가지 못할 때 오래된 메시지부터 버림)
+     * @param concurrency 동시에 실행할 최대 요약(LLM 호출) 수
+     */
+    public record Summary(@DefaultValue("2000") int maxTokens,
+                          @DefaultValue("1000") int recentTokens,
+                          @DefaultValue("300") int summaryTokens,
+                          @DefaultValue("100") int maxMessages,
+                          @DefaultValue("2") int concurrency) {
+    }
+}
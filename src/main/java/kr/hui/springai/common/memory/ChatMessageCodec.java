@@ -0,0 +1,157 @@
+package kr.hui.springai.common.memory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 대화 기록(메시지 목록)의 바이너리 형식입니다. 모든 정수는 빅 엔디언이며, 문자열은 길이(4, null이면 -1) + UTF-8입니다.
+ * <pre>
+ * 메시지 수(4), 메시지마다 [종류(1: U/A/S/T), 본문, 메타데이터 JSON 길이(4) JSON, 종류별 필드]
+ * A: 도구 호출 수(4), 호출마다 [id, type, name, arguments]
+ * T: 도구 응답 수(4), 응답마다 [id, name, responseData]
+ * </pre>
+ * 메타데이터는 JSON으로 저장하므로 복원하면 Map/List/문자열 등 기본 타입이 되며, 직렬화할 수 없는 메타데이터는 버립니다.
+ * 이미지 등 미디어는 저장하지 않습니다.
+ */
+@Slf4j
+final class ChatMessageCodec {
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private ChatMessageCodec() {
+    }
+
+    static byte[] encode(List<Message> messages, ObjectMapper objectMapper) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * messages.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(messages.size());
+            for (Message message : messages) {
+                out.writeByte(typeCode(message));
+                writeString(out, message.getText());
+                writeBytes(out, metadata(message, objectMapper));
+                if (message instanceof AssistantMessage assistantMessage) {
+                    List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+                    out.writeInt(toolCalls.size());
+                    for (AssistantMessage.ToolCall toolCall : toolCalls) {
+                        writeString(out, toolCall.id());
+                        writeString(out, toolCall.type());
+                        writeString(out, toolCall.name());
+                        writeString(out, toolCall.arguments());
+                    }
+                } else if (message instanceof ToolResponseMessage toolResponseMessage) {
+                    List<ToolResponseMessage.ToolResponse> responses = toolResponseMessage.getResponses();
+                    out.writeInt(responses.size());
+                    for (ToolResponseMessage.ToolResponse response : responses) {
+                        writeString(out, response.id());
+                        writeString(out, response.name());
+                        writeString(out, response.responseData());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream은 IOException을 던지지 않음
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Message> decode(byte[] payload, ObjectMapper objectMapper) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            String text = readString(in);
+            Map<String, Object> metadata = objectMapper.readValue(readBytes(in), METADATA_TYPE);
+            messages.add(switch (type) {
+                case 'U' -> UserMessage.builder().text(text).metadata(metadata).build();
+                case 'S' -> SystemMessage.builder().text(text).metadata(metadata).build();
+                case 'A' -> {
+                    int toolCallCount = in.readInt();
+                    List<AssistantMessage.ToolCall> toolCalls = new ArrayList<>(toolCallCount);
+                    for (int j = 0; j < toolCallCount; j++) {
+                        toolCalls.add(new AssistantMessage.ToolCall(readString(in), readString(in), readString(in),
+                                readString(in)));
+                    }
+                    yield new AssistantMessage(text, metadata, toolCalls);
+                }
+                case 'T' -> {
+                    int responseCount = in.readInt();
+                    List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(responseCount);
+                    for (int j = 0; j < responseCount; j++) {
+                        responses.add(new ToolResponseMessage.ToolResponse(readString(in), readString(in),
+                                readString(in)));
+                    }
+                    yield new ToolResponseMessage(responses, metadata);
+                }
+                default -> throw new IOException("Unknown message type: " + (char) type);
+            });
+        }
+        return messages;
+    }
+
+    private static byte typeCode(Message message) {
+        return switch (message.getMessageType()) {
+            case USER -> 'U';
+            case ASSISTANT -> 'A';
+            case SYSTEM -> 'S';
+            case TOOL -> 'T';
+        };
+    }
+
+    private static byte[] metadata(Message message, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsBytes(message.getMetadata());
+        } catch (JsonProcessingException e) {
+            log.debug("Dropping non-serializable chat message metadata: {}", e.getMessage());
+            return "{}".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,326 @@
+package kr.hui.springai.common.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 대화 기록을 로컬 추가 전용 로그({@link ChatMemoryLog})에 남겨 재시작 후에도 유지하는 ChatMemoryRepository입니다.
+ * <p>
+ * 저장(saveAll/delete)은 메모리 캐시({@link BoundedChatMemoryRepository})와 대기 목록만 바꾸고 바로 반환하며(write-behind),
+ * 쓰기 스레드가 쌓인 레코드를 한 번에 덧붙이고 fsync합니다. fsync는 flushInterval마다 최대 한 번이므로 요청 지연에는
+ * 디스크 쓰기가 들어가지 않고, 비정상 종료 시 최대 flushInterval(+ 쓰기 시간) 동안 저장한 기록을 잃을 수 있습니다.
+ * 대기 목록이 queueCapacity를 넘으면 저장이 쓰기 스레드를 기다립니다.
+ * <p>
+ * 메모리에는 대화 ID별 마지막 레코드의 위치(색인)와 최근 사용한 대화만 두고, 캐시에 없는 대화는 로그에서 읽어 캐시에 채웁니다.
+ * 닫힌 세그먼트가 compactionMinSegments 이상이면 별도 스레드에서 압축하며, 이때 retention보다 오래 저장되지 않은 대화를 버립니다.
+ */
+@Slf4j
+public class DurableChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    private final BoundedChatMemoryRepository cache;
+    private final ChatMemoryLog chatMemoryLog;
+    private final ObjectMapper objectMapper;
+    private final long flushIntervalNanos;
+    private final int compactionMinSegments;
+    private final long retentionMillis;
+
+    private final ConcurrentHashMap<String, ChatMemoryLog.Location> index = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<PendingWrite> queue;
+    private final Thread writer;
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final Timer flushLatency;
+    private final DistributionSummary flushBatchSize;
+    private final Timer compactionLatency;
+    private final Counter writeFailures;
+
+    /**
+     * 로그 디렉터리의 세그먼트를 읽어 색인을 복원하고 쓰기 스레드를 시작합니다.
+     *
+     * @param directory 세그먼트 파일을 둘 디렉터리
+     * @param cache 최근 사용한 대화를 보관할 메모리 캐시 (이 저장소가 닫을 때 함께 닫음)
+     * @param segmentBytes 세그먼트를 닫고 새로 여는 크기
+     * @param flushInterval fsync 사이의 최소 간격 (비정상 종료 시 잃을 수 있는 최대 시간)
+     * @param queueCapacity 로그에 쓰기를 기다리는 최대 저장 수
+     * @param compactionMinSegments 압축을 시작할 닫힌 세그먼트 수
+     * @param retention 마지막 저장 이후 로그에 대화를 유지하는 시간 (null 또는 0이면 계속 유지)
+     * @param objectMapper 메시지 메타데이터 직렬화에 사용할 ObjectMapper
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     * @throws UncheckedIOException 로그를 열거나 읽지 못한 경우
+     */
+    public DurableChatMemoryRepository(Path directory, BoundedChatMemoryRepository cache, long segmentBytes,
+                                       Duration flushInterval, int queueCapacity, int compactionMinSegments,
+                                       Duration retention, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.chatMemoryLog = new ChatMemoryLog(directory, segmentBytes);
+        this.objectMapper = objectMapper;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.compactionMinSegments = Math.max(2, compactionMinSegments); // 압축 결과 하나는 다시 압축하지 않음
+        this.retentionMillis = retention == null ? 0 : retention.toMillis();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        long start = System.nanoTime();
+        try {
+            int records = this.chatMemoryLog.open(this.index);
+            log.info("Recovered {} conversations from {} chat memory records in {} in {} ms", this.index.size(),
+                    records, directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open chat memory log: " + directory, e);
+        }
+
+        Gauge.builder("chat.memory.log.conversations", this.index, ConcurrentHashMap::size).register(meterRegistry);
+        Gauge.builder("chat.memory.log.pending", this.queue, LinkedBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("chat.memory.log.segments", this.chatMemoryLog, ChatMemoryLog::sealedSegments)
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("chat.memory.log.flush")
+                .description("Latency of appending and syncing a batch of chat memory records")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.flushBatchSize = DistributionSummary.builder("chat.memory.log.batch.size")
+                .description("Number of chat memory records per sync")
+                .register(meterRegistry);
+        this.compactionLatency = Timer.builder("chat.memory.log.compaction").register(meterRegistry);
+        this.writeFailures = Counter.builder("chat.memory.log.failures").register(meterRegistry);
+
+        this.compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-memory-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::write, "chat-memory-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        scheduleCompaction();
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        Set<String> conversationIds = new LinkedHashSet<>();
+        long expireBefore = expireBeforeMillis();
+        this.index.forEach((conversationId, location) -> {
+            if (location.timestampMillis() >= expireBefore) {
+                conversationIds.add(conversationId);
+            }
+        });
+        this.pending.forEach((conversationId, write) -> {
+            if (write.messages() == null) {
+                conversationIds.remove(conversationId);
+            } else {
+                conversationIds.add(conversationId);
+            }
+        });
+        return new ArrayList<>(conversationIds);
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        List<Message> cached = this.cache.findByConversationId(conversationId);
+        if (!cached.isEmpty()) {
+            return cached;
+        }
+        PendingWrite write = this.pending.get(conversationId);
+        if (write != null) {
+            return write.messages() == null ? List.of() : write.messages();
+        }
+        for (int attempt = 1; ; attempt++) {
+            ChatMemoryLog.Location location = this.index.get(conversationId);
+            if (location == null || location.timestampMillis() < expireBeforeMillis()) {
+                return List.of();
+            }
+            try {
+                List<Message> messages = ChatMessageCodec.decode(this.chatMemoryLog.read(location), this.objectMapper);
+                // 읽는 동안 새로 저장되었으면 캐시를 이전 기록으로 덮어쓰지 않음
+                if (!this.pending.containsKey(conversationId) && this.index.get(conversationId) == location) {
+                    this.cache.saveAll(conversationId, messages);
+                }
+                return messages;
+            } catch (ClosedChannelException e) {
+                // 압축으로 세그먼트가 닫힘, 색인의 새 위치에서 다시 읽음
+                if (attempt >= MAX_READ_ATTEMPTS) {
+                    throw new UncheckedIOException("Failed to read chat memory: " + conversationId, e);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read chat memory: " + conversationId, e);
+            }
+        }
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        if (messages.isEmpty()) {
+            deleteByConversationId(conversationId);
+            return;
+        }
+        List<Message> copy = List.copyOf(messages);
+        this.cache.saveAll(conversationId, copy);
+        enqueue(new PendingWrite(conversationId, copy, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        this.cache.deleteByConversationId(conversationId);
+        enqueue(new PendingWrite(conversationId, null, System.currentTimeMillis()));
+    }
+
+    /**
+     * 쓰기를 멈추고 대기 중인 기록을 모두 로그에 쓴 뒤 파일을 닫습니다.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.compactionExecutor.shutdown();
+        try {
+            if (!this.compactionExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Chat memory compaction did not finish before shutdown");
+            }
+            this.chatMemoryLog.close();
+        } catch (IOException e) {
+            log.warn("Failed to close chat memory log", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.cache.close();
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (!this.running) {
+            throw new IllegalStateException("Chat memory repository is closed");
+        }
+        this.pending.put(write.conversationId(), write);
+        try {
+            this.queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.pending.remove(write.conversationId(), write);
+            throw new IllegalStateException("Interrupted while queueing chat memory write", e);
+        }
+    }
+
+    /**
+     * 쓰기 스레드의 루프입니다. 쌓인 레코드를 한 번에 쓰고 fsync한 뒤 flushInterval 동안 다음 레코드를 모읍니다.
+     */
+    private void write() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                PendingWrite first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                this.queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                long start = System.nanoTime();
+                flush(batch);
+                batch.clear();
+                long remaining = this.flushIntervalNanos - (System.nanoTime() - start);
+                if (this.running && remaining > 0) {
+                    LockSupport.parkNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        List<ChatMemoryLog.Record> records = new ArrayList<>(batch.size());
+        List<ChatMemoryLog.Location> locations;
+        try {
+            for (PendingWrite write : batch) {
+                records.add(write.messages() == null
+                        ? new ChatMemoryLog.Record(ChatMemoryLog.DELETE, write.conversationId(),
+                        write.timestampMillis(), new byte[0])
+                        : new ChatMemoryLog.Record(ChatMemoryLog.PUT, write.conversationId(), write.timestampMillis(),
+                        ChatMessageCodec.encode(write.messages(), this.objectMapper)));
+            }
+            locations = this.chatMemoryLog.append(records);
+        } catch (IOException | RuntimeException e) {
+            // 캐시에는 남아 있으므로 이 노드가 살아 있는 동안은 대화가 유지됨
+            log.error("Failed to write {} chat memory records", batch.size(), e);
+            this.writeFailures.increment(batch.size());
+            batch.forEach(write -> this.pending.remove(write.conversationId(), write));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (write.messages() == null) {
+                this.index.remove(write.conversationId());
+            } else {
+                this.index.put(write.conversationId(), locations.get(i));
+            }
+            this.pending.remove(write.conversationId(), write);
+        }
+        this.flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        this.flushBatchSize.record(batch.size());
+        scheduleCompaction();
+    }
+
+    private void scheduleCompaction() {
+        if (this.chatMemoryLog.sealedSegments() < this.compactionMinSegments
+                || !this.compacting.compareAndSet(false, true)) {
+            return;
+        }
+        this.compactionExecutor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                int copied = this.chatMemoryLog.compact(this.index, expireBeforeMillis());
+                log.info("Compacted chat memory log: {} live conversations copied in {} ms", copied,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (IOException e) {
+                log.error("Failed to compact chat memory log", e);
+            } finally {
+                this.compactionLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                this.compacting.set(false);
+            }
+        });
+    }
+
+    private long expireBeforeMillis() {
+        return this.retentionMillis > 0 ? System.currentTimeMillis() - this.retentionMillis : 0;
+    }
+
+    /**
+     * 로그에 쓰기를 기다리는 저장입니다.
+     *
+     * @param messages 저장할 메시지 (null이면 삭제)
+     */
+    private record PendingWrite(String conversationId, List<Message> messages, long timestampMillis) {
+    }
+}
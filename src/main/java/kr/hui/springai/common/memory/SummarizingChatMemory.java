@@ -0,0 +1,360 @@
+package kr.hui.springai.common.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kr.hui.springai.common.token.TokenCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 최근 대화는 토큰 예산 안에서 그대로 두고, 그보다 오래된 대화는 요약 하나로 줄여 유지하는 ChatMemory입니다.
+ * MessageWindowChatMemory처럼 메시지 수로 자르면 오래된 맥락은 사라지고, 남은 메시지가 길면 프롬프트가 커지므로
+ * 이 메모리는 프롬프트에 넣는 기록의 토큰 수를 제한하면서 앞선 맥락을 요약으로 남깁니다.
+ * <p>
+ * 저장소에는 [요약(SystemMessage, 없을 수 있음), 최근 메시지...] 형태로 저장합니다. 응답이 끝나 답변이 추가되었을 때
+ * 최근 메시지가 maxTokens를 넘으면 별도 스레드에서 오래된 메시지를 기존 요약과 합쳐 새 요약을 만들고, 최근 메시지가
+ * recentTokens 이하가 되도록 앞부분을 요약으로 바꿉니다. 요약은 요청 경로에서 실행하지 않으며, 요약이 끝나기 전의 조회는
+ * 최근 메시지 중 maxTokens에 들어가는 뒷부분만 반환하므로 프롬프트 크기는 항상 제한됩니다.
+ * 메시지는 사용자 메시지 경계에서만 나누므로 도구 호출과 응답이 떨어지지 않습니다.
+ * <p>
+ * 같은 대화의 추가/요약 반영은 대화 ID 해시로 나눈 잠금으로 직렬화하며, 요약하는 동안 대화가 바뀌었으면(삭제 등)
+ * 결과를 버리고 다음 응답 후에 다시 요약합니다. 요약이 계속 실패하면 maxMessages를 넘는 오래된 메시지부터 버립니다.
+ */
+@Slf4j
+public class SummarizingChatMemory implements ChatMemory, AutoCloseable {
+
+    /**
+     * 요약 메시지를 표시하는 메타데이터 키입니다.
+     */
+    public static final String SUMMARY_METADATA_KEY = "chat_memory_summary";
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4; // 역할/구분자 토큰 추정치
+    private static final String SUMMARY_HEADER = "Summary of the earlier conversation:\n";
+
+    private static final String SUMMARY_PROMPT = """
+            You maintain a running summary of a conversation between a user and an AI assistant.
+            Merge the previous summary (if any) with the new messages into a single updated summary.
+            Keep facts, names, numbers, decisions, user preferences, tool results and open questions that later turns
+            may refer to; drop greetings and repetition. Write in the language of the conversation, in plain prose,
+            within %d tokens. Answer with the summary only.
+            """;
+
+    private final ChatMemoryRepository chatMemoryRepository;
+    private final ChatClient chatClient;
+    private final TokenCounter tokenCounter;
+    private final int maxTokens;
+    private final int recentTokens;
+    private final int summaryTokens;
+    private final int maxMessages;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Set<String> summarizing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    private final Timer summaryLatency;
+    private final Counter summarized;
+    private final Counter failed;
+    private final Counter discarded;
+    private final Counter dropped;
+
+    /**
+     * @param chatMemoryRepository 요약과 최근 메시지를 저장할 ChatMemoryRepository
+     * @param chatClient 요약에 사용할 ChatClient (대화 기록 어드바이저가 없는 ChatClient)
+     * @param tokenCounter 메시지 토큰 수를 셀 TokenCounter
+     * @param maxTokens 프롬프트에 넣을 최근 메시지의 최대 토큰 수 (넘으면 요약 시작)
+     * @param recentTokens 요약 후 남길 최근 메시지의 최대 토큰 수 (maxTokens보다 작게 두어 매 응답마다 요약하지 않음)
+     * @param summaryTokens 요약의 목표 토큰 수
+     * @param maxMessages 저장할 최대 메시지 수 (요약이 따라가지 못할 때의 상한)
+     * @param concurrency 동시에 실행할 최대 요약 수
+     * @param meterRegistry 요약 지표를 등록할 MeterRegistry
+     */
+    public SummarizingChatMemory(ChatMemoryRepository chatMemoryRepository, ChatClient chatClient,
+                                 TokenCounter tokenCounter, int maxTokens, int recentTokens, int summaryTokens,
+                                 int maxMessages, int concurrency, MeterRegistry meterRegistry) {
+        if (recentTokens <= 0 || recentTokens > maxTokens) {
+            throw new IllegalArgumentException("recentTokens must be in (0, maxTokens]: " + recentTokens);
+        }
+        this.chatMemoryRepository = chatMemoryRepository;
+        this.chatClient = chatClient;
+        this.tokenCounter = tokenCounter;
+        this.maxTokens = maxTokens;
+        this.recentTokens = recentTokens;
+        this.summaryTokens = summaryTokens;
+        this.maxMessages = Math.max(1, maxMessages);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "chat-memory-summarizer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.summaryLatency = Timer.builder("chat.memory.summary.duration")
+                .description("Latency of regenerating a conversation summary")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.summarized = Counter.builder("chat.memory.summary").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("chat.memory.summary").tag("result", "failure").register(meterRegistry);
+        this.discarded = Counter.builder("chat.memory.summary").tag("result", "stale").register(meterRegistry);
+        this.dropped = Counter.builder("chat.memory.summary.dropped.messages").register(meterRegistry);
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Message> recent;
+        synchronized (lockFor(conversationId)) {
+            Stored stored = Stored.of(this.chatMemoryRepository.findByConversationId(conversationId));
+            recent = new ArrayList<>(stored.recent());
+            recent.addAll(messages);
+            if (recent.size() > this.maxMessages) {
+                int excess = recent.size() - this.maxMessages;
+                recent.subList(0, excess).clear();
+                this.dropped.increment(excess);
+            }
+            this.chatMemoryRepository.saveAll(conversationId, stored.with(recent));
+        }
+        // 응답이 끝난 뒤(답변 추가)에만 요약하여 답변 생성과 모델 호출이 겹치지 않게 함
+        boolean responseCompleted = messages.stream()
+                .anyMatch(message -> message.getMessageType() == MessageType.ASSISTANT);
+        if (responseCompleted && tokens(recent) > this.maxTokens) {
+            scheduleSummary(conversationId);
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        Stored stored = Stored.of(this.chatMemoryRepository.findByConversationId(conversationId));
+        List<Message> recent = stored.recent();
+        int from = userBoundary(recent, fitFrom(recent, this.maxTokens));
+        if (from == 0) {
+            return stored.messages();
+        }
+        List<Message> messages = new ArrayList<>(recent.size() - from + 1);
+        if (stored.summary() != null) {
+            messages.add(stored.summary());
+        }
+        messages.addAll(recent.subList(from, recent.size()));
+        return messages;
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        synchronized (lockFor(conversationId)) {
+            this.chatMemoryRepository.deleteByConversationId(conversationId);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private void scheduleSummary(String conversationId) {
+        if (!this.summarizing.add(conversationId)) {
+            return; // 이미 요약 중, 끝난 뒤 다음 응답에서 다시 확인
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    summarize(conversationId);
+                } finally {
+                    this.summarizing.remove(conversationId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.summarizing.remove(conversationId);
+        }
+    }
+
+    private void summarize(String conversationId) {
+        Stored stored = Stored.of(this.chatMemoryRepository.findByConversationId(conversationId));
+        List<Message> recent = stored.recent();
+        int fold = userBoundary(recent, fitFrom(recent, this.recentTokens));
+        if (fold <= 0 || fold >= recent.size()) {
+            return;
+        }
+        List<Message> folded = List.copyOf(recent.subList(0, fold));
+
+        long start = System.nanoTime();
+        String summary;
+        try {
+            summary = this.chatClient.prompt()
+                    .system(SUMMARY_PROMPT.formatted(this.summaryTokens))
+                    .user(render(stored.summary(), folded))
+                    .call()
+                    .content();
+        } catch (RuntimeException e) {
+            log.warn("Failed to summarize conversation {}: {}", conversationId, e.getMessage());
+            this.failed.increment();
+            return;
+        } finally {
+            this.summaryLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (summary == null || summary.isBlank()) {
+            this.failed.increment();
+            return;
+        }
+
+        synchronized (lockFor(conversationId)) {
+            Stored current = Stored.of(this.chatMemoryRepository.findByConversationId(conversationId));
+            List<Message> currentRecent = current.recent();
+            // 요약하는 동안 새 메시지는 뒤에만 추가되므로, 앞부분이 그대로일 때만 반영
+            if (!Objects.equals(current.summary(), stored.summary()) || currentRecent.size() < fold
+                    || !currentRecent.subList(0, fold).equals(folded)) {
+                this.discarded.increment();
+                return;
+            }
+            SystemMessage summaryMessage = SystemMessage.builder()
+                    .text(SUMMARY_HEADER + summary.strip())
+                    .metadata(Map.of(SUMMARY_METADATA_KEY, true))
+                    .build();
+            List<Message> messages = new ArrayList<>(currentRecent.size() - fold + 1);
+            messages.add(summaryMessage);
+            messages.addAll(currentRecent.subList(fold, currentRecent.size()));
+            this.chatMemoryRepository.saveAll(conversationId, messages);
+        }
+        this.summarized.increment();
+        log.debug("Summarized {} messages of conversation {}", fold, conversationId);
+    }
+
+    // 뒤에서부터 budget 안에 들어가는 첫 메시지 위치
+    private int fitFrom(List<Message> messages, int budget) {
+        int total = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            total += tokens(messages.get(i));
+            if (total > budget) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    // from 이후 첫 사용자 메시지 위치, 없으면 from 이전의 마지막 사용자 메시지 위치 (마지막 질문과 답변은 항상 남김)
+    private static int userBoundary(List<Message> messages, int from) {
+        if (from == 0) {
+            return 0;
+        }
+        for (int i = from; i < messages.size(); i++) {
+            if (messages.get(i).getMessageType() == MessageType.USER) {
+                return i;
+            }
+        }
+        for (int i = Math.min(from, messages.size()) - 1; i >= 0; i--) {
+            if (messages.get(i).getMessageType() == MessageType.USER) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private int tokens(List<Message> messages) {
+        int total = 0;
+        for (Message message : messages) {
+            total += tokens(message);
+        }
+        return total;
+    }
+
+    private int tokens(Message message) {
+        int tokens = MESSAGE_OVERHEAD_TOKENS + this.tokenCounter.count(message.getText());
+        if (message instanceof AssistantMessage assistantMessage && assistantMessage.hasToolCalls()) {
+            for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
+                tokens += this.tokenCounter.count(toolCall.name()) + this.tokenCounter.count(toolCall.arguments());
+            }
+        }
+        if (message instanceof ToolResponseMessage toolResponseMessage) {
+            for (ToolResponseMessage.ToolResponse response : toolResponseMessage.getResponses()) {
+                tokens += this.tokenCounter.count(response.responseData());
+            }
+        }
+        return tokens;
+    }
+
+    private static String render(Message previousSummary, List<Message> messages) {
+        StringBuilder text = new StringBuilder();
+        if (previousSummary != null) {
+            String summary = previousSummary.getText();
+            text.append("Previous summary:\n")
+                    .append(summary.startsWith(SUMMARY_HEADER) ? summary.substring(SUMMARY_HEADER.length()) : summary)
+                    .append("\n\n");
+        }
+        text.append("New messages:\n");
+        for (Message message : messages) {
+            if (message instanceof ToolResponseMessage toolResponseMessage) {
+                for (ToolResponseMessage.ToolResponse response : toolResponseMessage.getResponses()) {
+                    text.append("TOOL ").append(response.name()).append(": ").append(response.responseData())
+                            .append('\n');
+                }
+                continue;
+            }
+            if (message instanceof AssistantMessage assistantMessage && assistantMessage.hasToolCalls()) {
+                for (AssistantMessage.ToolCall toolCall : assistantMessage.getToolCalls()) {
+                    text.append("ASSISTANT called ").append(toolCall.name()).append(toolCall.arguments())
+                            .append('\n');
+                }
+            }
+            if (message.getText() != null && !message.getText().isBlank()) {
+                text.append(message.getMessageType()).append(": ").append(message.getText()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private Object lockFor(String conversationId) {
+        int hash = conversationId.hashCode();
+        hash ^= (hash >>> 16);
+        return this.locks[Math.floorMod(hash, LOCK_STRIPES)];
+    }
+
+    /**
+     * 저장소에 저장된 대화를 요약과 최근 메시지로 나눈 것입니다.
+     */
+    private record Stored(Message summary, List<Message> recent, List<Message> messages) {
+
+        static Stored of(List<Message> messages) {
+            if (!messages.isEmpty() && isSummary(messages.get(0))) {
+                return new Stored(messages.get(0), messages.subList(1, messages.size()), messages);
+            }
+            return new Stored(null, messages, messages);
+        }
+
+        List<Message> with(List<Message> recent) {
+            if (this.summary == null) {
+                return recent;
+            }
+            List<Message> messages = new ArrayList<>(recent.size() + 1);
+            messages.add(this.summary);
+            messages.addAll(recent);
+            return messages;
+        }
+
+        private static boolean isSummary(Message message) {
+            return message.getMessageType() == MessageType.SYSTEM
+                    && Boolean.TRUE.equals(message.getMetadata().get(SUMMARY_METADATA_KEY));
+        }
+    }
+}
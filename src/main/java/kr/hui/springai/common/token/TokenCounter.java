@@ -0,0 +1,36 @@
+package kr.hui.springai.common.token;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * 로컬 BPE 토크나이저(jtokkit)로 토큰 수를 세는 컴포넌트입니다.
+ * 인코딩 테이블은 생성 시 한 번만 메모리에 올라가며, 토큰 목록을 만들지 않고 개수만 세므로
+ * 청크 크기 계산이나 프롬프트 크기 계산처럼 자주 호출되는 경로에서 사용할 수 있습니다.
+ * 임베딩/채팅 모델의 실제 토크나이저와 다를 수 있으므로 예산(budget) 계산용 추정치로 사용합니다.
+ */
+public class TokenCounter {
+
+    private final Encoding encoding;
+
+    /**
+     * @param encodingName jtokkit 인코딩 이름 (e.g., "cl100k_base", "o200k_base")
+     */
+    public TokenCounter(String encodingName) {
+        EncodingType encodingType = EncodingType.fromName(encodingName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tokenizer encoding: " + encodingName));
+        this.encoding = Encodings.newLazyEncodingRegistry().getEncoding(encodingType);
+    }
+
+    /**
+     * @param text 토큰 수를 셀 텍스트 (null이면 0)
+     * @return 토큰 수
+     */
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return this.encoding.countTokens(text);
+    }
+}
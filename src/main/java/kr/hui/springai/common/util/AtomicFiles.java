@@ -0,0 +1,101 @@
+package kr.hui.springai.common.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 파일을 원자적으로 교체하는 유틸리티입니다.
+ * 같은 디렉터리의 임시 파일에 먼저 쓰고 fsync한 뒤 이동(rename)하므로, 쓰는 도중 프로세스가 종료되어도
+ * 기존 파일이 손상되지 않습니다.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface PathWriter {
+        void write(Path tempFile) throws IOException;
+    }
+
+    /**
+     * @param path 교체할 파일 경로 (상위 디렉터리가 없으면 생성)
+     * @param writer 임시 파일에 내용을 쓰는 함수
+     * @throws IOException 쓰기 또는 이동 중 오류 발생 시
+     */
+    public static void write(Path path, Writer writer) throws IOException {
+        Path absolutePath = path.toAbsolutePath();
+        Files.createDirectories(absolutePath.getParent());
+        Path tempFile = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+                 OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+                // writer(예: Jackson)가 스트림을 닫더라도 fsync 전에 채널이 닫히지 않도록 close를 flush로 대체
+                writer.write(new FilterOutputStream(outputStream) {
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        this.out.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                });
+                outputStream.flush();
+                channel.force(true);
+            }
+            Files.move(tempFile, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 파일 경로만 받는 API(예: SimpleVectorStore.save)로 파일을 원자적으로 교체합니다.
+     *
+     * @param path 교체할 파일 경로 (상위 디렉터리가 없으면 생성)
+     * @param writer 주어진 임시 파일 경로에 내용을 쓰는 함수
+     * @throws IOException 쓰기 또는 이동 중 오류 발생 시
+     */
+    public static void replace(Path path, PathWriter writer) throws IOException {
+        Path absolutePath = path.toAbsolutePath();
+        Files.createDirectories(absolutePath.getParent());
+        Path tempFile = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+        try {
+            writer.write(tempFile);
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 읽지 못한 파일을 같은 디렉터리의 '.corrupt' 파일로 옮겨 보관합니다.
+     * 옮긴 뒤에는 원래 경로에 파일이 없으므로, 파일이 있으면 내용이 복원되었다고 판단할 수 있습니다.
+     *
+     * @param path 옮길 파일 경로
+     * @return 옮겨진 파일 경로
+     * @throws IOException 이동 중 오류 발생 시
+     */
+    public static Path moveAside(Path path) throws IOException {
+        Path target = path.resolveSibling(path.getFileName() + ".corrupt");
+        return Files.move(path, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
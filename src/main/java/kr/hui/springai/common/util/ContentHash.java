@@ -0,0 +1,52 @@
+package kr.hui.springai.common.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 콘텐츠 기반 키(문서/청크 식별, 캐시 키 등)를 만들기 위한 SHA-256 해시 유틸리티입니다.
+ */
+public final class ContentHash {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ContentHash() {
+    }
+
+    /**
+     * @param text 해시할 문자열 (UTF-8)
+     * @return 소문자 16진수 SHA-256 값
+     */
+    public static String sha256(String text) {
+        return HEX.formatHex(digest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 스트림 전체를 읽어 해시합니다. 스트림은 호출자가 닫아야 합니다.
+     *
+     * @param inputStream 해시할 입력 스트림
+     * @return 소문자 16진수 SHA-256 값
+     * @throws IOException 읽기 중 오류 발생 시
+     */
+    public static String sha256(InputStream inputStream) throws IOException {
+        MessageDigest messageDigest = digest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, read);
+        }
+        return HEX.formatHex(messageDigest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package kr.hui.springai.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentWriter;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 부하 테스트용 대체 구현 설정입니다. ('loadtest' 프로파일, 'app.loadtest.enabled=true'일 때만 활성화)
+ * 외부 모델 API와 날씨 API를 호출하지 않고 설정된 지연 시간/토큰 속도/실패 확률로 응답하므로,
+ * 부하 테스트 결과에서 모델 지연과 애플리케이션 자체의 오버헤드, 동시성 한계를 구분할 수 있습니다.
+ * Elasticsearch 대신 인메모리 VectorStore를 사용하는 설정은 application-loadtest.yml에 있습니다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.loadtest", name = "enabled", havingValue = "true")
+public class LoadTestConfig {
+
+    private static final String WEATHER_HOST = "wttr.in";
+    private static final int SEED_BATCH_SIZE = 50;
+    private static final String[] SEED_WORDS = {"Spring", "AI는", "ChatClient로", "모델을", "호출하고", "Advisor로", "요청을",
+            "가로챕니다.", "VectorStore는", "임베딩을", "저장하고", "유사도", "검색을", "제공합니다.", "RAG는", "검색된", "문서를",
+            "프롬프트에", "추가합니다.", "도구", "호출은", "ToolCallback으로", "실행됩니다."};
+
+    private static final String WEATHER_TEXT = "현재 서울의 날씨는 맑음 상태이며, 기온은 +18°C, 체감 기온은 +17°C, "
+            + "풍속은 ↙9km/h, 습도는 45%, 강수량은 0.0mm입니다.";
+
+    private static final String WEATHER_JSON = """
+            {"weather":[{"astronomy":[{"moon_illumination":62,"moon_phase":"Waxing Gibbous","moonrise":"02:10 PM",
+            "moonset":"01:30 AM","sunrise":"06:40 AM","sunset":"05:55 PM"}],"date":"2025-10-16","avgTempC":15,
+            "avgTempF":59,"maxTempC":20,"maxTempF":68,"minTempC":10,"minTempF":50,"sunHour":9.5,"totalSnow_cm":0.0,
+            "uvIndex":4}]}
+            """;
+
+    /**
+     * 실제 LLM 대신 사용할 ChatModel Bean을 생성합니다. (ChatClient.Builder가 이 모델을 사용)
+     *
+     * @param properties 부하 테스트 설정
+     * @param toolCallingManager 도구 호출을 실행할 ToolCallingManager
+     * @return StandInChatModel 인스턴스
+     */
+    @Bean
+    public ChatModel standInChatModel(LoadTestProperties properties, ToolCallingManager toolCallingManager) {
+        log.warn("Load test stand-ins enabled: chat={}, embedding={}, weather={}", properties.chat(),
+                properties.embedding(), properties.weather());
+        return new StandInChatModel(properties.chat(), toolCallingManager);
+    }
+
+    /**
+     * 실제 임베딩 API 대신 사용할 EmbeddingModel Bean을 생성합니다.
+     * 다른 EmbeddingModel과 같이 EmbeddingModelConfig의 캐시/배치/지표 데코레이터로 감싸집니다.
+     *
+     * @param properties 부하 테스트 설정
+     * @return StandInEmbeddingModel 인스턴스
+     */
+    @Bean
+    public EmbeddingModel standInEmbeddingModel(LoadTestProperties properties) {
+        return new StandInEmbeddingModel(properties.embedding());
+    }
+
+    /**
+     * 자동 구성된 WebClient.Builder로 만든 WebClient(Tools의 날씨 조회)가 wttr.in 대신 로컬 응답을 받도록 하는 필터를 추가합니다.
+     * 다른 호스트로 가는 요청은 그대로 보냅니다.
+     *
+     * @param properties 부하 테스트 설정
+     * @return WebClientCustomizer 인스턴스
+     */
+    @Bean
+    public WebClientCustomizer standInWeatherApi(LoadTestProperties properties) {
+        LoadTestProperties.Weather weather = properties.weather();
+        return webClientBuilder -> webClientBuilder.filter((request, next) ->
+                WEATHER_HOST.equals(request.url().getHost())
+                        ? Mono.fromSupplier(() -> weatherResponse(request, weather))
+                                .delaySubscription(weather.latency())
+                        : next.exchange(request));
+    }
+
+    /**
+     * 시작 시 합성 청크를 모든 DocumentWriter(VectorStore, BM25 색인)에 저장하는 ApplicationRunner Bean을 생성합니다.
+     * ETL 파이프라인은 문서 파일과 키워드 추출(구조화 출력)에 의존하므로, 부하 테스트에서는 대신 이 청크로 검색 대상을 채웁니다.
+     * 대체 임베딩 호출은 지연 시간만큼 막히므로 배치를 병렬로 저장합니다.
+     *
+     * @param properties 부하 테스트 설정 (seedDocuments)
+     * @param documentWriters 청크를 저장할 DocumentWriter
+     * @return ApplicationRunner 인스턴스
+     */
+    @Bean
+    public ApplicationRunner seedLoadTestDocuments(LoadTestProperties properties,
+                                                   ObjectProvider<DocumentWriter> documentWriters) {
+        return args -> {
+            int count = properties.seedDocuments();
+            List<DocumentWriter> writers = documentWriters.orderedStream().toList();
+            IntStream.range(0, (count + SEED_BATCH_SIZE - 1) / SEED_BATCH_SIZE).parallel().forEach(batch -> {
+                List<Document> documents = new ArrayList<>(SEED_BATCH_SIZE);
+                for (int i = batch * SEED_BATCH_SIZE; i < Math.min(count, (batch + 1) * SEED_BATCH_SIZE); i++) {
+                    documents.add(new Document("loadtest-" + i, seedText(i),
+                            Map.of("source", "loadtest-" + (i % 10) + ".txt")));
+                }
+                writers.forEach(writer -> writer.accept(documents));
+            });
+            log.info("Seeded {} load test documents into {}", count,
+                    writers.stream().map(writer -> writer.getClass().getSimpleName()).toList());
+        };
+    }
+
+    private static String seedText(int index) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append(SEED_WORDS[(index * 7 + i * 3) % SEED_WORDS.length]).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static ClientResponse weatherResponse(ClientRequest request, LoadTestProperties.Weather weather) {
+        if (StandIns.shouldFail(weather.failureRate())) {
+            return ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        boolean json = request.url().getQuery() != null && request.url().getQuery().contains("format=j1");
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE,
+                        json ? MediaType.APPLICATION_JSON_VALUE : MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8")
+                .body(json ? WEATHER_JSON : WEATHER_TEXT)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package kr.hui.springai.loadtest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 부하 테스트용 대체 모델 설정입니다. ('loadtest' 프로파일에서 'app.loadtest.enabled=true'로 사용)
+ *
+ * @param enabled true이면 ChatModel, EmbeddingModel, 날씨 API(WebClient)를 로컬 대체 구현으로 바꿈
+ * @param seedDocuments 시작 시 DocumentWriter(VectorStore, BM25 색인)에 넣을 합성 청크 수
+ * @param chat 대체 ChatModel 설정
+ * @param embedding 대체 EmbeddingModel 설정
+ * @param weather 대체 날씨 API 설정
+ */
+@ConfigurationProperties(prefix = "app.loadtest")
+public record LoadTestProperties(@DefaultValue("false") boolean enabled,
+                                 @DefaultValue("1000") int seedDocuments,
+                                 @DefaultValue Chat chat,
+                                 @DefaultValue Embedding embedding,
+                                 @DefaultValue Weather weather) {
+
+    /**
+     * @param firstTokenLatency 요청부터 첫 토큰까지의 지연 시간 (프롬프트 처리 시간)
+     * @param tokensPerSecond 첫 토큰 이후 초당 생성 토큰 수
+     * @param responseTokens 응답 토큰 수
+     * @param failureRate 요청이 실패할 확률 (0~1, TransientAiException)
+     * @param toolName 도구가 주어진 요청에서 먼저 호출할 도구 이름 (비워 두면 도구를 호출하지 않음)
+     * @param toolArguments 도구 호출 인자 (JSON)
+     */
+    public record Chat(@DefaultValue("300ms") Duration firstTokenLatency,
+                       @DefaultValue("50") int tokensPerSecond,
+                       @DefaultValue("100") int responseTokens,
+                       @DefaultValue("0") double failureRate,
+                       @DefaultValue("getWeather") String toolName,
+                       @DefaultValue("{\"location\":\"Seoul\"}") String toolArguments) {
+    }
+
+    /**
+     * @param latency 호출당 지연 시간 (입력 수와 관계없음)
+     * @param dimensions 벡터 차원 수
+     * @param failureRate 호출이 실패할 확률 (0~1)
+     */
+    public record Embedding(@DefaultValue("20ms") Duration latency,
+                            @DefaultValue("1024") int dimensions,
+                            @DefaultValue("0") double failureRate) {
+    }
+
+    /**
+     * @param latency 호출당 지연 시간
+     * @param failureRate 호출이 503으로 실패할 확률 (0~1)
+     */
+    public record Weather(@DefaultValue("100ms") Duration latency,
+                          @DefaultValue("0") double failureRate) {
+    }
+}
@@ -0,0 +1,179 @@
+package kr.hui.springai.loadtest;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 실제 LLM 대신 설정된 지연 시간과 토큰 생성 속도로 응답하는 부하 테스트용 ChatModel입니다.
+ * <ul>
+ *     <li>call: 첫 토큰 지연 + 응답 토큰 수 / 초당 토큰 수만큼 호출 스레드를 막은 뒤 전체 응답을 반환합니다.</li>
+ *     <li>stream: 첫 토큰 지연 후 토큰(단어)을 하나씩 일정한 간격으로 보내고, 마지막 청크에 토큰 사용량을 담습니다.</li>
+ *     <li>설정된 도구가 요청에 주어지면 먼저 그 도구를 호출하고(ToolCallingManager로 실행), 결과를 받은 뒤 응답합니다.</li>
+ *     <li>failureRate 확률로 TransientAiException을 던져 공급자 오류를 흉내 냅니다.</li>
+ * </ul>
+ * 프롬프트 토큰 수는 글자 수로 어림합니다.
+ */
+public class StandInChatModel implements ChatModel {
+
+    private static final String[] WORDS = {"요청하신", "내용은", "문서에", "따르면", "다음과", "같습니다.", "Spring", "AI는",
+            "검색", "결과를", "바탕으로", "답변합니다."};
+
+    private final LoadTestProperties.Chat properties;
+    private final ToolCallingManager toolCallingManager;
+    private final Duration tokenInterval;
+
+    /**
+     * @param properties 지연 시간, 토큰 속도, 실패 확률, 도구 호출 설정
+     * @param toolCallingManager 도구 호출을 실행할 ToolCallingManager
+     */
+    public StandInChatModel(LoadTestProperties.Chat properties, ToolCallingManager toolCallingManager) {
+        this.properties = properties;
+        this.toolCallingManager = toolCallingManager;
+        this.tokenInterval = Duration.ofNanos(Math.max(1, 1_000_000_000L / Math.max(1, properties.tokensPerSecond())));
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        failIfInjected();
+        StandIns.sleep(this.properties.firstTokenLatency());
+        ChatResponse toolCallResponse = toolCall(prompt);
+        if (toolCallResponse != null) {
+            if (!internalToolExecutionEnabled(prompt)) {
+                return toolCallResponse;
+            }
+            ToolExecutionResult result = this.toolCallingManager.executeToolCalls(prompt, toolCallResponse);
+            if (result.returnDirect()) {
+                return directResponse(toolCallResponse, result);
+            }
+            return call(new Prompt(result.conversationHistory(), prompt.getOptions()));
+        }
+        int tokens = this.properties.responseTokens();
+        StandIns.sleep(this.tokenInterval.multipliedBy(Math.max(0, tokens - 1)));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(token(i));
+        }
+        return response(text.toString(), "STOP", metadata(prompt, tokens));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            failIfInjected();
+            ChatResponse toolCallResponse = toolCall(prompt);
+            if (toolCallResponse == null) {
+                return tokens(prompt);
+            }
+            return Mono.delay(this.properties.firstTokenLatency())
+                    .publishOn(Schedulers.boundedElastic()) // 도구 실행은 블로킹 호출
+                    .flatMapMany(tick -> {
+                        if (!internalToolExecutionEnabled(prompt)) {
+                            return Flux.just(toolCallResponse);
+                        }
+                        ToolExecutionResult result = this.toolCallingManager.executeToolCalls(prompt, toolCallResponse);
+                        if (result.returnDirect()) {
+                            return Flux.just(directResponse(toolCallResponse, result));
+                        }
+                        return stream(new Prompt(result.conversationHistory(), prompt.getOptions()));
+                    });
+        });
+    }
+
+    private Flux<ChatResponse> tokens(Prompt prompt) {
+        int tokens = this.properties.responseTokens();
+        return Flux.interval(this.properties.firstTokenLatency(), this.tokenInterval)
+                .take(tokens)
+                .map(index -> index == tokens - 1
+                        ? response(token(index.intValue()), "STOP", metadata(prompt, tokens))
+                        : response(token(index.intValue()), null, null));
+    }
+
+    /**
+     * 설정된 도구가 요청에 주어졌고 아직 도구 결과를 받기 전이면 도구 호출 응답을 만듭니다.
+     *
+     * @return 도구를 호출하지 않으면 null
+     */
+    private ChatResponse toolCall(Prompt prompt) {
+        String toolName = this.properties.toolName();
+        if (!StringUtils.hasText(toolName) || !(prompt.getOptions() instanceof ToolCallingChatOptions options)) {
+            return null;
+        }
+        boolean offered = options.getToolNames().contains(toolName) || options.getToolCallbacks().stream()
+                .anyMatch(toolCallback -> toolCallback.getToolDefinition().name().equals(toolName));
+        List<Message> instructions = prompt.getInstructions();
+        if (!offered || instructions.isEmpty()
+                || instructions.get(instructions.size() - 1).getMessageType() != MessageType.USER) {
+            return null;
+        }
+        AssistantMessage message = new AssistantMessage("", Map.of(), List.of(new AssistantMessage.ToolCall(
+                "call-" + UUID.randomUUID(), "function", toolName, this.properties.toolArguments())));
+        return new ChatResponse(List.of(new Generation(message,
+                ChatGenerationMetadata.builder().finishReason("TOOL_CALLS").build())), metadata(prompt, 0));
+    }
+
+    private static boolean internalToolExecutionEnabled(Prompt prompt) {
+        return !(prompt.getOptions() instanceof ToolCallingChatOptions options)
+                || !Boolean.FALSE.equals(options.getInternalToolExecutionEnabled());
+    }
+
+    private static ChatResponse directResponse(ChatResponse toolCallResponse, ToolExecutionResult result) {
+        return ChatResponse.builder().from(toolCallResponse)
+                .generations(ToolExecutionResult.buildGenerations(result))
+                .build();
+    }
+
+    private void failIfInjected() {
+        if (StandIns.shouldFail(this.properties.failureRate())) {
+            throw new TransientAiException("Injected stand-in chat model failure");
+        }
+    }
+
+    private static String token(int index) {
+        return WORDS[index % WORDS.length] + " ";
+    }
+
+    private static ChatResponse response(String text, String finishReason, ChatResponseMetadata metadata) {
+        ChatGenerationMetadata generationMetadata = finishReason != null
+                ? ChatGenerationMetadata.builder().finishReason(finishReason).build()
+                : ChatGenerationMetadata.NULL;
+        Generation generation = new Generation(new AssistantMessage(text), generationMetadata);
+        return metadata != null ? new ChatResponse(List.of(generation), metadata) : new ChatResponse(List.of(generation));
+    }
+
+    private static ChatResponseMetadata metadata(Prompt prompt, int completionTokens) {
+        int promptChars = prompt.getInstructions().stream()
+                .mapToInt(message -> message.getText() != null ? message.getText().length() : 0)
+                .sum();
+        return ChatResponseMetadata.builder()
+                .model("stand-in")
+                .usage(new DefaultUsage(promptChars / 4 + 1, completionTokens))
+                .build();
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return ToolCallingChatOptions.builder().build();
+    }
+}
@@ -0,0 +1,61 @@
+package kr.hui.springai.loadtest;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 실제 임베딩 API 대신 설정된 지연 시간 후 텍스트별로 항상 같은 벡터를 반환하는 부하 테스트용 EmbeddingModel입니다.
+ * 벡터는 텍스트 해시로 시드를 정한 난수이므로 같은 질문은 같은 문서를 찾고, 캐시/배치 데코레이터도 실제와 같이 동작합니다.
+ */
+public class StandInEmbeddingModel implements EmbeddingModel {
+
+    private final LoadTestProperties.Embedding properties;
+
+    /**
+     * @param properties 지연 시간, 차원 수, 실패 확률 설정
+     */
+    public StandInEmbeddingModel(LoadTestProperties.Embedding properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        if (StandIns.shouldFail(this.properties.failureRate())) {
+            throw new TransientAiException("Injected stand-in embedding model failure");
+        }
+        StandIns.sleep(this.properties.latency());
+        List<String> inputs = request.getInstructions();
+        List<Embedding> embeddings = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            embeddings.add(new Embedding(vector(inputs.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return this.properties.dimensions();
+    }
+
+    private float[] vector(String text) {
+        SplittableRandom random = new SplittableRandom(text.hashCode());
+        float[] vector = new float[this.properties.dimensions()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,36 @@
+package kr.hui.springai.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 대체 구현들이 공통으로 사용하는 지연/실패 주입 도구입니다.
+ */
+final class StandIns {
+
+    private StandIns() {
+    }
+
+    /**
+     * 외부 API 호출처럼 현재 스레드를 지연 시간만큼 막습니다.
+     */
+    static void sleep(Duration latency) {
+        if (latency.isZero() || latency.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis(), (int) (latency.toNanos() % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating latency", e);
+        }
+    }
+
+    /**
+     * @param failureRate 실패 확률 (0~1)
+     * @return 이번 호출을 실패시켜야 하면 true
+     */
+    static boolean shouldFail(double failureRate) {
+        return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+}
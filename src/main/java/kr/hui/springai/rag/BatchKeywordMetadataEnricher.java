@@ -0,0 +1,277 @@
+package kr.hui.springai.rag;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.cache.LruCache;
+import kr.hui.springai.common.util.AtomicFiles;
+import kr.hui.springai.common.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentTransformer;
+import org.springframework.ai.model.transformer.KeywordMetadataEnricher;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 여러 청크의 키워드를 한 번의 구조화 출력(Structured Output) 요청으로 추출하는 DocumentTransformer입니다.
+ * KeywordMetadataEnricher와 같은 'excerpt_keywords' 메타데이터를 채우므로 기존 필터 표현식을 그대로 사용할 수 있습니다.
+ * <ul>
+ *     <li>batchSize개의 청크를 번호를 붙여 한 요청에 담습니다.</li>
+ *     <li>최대 concurrency개의 요청을 동시에 보냅니다. (모든 호출자가 같은 스레드 풀을 공유)</li>
+ *     <li>청크 내용 해시별로 키워드를 캐시하고 파일에 저장하여, 바뀌지 않은 청크는 다시 LLM을 호출하지 않습니다.</li>
+ * </ul>
+ * 캐시는 최대 maxEntries개까지 LRU로 보관합니다. 캐시 파일은 한 줄에 항목 하나(JSON)를 담는 추가 전용 로그로,
+ * apply가 끝날 때마다 새 항목만 덧붙이고, 줄 수가 보관 중인 항목 수의 두 배를 넘으면 현재 항목만으로 다시 씁니다(압축).
+ * 따라서 파일에 쓰는 양은 새 항목 수에 비례하고, 파일 크기도 maxEntries의 두 배 정도로 제한됩니다.
+ * 시작 시에는 로그를 처음부터 다시 읽으며, 같은 키는 나중 줄이 이기고 읽을 수 없는 줄(덜 쓰인 꼬리 등)은 건너뜁니다.
+ */
+@Slf4j
+public class BatchKeywordMetadataEnricher implements DocumentTransformer, AutoCloseable {
+
+    private static final String PROMPT_HEADER = """
+            Below are numbered document excerpts. For each excerpt, give %d unique keywords that best describe it.
+            Answer with one entry per excerpt, using the excerpt number as the index.
+            """;
+
+    /**
+     * 로그 줄 수가 이 값과 보관 중인 항목 수의 두 배를 모두 넘을 때만 압축합니다. (작은 캐시에서 압축이 잦아지지 않도록)
+     */
+    private static final int MIN_COMPACT_LINES = 1024;
+
+    private final ChatClient chatClient;
+    private final int keywordCount;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final Path cachePath;
+    private final ObjectMapper objectMapper;
+    private final LruCache<String, String> cache;
+    private final Queue<CacheLine> unsavedEntries = new ConcurrentLinkedQueue<>();
+    /**
+     * 캐시 파일의 줄 수 (saveCache에서만 변경)
+     */
+    private int logLines;
+
+    /**
+     * @param chatModel 키워드 추출에 사용할 ChatModel
+     * @param keywordCount 청크당 키워드 수
+     * @param batchSize 한 요청에 담을 청크 수
+     * @param concurrency 동시에 보낼 수 있는 최대 요청 수
+     * @param maxEntries 캐시에 보관할 최대 항목 수 (넘치면 가장 오래 사용하지 않은 항목부터 제거)
+     * @param cachePath 키워드 캐시 파일 경로 (null이면 메모리에만 캐시)
+     * @param objectMapper 캐시 파일 직렬화를 위한 ObjectMapper
+     */
+    public BatchKeywordMetadataEnricher(ChatModel chatModel, int keywordCount, int batchSize, int concurrency,
+                                        int maxEntries, Path cachePath, ObjectMapper objectMapper) {
+        this.chatClient = ChatClient.builder(chatModel).build();
+        this.keywordCount = keywordCount;
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "keyword-enricher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LruCache<>(maxEntries, null);
+        this.cachePath = cachePath;
+        this.objectMapper = objectMapper;
+        loadCache();
+    }
+
+    public record ChunkKeywords(int index, List<String> keywords) {
+    }
+
+    public record KeywordBatch(List<ChunkKeywords> excerpts) {
+    }
+
+    /**
+     * 캐시 파일의 한 줄
+     */
+    public record CacheLine(String key, String keywords) {
+    }
+
+    @Override
+    public List<Document> apply(List<Document> documents) {
+        List<Document> misses = new ArrayList<>();
+        List<String> missKeys = new ArrayList<>();
+        for (Document document : documents) {
+            String key = cacheKey(document);
+            String keywords = this.cache.get(key);
+            if (keywords != null) {
+                putKeywords(document, keywords);
+            } else {
+                misses.add(document);
+                missKeys.add(key);
+            }
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < misses.size(); from += this.batchSize) {
+            int to = Math.min(from + this.batchSize, misses.size());
+            List<Document> batch = misses.subList(from, to);
+            List<String> batchKeys = missKeys.subList(from, to);
+            futures.add(CompletableFuture.runAsync(() -> enrichBatch(batch, batchKeys), this.executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        saveCache();
+        return documents;
+    }
+
+    private void enrichBatch(List<Document> batch, List<String> batchKeys) {
+        Map<Integer, String> keywordsByIndex = requestKeywords(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            String keywords = keywordsByIndex.get(i);
+            if (keywords == null && batch.size() > 1) {
+                // 배치 응답에서 빠진 청크는 단독으로 다시 요청
+                keywords = requestKeywords(List.of(batch.get(i))).get(0);
+            }
+            if (keywords == null) {
+                log.warn("No keywords extracted for document {}", batch.get(i).getId());
+                continue;
+            }
+            putKeywords(batch.get(i), keywords);
+            this.cache.put(batchKeys.get(i), keywords);
+            this.unsavedEntries.add(new CacheLine(batchKeys.get(i), keywords));
+        }
+    }
+
+    private Map<Integer, String> requestKeywords(List<Document> batch) {
+        StringBuilder prompt = new StringBuilder(PROMPT_HEADER.formatted(this.keywordCount));
+        for (int i = 0; i < batch.size(); i++) {
+            prompt.append("\n[").append(i).append("]\n").append(batch.get(i).getText()).append('\n');
+        }
+        KeywordBatch result = this.chatClient.prompt().user(prompt.toString()).call().entity(KeywordBatch.class);
+
+        Map<Integer, String> keywordsByIndex = new HashMap<>();
+        if (result == null || result.excerpts() == null) {
+            return keywordsByIndex;
+        }
+        for (ChunkKeywords chunkKeywords : result.excerpts()) {
+            if (chunkKeywords != null && chunkKeywords.keywords() != null && !chunkKeywords.keywords().isEmpty()
+                    && chunkKeywords.index() >= 0 && chunkKeywords.index() < batch.size()) {
+                keywordsByIndex.put(chunkKeywords.index(), String.join(", ", chunkKeywords.keywords()));
+            }
+        }
+        return keywordsByIndex;
+    }
+
+    private String cacheKey(Document document) {
+        return ContentHash.sha256(this.keywordCount + ":" + document.getText());
+    }
+
+    private static void putKeywords(Document document, String keywords) {
+        document.getMetadata().put(KeywordMetadataEnricher.EXCERPT_KEYWORDS_METADATA_KEY, keywords);
+    }
+
+    private void loadCache() {
+        if (this.cachePath == null || !Files.exists(this.cachePath)) {
+            return;
+        }
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(this.cachePath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                this.logLines++;
+                CacheLine entry = parseLine(line);
+                if (entry == null) {
+                    skipped++;
+                } else {
+                    this.cache.put(entry.key(), entry.keywords());
+                }
+            }
+            log.info("Loaded {} cached keyword entries from {} ({} lines, {} skipped)",
+                    this.cache.size(), this.cachePath, this.logLines, skipped);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable keyword cache {}", this.cachePath, e);
+            return;
+        }
+        if (skipped > 0) {
+            // 덜 쓰인 꼬리 뒤에 이어 쓰면 다음 항목까지 깨지므로 읽은 항목만으로 다시 씀
+            compactCache();
+        }
+    }
+
+    private CacheLine parseLine(String line) {
+        try {
+            CacheLine entry = this.objectMapper.readValue(line, CacheLine.class);
+            return entry == null || entry.key() == null || entry.keywords() == null ? null : entry;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 새 항목을 캐시 파일 끝에 덧붙이고, 로그가 보관 중인 항목에 비해 너무 커졌으면 압축합니다.
+     */
+    private synchronized void saveCache() {
+        if (this.cachePath == null || this.unsavedEntries.isEmpty()) {
+            return;
+        }
+        List<CacheLine> entries = new ArrayList<>();
+        for (CacheLine entry; (entry = this.unsavedEntries.poll()) != null; ) {
+            entries.add(entry);
+        }
+        try {
+            Path parent = this.cachePath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            try (BufferedWriter writer = Files.newBufferedWriter(this.cachePath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (CacheLine entry : entries) {
+                    writer.write(this.objectMapper.writeValueAsString(entry));
+                    writer.newLine();
+                }
+            }
+            this.logLines += entries.size();
+        } catch (IOException e) {
+            log.warn("Failed to append {} entries to keyword cache {}", entries.size(), this.cachePath, e);
+            return;
+        }
+        if (this.logLines > Math.max(MIN_COMPACT_LINES, 2 * this.cache.size())) {
+            compactCache();
+        }
+    }
+
+    /**
+     * 캐시 파일을 현재 보관 중인 항목만으로 다시 씁니다.
+     */
+    private void compactCache() {
+        List<CacheLine> snapshot = new ArrayList<>(this.cache.size());
+        this.cache.forEach((key, keywords) -> snapshot.add(new CacheLine(key, keywords)));
+        try {
+            AtomicFiles.write(this.cachePath, outputStream -> {
+                for (CacheLine entry : snapshot) {
+                    outputStream.write(this.objectMapper.writeValueAsBytes(entry));
+                    outputStream.write('\n');
+                }
+            });
+            log.info("Compacted keyword cache {} from {} to {} lines", this.cachePath, this.logLines, snapshot.size());
+            this.logLines = snapshot.size();
+        } catch (IOException e) {
+            log.warn("Failed to compact keyword cache {}", this.cachePath, e);
+        }
+    }
+
+    /**
+     * 저장되지 않은 캐시 항목을 파일에 쓰고 스레드 풀을 종료합니다. (Bean 소멸 시 호출)
+     */
+    @Override
+    public void close() {
+        saveCache();
+        this.executor.shutdown();
+    }
+}
@@ -1,43 +1,180 @@
 package kr.hui.springai.rag;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.ai.transformer.splitter.TextSplitter;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
-@RequiredArgsConstructor
+/**
+ * 글자 수(chunkSize) 기준으로 텍스트를 자르고, 인접한 청크가 chunkOverlap만큼 겹치도록 하는 TextSplitter입니다.
+ * <p>
+ * boundaryWindow가 0보다 크면 청크 끝을 최대 boundaryWindow 글자 안쪽의 문장 끝이나 공백으로 당기고,
+ * 다음 청크의 시작을 단어의 시작으로 맞춥니다. 이때 청크 길이는 chunkSize를 넘지 않고,
+ * 겹치는 길이는 chunkOverlap - boundaryWindow 이상 chunkOverlap 이하가 됩니다.
+ * <p>
+ * {@link #split(CharSequence, Consumer)}와 {@link #split(Reader, Consumer)}는 결과 리스트를 만들지 않고
+ * 청크를 하나씩 전달하며, Reader는 청크 하나 분량의 버퍼만 유지하므로 큰 텍스트도 일정한 메모리로 분할할 수 있습니다.
+ */
 public class LengthTextSplitter extends TextSplitter {
 
+    private static final int READ_BUFFER_SIZE = 8192;
+
     private final int chunkSize;
     private final int chunkOverlap;
+    private final int boundaryWindow;
+
+    public LengthTextSplitter(int chunkSize, int chunkOverlap) {
+        this(chunkSize, chunkOverlap, 0);
+    }
+
+    /**
+     * @param chunkSize 청크의 최대 글자 수
+     * @param chunkOverlap 인접 청크가 겹치는 글자 수
+     * @param boundaryWindow 청크 경계를 문장/공백 위치로 맞출 때 이동할 수 있는 최대 글자 수 (0이면 고정 위치에서 자름)
+     */
+    public LengthTextSplitter(int chunkSize, int chunkOverlap, int boundaryWindow) {
+        if (boundaryWindow < 0 || (boundaryWindow > 0 && boundaryWindow >= chunkSize - chunkOverlap)) {
+            throw new IllegalArgumentException("boundaryWindow must be between 0 and chunkSize - chunkOverlap (exclusive): "
+                    + boundaryWindow);
+        }
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+        this.boundaryWindow = boundaryWindow;
+    }
 
     // TextSplitter는 DocumentTransformer를 상속하고 있음.
     @Override
     protected List<String> splitText(String text) {
         List<String> chunks = new ArrayList<>();
+        split(text, chunks::add);
+        return chunks;
+    }
 
+    /**
+     * 메모리에 있는 텍스트를 분할합니다. 전달되는 청크 외의 부분은 복사하지 않습니다.
+     *
+     * @param text 분할할 텍스트
+     * @param chunkConsumer 청크를 순서대로 받는 Consumer
+     */
+    public void split(CharSequence text, Consumer<String> chunkConsumer) {
         if (!StringUtils.hasText(text)) {
-            return chunks;
+            return;
         }
+        if (text.length() <= this.chunkOverlap) {
+            chunkConsumer.accept(text.toString());
+            return;
+        }
+        emitChunks(text, 0, true, chunkConsumer);
+    }
 
-        int textLength = text.length();
-        if (textLength <= chunkOverlap) {
-            chunks.add(text);
-            return chunks;
+    /**
+     * Reader에서 텍스트를 읽으며 분할합니다. 한 번에 약 chunkSize + 8KB 글자만 버퍼에 유지합니다.
+     * Reader는 호출자가 닫아야 합니다.
+     *
+     * @param reader 분할할 텍스트를 제공하는 Reader
+     * @param chunkConsumer 청크를 순서대로 받는 Consumer
+     * @throws IOException 읽기 중 오류 발생 시
+     */
+    public void split(Reader reader, Consumer<String> chunkConsumer) throws IOException {
+        StringBuilder buffer = new StringBuilder(this.chunkSize + READ_BUFFER_SIZE + 1);
+        char[] readBuffer = new char[READ_BUFFER_SIZE];
+        boolean eof = false;
+        boolean started = false;
+        while (true) {
+            // 청크 끝 다음 글자까지 있어야 마지막 청크인지, 경계를 어디로 맞출지 판단할 수 있음
+            while (!eof && buffer.length() <= this.chunkSize) {
+                int read = reader.read(readBuffer);
+                if (read == -1) {
+                    eof = true;
+                } else {
+                    buffer.append(readBuffer, 0, read);
+                }
+            }
+            if (!started && eof) {
+                split(buffer, chunkConsumer); // 전체 텍스트가 버퍼에 들어온 경우
+                return;
+            }
+            started = true;
+            int position = emitChunks(buffer, 0, eof, chunkConsumer);
+            if (position < 0) {
+                return;
+            }
+            buffer.delete(0, position);
         }
+    }
 
-        int position = 0;
-        while (position < textLength) {
-            int end = Math.min(position + chunkSize, textLength);
-            chunks.add(text.substring(position, end));
-            int nextPosition = end - chunkOverlap;
+    /**
+     * position부터 가능한 만큼 청크를 전달합니다.
+     *
+     * @return 입력이 더 필요할 때 다음 청크의 시작 위치, 분할이 끝났으면 -1
+     */
+    private int emitChunks(CharSequence text, int position, boolean eof, Consumer<String> chunkConsumer) {
+        int available = text.length();
+        while (position < available) {
+            if (!eof && position + this.chunkSize >= available) {
+                return position;
+            }
+            int end = Math.min(position + this.chunkSize, available);
+            boolean last = end == available;
+            if (!last && this.boundaryWindow > 0) {
+                end = snapEnd(text, position, end);
+            }
+            chunkConsumer.accept(text.subSequence(position, end).toString());
+            if (last && this.boundaryWindow > 0) {
+                return -1;
+            }
+            int nextPosition = end - this.chunkOverlap;
+            if (this.boundaryWindow > 0) {
+                nextPosition = snapStart(text, nextPosition, end);
+            }
             if (nextPosition <= position) {
-                break;
+                return -1;
             }
             position = nextPosition;
         }
-        return chunks;
+        return -1;
+    }
+
+    /**
+     * 청크 끝을 boundaryWindow 안에서 가장 가까운 문장 끝(또는 줄바꿈)으로, 없으면 공백으로 당깁니다.
+     */
+    private int snapEnd(CharSequence text, int position, int end) {
+        int limit = Math.max(position + 1, end - this.boundaryWindow);
+        int whitespaceBreak = -1;
+        for (int i = end; i > limit; i--) {
+            char previous = text.charAt(i - 1);
+            char current = text.charAt(i);
+            if (previous == '\n' || (isSentenceEnd(previous) && Character.isWhitespace(current))) {
+                return i;
+            }
+            if (whitespaceBreak < 0 && Character.isWhitespace(current)) {
+                whitespaceBreak = i;
+            }
+        }
+        return whitespaceBreak > 0 ? whitespaceBreak : end;
+    }
+
+    /**
+     * 다음 청크 시작이 단어 중간이면 boundaryWindow 안에서 다음 단어의 시작으로 옮깁니다.
+     */
+    private int snapStart(CharSequence text, int start, int end) {
+        if (start <= 0 || Character.isWhitespace(text.charAt(start - 1))) {
+            return start;
+        }
+        int limit = Math.min(start + this.boundaryWindow, end - 1);
+        for (int i = start; i < limit; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '。' || c == '…';
     }
 }
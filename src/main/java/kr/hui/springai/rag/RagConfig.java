@@ -2,7 +2,35 @@ package kr.hui.springai.rag;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.token.TokenCounter;
+import kr.hui.springai.rag.advisor.SemanticCacheAdvisor;
+import kr.hui.springai.rag.advisor.SemanticCacheProperties;
+import kr.hui.springai.rag.advisor.SpeculativeRetrievalAugmentationAdvisor;
+import kr.hui.springai.rag.etl.EtlPipeline;
+import kr.hui.springai.rag.etl.EtlPipelineProperties;
+import kr.hui.springai.rag.etl.IncrementalEtlPipeline;
+import kr.hui.springai.rag.etl.VectorIndexChangedEvent;
+import kr.hui.springai.rag.postretrieval.ContextCompressionDocumentPostProcessor;
+import kr.hui.springai.rag.postretrieval.ContextCompressionProperties;
+import kr.hui.springai.rag.preretrieval.CachingQueryExpander;
+import kr.hui.springai.rag.preretrieval.CachingQueryTransformer;
+import kr.hui.springai.rag.preretrieval.LanguageGatedQueryTransformer;
+import kr.hui.springai.rag.preretrieval.QueryCacheProperties;
+import kr.hui.springai.rag.preretrieval.TimedQueryExpander;
+import kr.hui.springai.rag.preretrieval.TimedQueryTransformer;
+import kr.hui.springai.rag.preretrieval.TranslationGateProperties;
+import kr.hui.springai.rag.retrieval.Bm25Index;
+import kr.hui.springai.rag.retrieval.HybridDocumentRetriever;
+import kr.hui.springai.rag.retrieval.HybridRetrievalProperties;
+import kr.hui.springai.rag.retrieval.ReciprocalRankFusionDocumentJoiner;
+import kr.hui.springai.rag.retrieval.RetrievalProperties;
+import kr.hui.springai.rag.retrieval.TimeLimitedDocumentRetriever;
+import kr.hui.springai.rag.vectorstore.HnswVectorStore;
+import kr.hui.springai.rag.vectorstore.InMemoryVectorStoreProperties;
+import kr.hui.springai.rag.vectorstore.InMemoryVectorStoreSnapshots;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.document.DocumentReader;
@@ -12,25 +40,39 @@ import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.model.transformer.KeywordMetadataEnricher;
 import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
 import org.springframework.ai.rag.generation.augmentation.ContextualQueryAugmenter;
+import org.springframework.ai.rag.generation.augmentation.QueryAugmenter;
 import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
 import org.springframework.ai.rag.preretrieval.query.expansion.MultiQueryExpander;
+import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
 import org.springframework.ai.rag.preretrieval.query.transformation.TranslationQueryTransformer;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
 import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
 import org.springframework.ai.reader.tika.TikaDocumentReader;
 import org.springframework.ai.vectorstore.SimpleVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * RAG(Retrieval-Augmented Generation) 파이프라인과 관련된 Spring Bean 설정을 담당합니다.
@@ -40,6 +82,11 @@ import java.util.Optional;
 @Configuration
 public class RagConfig {
 
+    // 질의 확장/번역 설정 (캐시 키에도 같은 값을 사용하므로 바꾸면 캐시된 결과를 재사용하지 않음)
+    private static final int EXPANDED_QUERY_COUNT = 3;
+    private static final boolean EXPANSION_INCLUDES_ORIGINAL = false;
+    private static final String TRANSLATION_TARGET_LANGUAGE = "korean";
+
     /**
      * 지정된 위치(classpath:spring-ai.pdf)의 문서를 로드하는 DocumentReader Bean을 생성합니다.
      * Apache Tika를 사용하여 PDF와 같은 다양한 형식의 파일에서 텍스트를 추출합니다.
@@ -57,24 +104,56 @@ public class RagConfig {
     /**
      * 문서를 지정된 길이의 청크(chunk)로 분할하는 DocumentTransformer Bean을 생성합니다.
      * 이는 긴 문서를 LLM이 처리하기 쉬운 작은 단위로 나누기 위해 필수적입니다.
+     * boundaryWindow가 0보다 크면 청크 경계를 가까운 문장 끝이나 공백으로 맞춰 단어/문장이 잘리지 않도록 합니다.
+     * 'app.rag.splitter.type=token'이면 글자 수 대신 토큰 수 기준으로 자르는 TokenBudgetTextSplitter를 사용합니다.
      *
-     * @return LengthTextSplitter 인스턴스
+     * @param type 분할 방식 (length: 글자 수, token: 토큰 수)
+     * @param boundaryWindow 청크 경계를 맞출 때 이동할 수 있는 최대 글자 수 (0이면 고정 길이로 자름)
+     * @param chunkTokens token 방식에서 청크당 최대 토큰 수
+     * @param overlapTokens token 방식에서 인접 청크가 공유하는 최대 토큰 수
+     * @param tokenCounter 토큰 수를 세는 로컬 토크나이저
+     * @return LengthTextSplitter 또는 TokenBudgetTextSplitter 인스턴스
      */
     @Bean
-    public DocumentTransformer textSplitter() {
-        return new LengthTextSplitter(1000, 200); // TIP: 여러가지 값을 주며 테스트필요.
+    public DocumentTransformer textSplitter(@Value("${app.rag.splitter.type:length}") String type,
+                                           @Value("${app.rag.splitter.boundary-window:0}") int boundaryWindow,
+                                           @Value("${app.rag.splitter.chunk-tokens:512}") int chunkTokens,
+                                           @Value("${app.rag.splitter.overlap-tokens:64}") int overlapTokens,
+                                           TokenCounter tokenCounter) {
+        if ("token".equalsIgnoreCase(type)) {
+            return new TokenBudgetTextSplitter(tokenCounter, chunkTokens, overlapTokens);
+        }
+        return new LengthTextSplitter(1000, 200, boundaryWindow); // TIP: 여러가지 값을 주며 테스트필요.
     }
 
     /**
      * 문서 청크에서 LLM을 사용하여 키워드를 추출하고 메타데이터에 추가하는 DocumentTransformer Bean을 생성합니다.
      * 이렇게 생성된 키워드는 나중에 문서 검색 시 필터링에 사용될 수 있습니다.
+     * 'app.rag.enricher.type=batch'(기본값)이면 여러 청크를 한 요청으로 묶어 동시에 처리하고,
+     * 청크 내용 해시별로 결과를 캐시하는 BatchKeywordMetadataEnricher를 사용합니다.
      *
      * @param chatModel 키워드 추출에 사용될 ChatModel
-     * @return KeywordMetadataEnricher 인스턴스
+     * @param type 보강 방식 (batch: 배치/동시 요청/캐시, simple: 청크마다 한 번씩 요청)
+     * @param batchSize batch 방식에서 한 요청에 담을 청크 수
+     * @param concurrency batch 방식에서 동시에 보낼 최대 요청 수
+     * @param cacheMaxEntries batch 방식의 키워드 캐시에 보관할 최대 항목 수
+     * @param cachePath batch 방식의 키워드 캐시 파일 경로 (한 줄에 항목 하나인 추가 전용 로그)
+     * @param objectMapper 캐시 파일 직렬화를 위한 ObjectMapper
+     * @return KeywordMetadataEnricher 또는 BatchKeywordMetadataEnricher 인스턴스
      */
     @Bean
-    public DocumentTransformer keywordMetadataEnricher(ChatModel chatModel) {
-        return new KeywordMetadataEnricher(chatModel, 4);
+    public DocumentTransformer keywordMetadataEnricher(ChatModel chatModel,
+                                                       @Value("${app.rag.enricher.type:batch}") String type,
+                                                       @Value("${app.rag.enricher.batch-size:8}") int batchSize,
+                                                       @Value("${app.rag.enricher.concurrency:4}") int concurrency,
+                                                       @Value("${app.rag.enricher.cache-max-entries:50000}") int cacheMaxEntries,
+                                                       @Value("${app.rag.enricher.cache-path:./data/keyword-cache.jsonl}") Path cachePath,
+                                                       ObjectMapper objectMapper) {
+        if ("simple".equalsIgnoreCase(type)) {
+            return new KeywordMetadataEnricher(chatModel, 4);
+        }
+        return new BatchKeywordMetadataEnricher(chatModel, 4, batchSize, concurrency, cacheMaxEntries, cachePath,
+                objectMapper);
     }
 
     /**
@@ -98,71 +177,347 @@ public class RagConfig {
     }
 
     /**
-     * 인메모리(In-memory) 벡터 저장소인 SimpleVectorStore를 Bean으로 생성합니다.
+     * 인메모리(In-memory) 벡터 저장소를 Bean으로 생성합니다.
      * 'app.vectorstore.in-memory.enabled=true'일 때만 활성화됩니다.
+     * 'app.vectorstore.in-memory.type=hnsw'이면 전체 탐색 대신 HNSW 그래프로 근사 탐색하는 HnswVectorStore를 사용합니다.
+     * 'app.vectorstore.in-memory.quantization.encoding'이 int8/binary이면 압축 코드로 탐색하고 원본 벡터는 메모리 맵 파일에 둡니다.
+     * 'app.vectorstore.in-memory.filter-index.fields'의 메타데이터는 값별 비트맵으로 색인하여 필터 검색 시 후보를 먼저 좁힙니다.
+     * 'app.vectorstore.in-memory.snapshot-path'의 스냅숏 파일이 있으면 다시 임베딩하지 않고 복원합니다.
      *
      * @param embeddingModel 문서를 벡터로 변환하기 위한 EmbeddingModel
-     * @return VectorStore 인스턴스
+     * @param properties 인메모리 VectorStore 설정
+     * @param objectMapper 스냅숏 메타데이터 역직렬화를 위한 ObjectMapper
+     * @return SimpleVectorStore 또는 HnswVectorStore 인스턴스
      */
     @ConditionalOnProperty(prefix = "app.vectorstore.in-memory", name = "enabled", havingValue = "true")
     @Bean
-    public VectorStore vectorStore(EmbeddingModel embeddingModel) {
-        return SimpleVectorStore.builder(embeddingModel).build();
+    public VectorStore vectorStore(EmbeddingModel embeddingModel, InMemoryVectorStoreProperties properties,
+                                   ObjectMapper objectMapper) {
+        VectorStore vectorStore = properties.type() == InMemoryVectorStoreProperties.Type.HNSW
+                ? new HnswVectorStore(embeddingModel, properties.hnsw(), properties.quantization(),
+                        properties.filterIndex())
+                : SimpleVectorStore.builder(embeddingModel).build();
+        InMemoryVectorStoreSnapshots.load(vectorStore, properties.snapshotPath(), objectMapper);
+        return vectorStore;
+    }
+
+    /**
+     * 문서 청크를 BM25로 검색하는 인메모리 역색인 Bean을 생성합니다.
+     * 'app.rag.hybrid.enabled=true'일 때만 활성화됩니다.
+     * DocumentWriter이므로 ETL 파이프라인이 VectorStore와 함께 청크를 쓰고, 'app.rag.hybrid.index-path'의 색인 파일이 있으면 복원합니다.
+     *
+     * @param properties BM25 계수와 색인 파일 경로 설정
+     * @param objectMapper 색인 파일 역직렬화를 위한 ObjectMapper
+     * @return Bm25Index 인스턴스
+     */
+    @ConditionalOnProperty(prefix = "app.rag.hybrid", name = "enabled", havingValue = "true")
+    @Bean
+    public Bm25Index bm25Index(HybridRetrievalProperties properties, ObjectMapper objectMapper) {
+        Bm25Index bm25Index = new Bm25Index(properties.k1(), properties.b());
+        bm25Index.load(properties.indexPath(), objectMapper);
+        return bm25Index;
     }
 
     /**
      * 애플리케이션 시작 시 ETL(Extract, Transform, Load) 파이프라인을 실행하는 ApplicationRunner Bean을 생성합니다.
      * 'app.etl.pipeline.init=true'일 때만 실행됩니다.
      * 문서를 읽고(Extract), 청크로 나누고 키워드를 추가한(Transform) 후, 설정된 DocumentWriter(예: VectorStore)에 저장합니다(Load).
+     * 각 단계는 크기가 제한된 큐로 연결되어 병렬로 실행되며, 저장은 마이크로 배치 단위로 이루어집니다.
+     * 단계별 병렬도와 큐/배치 크기는 'app.etl.pipeline.*'로 설정합니다.
+     * 'app.etl.pipeline.mode=incremental'이면 매니페스트와 비교하여 변경된 청크만 처리하고, 사라진 청크는 삭제합니다.
+     * 매니페스트는 스냅숏/색인 파일을 저장한 뒤에 저장하며, 인메모리 저장소에 파일 경로가 없으면 시작할 때 실패하고
+     * 파일에서 복원되지 않았으면(처음 실행, 손상) 모든 청크를 다시 저장합니다.
+     * 인메모리 VectorStore는 처리가 끝나면 'app.vectorstore.in-memory.snapshot-path'에 저장하여 다음 실행에서 이어 씁니다.
+     * BM25 색인도 DocumentWriter로 함께 쓰이며, 처리가 끝나면 'app.rag.hybrid.index-path'에 저장합니다.
+     * 처리가 끝나면 {@link VectorIndexChangedEvent}를 발행하여 검색 결과에 의존하는 캐시를 비웁니다.
      *
+     * @param properties 단계별 병렬도, 큐/배치 크기, 처리 모드 설정
+     * @param documentsLocationPattern 문서 파일의 위치 패턴 (증분 처리 시 리소스 해시 계산에 사용)
      * @param documentReaders 문서를 읽는 Reader
      * @param textSplitter 텍스트를 분할하는 Transformer
      * @param keywordMetadataEnricher 키워드를 추가하는 Transformer
      * @param documentWriters 문서를 저장하는 Writer(VectorStore 등)
+     * @param objectMapper 매니페스트 직렬화를 위한 ObjectMapper
+     * @param inMemoryVectorStoreProperties 인메모리 VectorStore 스냅숏 경로 설정
+     * @param hybridRetrievalProperties BM25 색인 파일 경로 설정
+     * @param eventPublisher 인덱스 변경 이벤트 발행에 사용할 ApplicationEventPublisher
      * @return ApplicationRunner 인스턴스
      */
     @ConditionalOnProperty(prefix = "app.etl.pipeline", name = "init", havingValue = "true")
     @Order(1)
     @Bean
-    public ApplicationRunner initEtlPipeLine(DocumentReader[] documentReaders,
+    public ApplicationRunner initEtlPipeLine(EtlPipelineProperties properties,
+                                             @Value("${app.rag.documents-location-pattern}") String documentsLocationPattern,
+                                             DocumentReader[] documentReaders,
                                              DocumentTransformer textSplitter,
                                              DocumentTransformer keywordMetadataEnricher,
-                                             DocumentWriter[] documentWriters) {
+                                             DocumentWriter[] documentWriters,
+                                             ObjectMapper objectMapper,
+                                             InMemoryVectorStoreProperties inMemoryVectorStoreProperties,
+                                             HybridRetrievalProperties hybridRetrievalProperties,
+                                             ApplicationEventPublisher eventPublisher) {
+        if (properties.mode() == EtlPipelineProperties.Mode.INCREMENTAL) {
+            Path snapshotPath = inMemoryVectorStoreProperties.snapshotPath();
+            Path bm25IndexPath = hybridRetrievalProperties.indexPath();
+            for (DocumentWriter documentWriter : documentWriters) {
+                if (isInMemory(documentWriter) && snapshotPathOf(documentWriter, snapshotPath, bm25IndexPath) == null) {
+                    throw new IllegalStateException("Incremental ETL needs a snapshot file for in-memory writer "
+                            + documentWriter.getClass().getSimpleName() + ": set app.vectorstore.in-memory.snapshot-path"
+                            + " / app.rag.hybrid.index-path, or use app.etl.pipeline.mode=full");
+                }
+            }
+            return args -> {
+                // 인메모리 저장소는 스냅숏 파일이 있을 때만 복원됨 (읽지 못한 파일은 시작할 때 옆으로 옮겨짐)
+                boolean writersRestored = Arrays.stream(documentWriters)
+                        .filter(RagConfig::isInMemory)
+                        .allMatch(documentWriter -> Files.exists(snapshotPathOf(documentWriter, snapshotPath, bm25IndexPath)));
+                new IncrementalEtlPipeline(properties,
+                        new PathMatchingResourcePatternResolver().getResources(documentsLocationPattern),
+                        TikaDocumentReader::new, textSplitter, keywordMetadataEnricher, documentWriters, objectMapper,
+                        writersRestored, () -> saveSnapshots(documentWriters, snapshotPath, bm25IndexPath, objectMapper))
+                        .run();
+                eventPublisher.publishEvent(new VectorIndexChangedEvent(Instant.now()));
+            };
+        }
+        // 읽기(Extract) → 분할/키워드 추가(Transform) → 임베딩 후 저장(Load)
         return args -> {
-            Arrays.stream(documentReaders).map(DocumentReader::read) // 문서를 읽음 (Extract)
-                    .map(textSplitter) // chunkData로 자름 (Transform)
-                    .map(keywordMetadataEnricher) // chunkData를 keyword를 Metadata를 채운 후
-                    .forEach(documents -> Arrays.stream(documentWriters) // vectorStore 저장 (Load)
-                            .forEach(documentWriter -> documentWriter.write(documents)));
+            new EtlPipeline(properties, documentReaders, textSplitter, keywordMetadataEnricher, documentWriters).run();
+            saveSnapshots(documentWriters, inMemoryVectorStoreProperties.snapshotPath(),
+                    hybridRetrievalProperties.indexPath(), objectMapper);
+            eventPublisher.publishEvent(new VectorIndexChangedEvent(Instant.now()));
         };
     }
 
+    /**
+     * 재시작하면 내용이 사라져 파일로 저장/복원해야 하는 저장소인지 여부입니다.
+     */
+    private static boolean isInMemory(DocumentWriter documentWriter) {
+        return documentWriter instanceof Bm25Index || documentWriter instanceof SimpleVectorStore
+                || documentWriter instanceof HnswVectorStore;
+    }
+
+    private static Path snapshotPathOf(DocumentWriter documentWriter, Path snapshotPath, Path bm25IndexPath) {
+        return documentWriter instanceof Bm25Index ? bm25IndexPath : snapshotPath;
+    }
+
+    private static void saveSnapshots(DocumentWriter[] documentWriters, Path snapshotPath, Path bm25IndexPath,
+                                      ObjectMapper objectMapper) throws IOException {
+        for (DocumentWriter documentWriter : documentWriters) {
+            if (documentWriter instanceof Bm25Index bm25Index) {
+                bm25Index.save(bm25IndexPath, objectMapper);
+            } else {
+                InMemoryVectorStoreSnapshots.save(documentWriter, snapshotPath, objectMapper);
+            }
+        }
+    }
+
+    /**
+     * 질문 임베딩이 비슷하면 이전 RAG 응답을 재사용하는 시맨틱 캐시 어드바이저 Bean을 생성합니다.
+     * 'app.rag.semantic-cache.enabled=true'일 때만 활성화되며, 'app.advisor.pipelines.rag'에 추가해야 실행됩니다.
+     * ETL 파이프라인이 끝나면({@link VectorIndexChangedEvent}) 캐시를 비웁니다.
+     *
+     * @param embeddingModel 질문을 임베딩할 EmbeddingModel
+     * @param properties 유사도 기준, 크기, TTL 설정
+     * @param meterRegistry 적중률 지표를 등록할 MeterRegistry
+     * @return SemanticCacheAdvisor 인스턴스
+     */
+    @ConditionalOnProperty(prefix = "app.rag.semantic-cache", name = "enabled", havingValue = "true")
+    @Bean
+    public SemanticCacheAdvisor semanticCacheAdvisor(EmbeddingModel embeddingModel, SemanticCacheProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new SemanticCacheAdvisor(embeddingModel, properties, meterRegistry);
+    }
+
+    /**
+     * VectorStore 검색에 질의별 제한 시간을 적용하는 DocumentRetriever Bean을 생성합니다.
+     * 제한 시간을 넘기거나 실패한 질의는 빈 결과로 처리되어 요청 전체를 실패시키지 않습니다.
+     * BM25 색인이 있으면('app.rag.hybrid.enabled=true') 벡터 검색과 BM25 검색을 함께 실행하고 RRF로 병합합니다.
+     *
+     * @param vectorStore 관련 문서 검색을 위한 VectorStore
+     * @param properties 제한 시간 설정
+     * @param hybridProperties 하이브리드 검색 설정
+     * @param bm25Index BM25 역색인 (선택 사항)
+     * @param ragQueryTaskExecutor 질의 하나의 검색을 실행할 TaskExecutor
+     * @param meterRegistry 질의별 결과 지표를 등록할 MeterRegistry
+     * @return TimeLimitedDocumentRetriever 인스턴스
+     */
+    @Bean
+    public TimeLimitedDocumentRetriever documentRetriever(VectorStore vectorStore, RetrievalProperties properties,
+                                                          HybridRetrievalProperties hybridProperties,
+                                                          Optional<Bm25Index> bm25Index,
+                                                          ThreadPoolTaskExecutor ragQueryTaskExecutor,
+                                                          MeterRegistry meterRegistry) {
+        DocumentRetriever documentRetriever = VectorStoreDocumentRetriever.builder()
+                .vectorStore(vectorStore)
+                .similarityThreshold(0.3) // 값을 조정하며 튜닝해야 함
+                .topK(3)
+                .build();
+        if (bm25Index.isPresent()) {
+            documentRetriever = new HybridDocumentRetriever(documentRetriever, bm25Index.get(), hybridProperties.topK(),
+                    properties.rrfK());
+        }
+        return new TimeLimitedDocumentRetriever(documentRetriever, properties.timeout(), ragQueryTaskExecutor,
+                meterRegistry);
+    }
+
+    /**
+     * TimeLimitedDocumentRetriever가 질의 하나의 검색을 실행하는 TaskExecutor Bean을 생성합니다.
+     * 검색을 기다리는 ragRetrievalTaskExecutor와 풀을 나누어야 서로의 작업을 기다리며 막히지 않고,
+     * 관측(Observation) 컨텍스트를 전파하므로 VectorStore/임베딩 호출의 관측이 요청에 연결됩니다.
+     * 대기열은 queueCapacity로 제한하고, 가득 차면 거절하여 TimeLimitedDocumentRetriever가 그 질의를 버리게 합니다.
+     *
+     * @param properties 동시 검색 수, 대기열 크기 설정
+     * @return ThreadPoolTaskExecutor 인스턴스
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ragQueryTaskExecutor(RetrievalProperties properties) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("rag-query-");
+        taskExecutor.setCorePoolSize(properties.parallelism());
+        taskExecutor.setMaxPoolSize(properties.parallelism());
+        taskExecutor.setQueueCapacity(properties.queueCapacity());
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()); // 가득 차면 질의를 버림
+        taskExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator()); // 관측(Observation) 컨텍스트 전파
+        return taskExecutor;
+    }
+
+    /**
+     * RetrievalAugmentationAdvisor가 확장된 질의를 동시에 검색할 때 사용하는 TaskExecutor Bean을 생성합니다.
+     * 기본 TaskExecutor는 스레드 4개에서 대기열이 찬 뒤에야 늘어나므로, 동시 요청이 많으면 질의가 줄을 서게 됩니다.
+     * 이 풀의 작업은 ragQueryTaskExecutor의 검색을 기다리기만 하므로 대기열 없이 넘겨주고,
+     * 스레드가 모두 사용 중이면 요청 스레드가 직접 실행합니다.
+     *
+     * @param properties 동시 검색 수 설정
+     * @return ThreadPoolTaskExecutor 인스턴스
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ragRetrievalTaskExecutor(RetrievalProperties properties) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("rag-fan-out-");
+        taskExecutor.setCorePoolSize(properties.parallelism());
+        taskExecutor.setMaxPoolSize(properties.parallelism());
+        taskExecutor.setQueueCapacity(0); // SynchronousQueue: 대기열 없이 스레드에 바로 넘김
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        taskExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator()); // 관측(Observation) 컨텍스트 전파
+        return taskExecutor;
+    }
+
+    /**
+     * SpeculativeRetrievalAugmentationAdvisor가 질의 번역/확장(LLM 호출)을 실행하는 TaskExecutor Bean을 생성합니다.
+     * 수 초씩 걸리는 LLM 호출이 검색 풀의 스레드를 차지하면 원 질의 검색이 밀리므로 풀을 나눕니다.
+     * 대기열이 가득 차면 거절하며, 그 요청은 확장 없이 원 질의 검색 결과로 응답합니다.
+     *
+     * @param properties 동시 확장 수, 대기열 크기 설정
+     * @return ThreadPoolTaskExecutor 인스턴스
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ragExpansionTaskExecutor(RetrievalProperties properties) {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setThreadNamePrefix("rag-expansion-");
+        taskExecutor.setCorePoolSize(properties.speculative().expansionConcurrency());
+        taskExecutor.setMaxPoolSize(properties.speculative().expansionConcurrency());
+        taskExecutor.setQueueCapacity(properties.queueCapacity());
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy()); // 가득 차면 확장 생략
+        taskExecutor.setTaskDecorator(new ContextPropagatingTaskDecorator()); // 관측(Observation) 컨텍스트 전파
+        return taskExecutor;
+    }
+
     /**
      * RAG(검색 증강 생성)를 ChatClient에 통합하기 위한 Advisor Bean을 생성합니다.
      * 이 어드바이저는 사용자 쿼리를 받아 확장/변환하고, VectorStore에서 관련 문서를 검색한 후,
      * 검색된 문서를 컨텍스트로 사용하여 LLM에 최종 답변을 요청하는 전체 RAG 프로세스를 조정합니다.
+     * 'app.rag.query-cache.enabled=true'이면 LLM을 호출하는 질의 확장/번역 결과를 정규화된 질의 텍스트별로 캐시합니다.
+     * 'app.rag.translation-gate.enabled=true'이면 이미 한국어인 질의는 번역(LLM 호출)을 건너뜁니다.
+     * 확장된 질의는 병렬로 검색하고(질의별 제한 시간 적용), 결과는 RRF로 병합하며 문서 ID로 중복을 제거합니다.
+     * 번역, 확장 단계의 소요 시간은 'rag.stage.duration' 지표(stage=translation/expansion)로 노출됩니다.
+     * 'app.rag.retrieval.speculative.enabled=true'이면 번역/확장을 기다리지 않고 원 질의 검색을 먼저 시작하고,
+     * 기한까지 끝난 확장된 질의의 검색 결과만 병합하는 SpeculativeRetrievalAugmentationAdvisor를 사용합니다.
      *
-     * @param vectorStore 관련 문서 검색을 위한 VectorStore
+     * @param documentRetriever 질의별 제한 시간이 적용된 DocumentRetriever
+     * @param ragRetrievalTaskExecutor 확장된 질의를 동시에 검색할 TaskExecutor
+     * @param ragExpansionTaskExecutor 원 질의 선행 검색 시 번역/확장을 실행할 TaskExecutor
+     * @param retrievalProperties RRF, 원 질의 선행 검색 설정
      * @param chatClientBuilder 쿼리 확장/변환에 LLM을 사용하기 위한 ChatClient.Builder
-     * @param documentPostProcessor 검색된 문서의 후처리기 (선택 사항)
-     * @return RetrievalAugmentationAdvisor 인스턴스
+     * @param documentPostProcessors 검색된 문서의 후처리기 (@Order 순서로 실행, 없을 수 있음)
+     * @param queryCacheProperties 질의 확장/번역 결과 캐시 설정
+     * @param translationGateProperties 번역 전 언어 판별 설정
+     * @param meterRegistry 캐시 적중률, 번역 생략, 단계별 소요 시간, 선행 검색 지표를 등록할 MeterRegistry
+     * @return RetrievalAugmentationAdvisor 또는 SpeculativeRetrievalAugmentationAdvisor 인스턴스
      */
     @Bean
-    public RetrievalAugmentationAdvisor retrievalAugmentationAdvisor(VectorStore vectorStore,
-                                                                     ChatClient.Builder chatClientBuilder,
-                                                                     Optional<DocumentPostProcessor> documentPostProcessor) {
+    public BaseAdvisor retrievalAugmentationAdvisor(DocumentRetriever documentRetriever,
+                                                   ThreadPoolTaskExecutor ragRetrievalTaskExecutor,
+                                                   ThreadPoolTaskExecutor ragExpansionTaskExecutor,
+                                                   RetrievalProperties retrievalProperties,
+                                                   ChatClient.Builder chatClientBuilder,
+                                                   ObjectProvider<DocumentPostProcessor> documentPostProcessors,
+                                                   QueryCacheProperties queryCacheProperties,
+                                                   TranslationGateProperties translationGateProperties,
+                                                   MeterRegistry meterRegistry) {
+        QueryExpander queryExpander = MultiQueryExpander.builder()
+                .chatClientBuilder(chatClientBuilder)
+                .numberOfQueries(EXPANDED_QUERY_COUNT)
+                .includeOriginal(EXPANSION_INCLUDES_ORIGINAL)
+                .build(); // 쿼리 확장기 다수의 쿼리를 하나의 결과로 묶어줌 (LLM 도움 필요)
+        QueryTransformer queryTransformer = TranslationQueryTransformer.builder().chatClientBuilder(chatClientBuilder).targetLanguage(TRANSLATION_TARGET_LANGUAGE).build(); // 한국어로 바꿔주는 역할 (LLM 도움 필요)
+        if (queryCacheProperties.enabled()) {
+            // 설정 문자열은 결과에 영향을 주는 값(질의 수, 원본 포함 여부, 대상 언어)으로, 바뀌면 다른 캐시 키가 됨
+            queryExpander = new CachingQueryExpander(queryExpander, "expansion",
+                    "queries=" + EXPANDED_QUERY_COUNT + ",includeOriginal=" + EXPANSION_INCLUDES_ORIGINAL,
+                    EXPANDED_QUERY_COUNT + (EXPANSION_INCLUDES_ORIGINAL ? 1 : 0), // 다르면 실패 시의 대체 결과
+                    queryCacheProperties, meterRegistry);
+            queryTransformer = new CachingQueryTransformer(queryTransformer, "translation", TRANSLATION_TARGET_LANGUAGE,
+                    queryCacheProperties, meterRegistry);
+        }
+        if (translationGateProperties.enabled()) {
+            // 캐시보다 먼저 판별하므로 이미 한국어인 질의는 번역 캐시에 저장되지 않음
+            queryTransformer = new LanguageGatedQueryTransformer(queryTransformer,
+                    translationGateProperties.targetScriptFor(TRANSLATION_TARGET_LANGUAGE),
+                    translationGateProperties.minRatio(), meterRegistry);
+        }
+        // 캐시 적중과 번역 생략을 포함해 요청이 실제로 기다린 시간을 기록 (검색 시간은 TimeLimitedDocumentRetriever가 기록)
+        queryTransformer = new TimedQueryTransformer(queryTransformer, "translation", meterRegistry);
+        queryExpander = new TimedQueryExpander(queryExpander, "expansion", meterRegistry);
+
+        QueryAugmenter queryAugmenter = ContextualQueryAugmenter.builder().allowEmptyContext(true).build();
+        DocumentJoiner documentJoiner = new ReciprocalRankFusionDocumentJoiner(retrievalProperties.rrfK());
+        List<DocumentPostProcessor> postProcessors = documentPostProcessors.orderedStream().toList();
+        if (retrievalProperties.speculative().enabled()) {
+            return new SpeculativeRetrievalAugmentationAdvisor(List.of(queryTransformer), queryExpander,
+                    documentRetriever, documentJoiner, postProcessors, queryAugmenter, ragRetrievalTaskExecutor,
+                    ragExpansionTaskExecutor, retrievalProperties.speculative().deadline(),
+                    retrievalProperties.timeout().multipliedBy(2), // 대기열 대기와 실행이 각각 timeout으로 제한됨
+                    meterRegistry);
+        }
 
         RetrievalAugmentationAdvisor.Builder documentRetrieverBuilder = RetrievalAugmentationAdvisor.builder()
-                .queryExpander(MultiQueryExpander.builder().chatClientBuilder(chatClientBuilder).build()) // 쿼리 확장기 다수의 쿼리를 하나의 결과로 묶어줌 (LLM 도움 필요)
-                .queryTransformers(TranslationQueryTransformer.builder().chatClientBuilder(chatClientBuilder).targetLanguage("korean").build()) // 한국어로 바꿔주는 역할 (LLM 도움 필요)
-                .queryAugmenter(ContextualQueryAugmenter.builder().allowEmptyContext(true).build()) //
-                .documentRetriever(VectorStoreDocumentRetriever.builder()
-                        .vectorStore(vectorStore)
-                        .similarityThreshold(0.3) // 값을 조정하며 튜닝해야 함
-                        .topK(3)
-                        .build());
-        documentPostProcessor.ifPresent(documentRetrieverBuilder::documentPostProcessors);
-        return documentRetrieverBuilder.build();
+                .queryExpander(queryExpander)
+                .queryTransformers(queryTransformer)
+                .queryAugmenter(queryAugmenter) //
+                .documentRetriever(documentRetriever)
+                .documentJoiner(documentJoiner)
+                .taskExecutor(ragRetrievalTaskExecutor);
+        return documentRetrieverBuilder.documentPostProcessors(postProcessors).build();
+    }
+
+    /**
+     * 검색된 문서를 프롬프트에 넣기 전에 줄이는 DocumentPostProcessor Bean을 생성합니다.
+     * 'app.rag.compression.enabled=true'일 때만 활성화됩니다.
+     * 같은 출처의 겹치는 청크를 이어 붙이고, 중복 문서를 제거한 뒤, 토큰 예산을 넘으면 질의와 관련 있는 문장만 남깁니다.
+     * 다른 후처리기(예: CLI 출력)보다 먼저 실행되어 LLM에 전달되는 문서가 출력됩니다.
+     *
+     * @param tokenCounter 토큰 예산 계산에 사용할 로컬 토크나이저
+     * @param properties 토큰 예산, 겹침/중복 기준 설정
+     * @param meterRegistry 압축 전후 토큰 수 지표를 등록할 MeterRegistry
+     * @return ContextCompressionDocumentPostProcessor 인스턴스
+     */
+    @ConditionalOnProperty(prefix = "app.rag.compression", name = "enabled", havingValue = "true")
+    @Order(0)
+    @Bean
+    public DocumentPostProcessor contextCompressionDocumentPostProcessor(TokenCounter tokenCounter,
+                                                                         ContextCompressionProperties properties,
+                                                                         MeterRegistry meterRegistry) {
+        return new ContextCompressionDocumentPostProcessor(tokenCounter, properties, meterRegistry);
     }
 
     /**
@@ -0,0 +1,177 @@
+package kr.hui.springai.rag;
+
+import kr.hui.springai.common.token.TokenCounter;
+import org.springframework.ai.transformer.splitter.TextSplitter;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 글자 수 대신 토큰 수(chunkTokens)를 기준으로 청크를 만드는 TextSplitter입니다.
+ * 텍스트를 문장(또는 줄) 단위 조각으로 나눈 뒤 토큰 예산 안에서 조각을 이어 붙이고,
+ * 인접 청크는 overlapTokens 이내의 마지막 조각들을 공유합니다.
+ * 한 문장이 예산을 넘으면 공백 단위로, 그래도 넘으면 글자 단위로 나눕니다.
+ * 한국어처럼 글자 수와 토큰 수의 비율이 일정하지 않은 텍스트에서도 임베딩 모델의 입력 한도를 넘지 않도록 합니다.
+ */
+public class TokenBudgetTextSplitter extends TextSplitter {
+
+    private final TokenCounter tokenCounter;
+    private final int chunkTokens;
+    private final int overlapTokens;
+
+    /**
+     * @param tokenCounter 토큰 수를 세는 로컬 토크나이저
+     * @param chunkTokens 청크당 최대 토큰 수
+     * @param overlapTokens 인접 청크가 공유하는 최대 토큰 수
+     */
+    public TokenBudgetTextSplitter(TokenCounter tokenCounter, int chunkTokens, int overlapTokens) {
+        if (chunkTokens <= 0 || overlapTokens < 0 || overlapTokens >= chunkTokens) {
+            throw new IllegalArgumentException("Invalid token budget: chunkTokens=" + chunkTokens
+                    + ", overlapTokens=" + overlapTokens);
+        }
+        this.tokenCounter = tokenCounter;
+        this.chunkTokens = chunkTokens;
+        this.overlapTokens = overlapTokens;
+    }
+
+    @Override
+    protected List<String> splitText(String text) {
+        List<String> chunks = new ArrayList<>();
+        if (!StringUtils.hasText(text)) {
+            return chunks;
+        }
+        // 조각 i는 text[offsets[i], offsets[i + 1]) 이며 tokens[i]개의 토큰을 가짐
+        Segments segments = new Segments();
+        segmentSentences(text, segments);
+        int count = segments.size;
+        int[] offsets = segments.offsets;
+        int[] tokens = segments.tokens;
+
+        int start = 0;
+        while (start < count) {
+            int end = start;
+            int budget = 0;
+            while (end < count && budget + tokens[end] <= this.chunkTokens) {
+                budget += tokens[end++];
+            }
+            end = Math.max(end, start + 1);
+            // 조각별 토큰 수의 합은 근사치이므로 실제 청크의 토큰 수로 한 번 더 확인
+            String chunk = text.substring(offsets[start], offsets[end]);
+            while (end - start > 1 && this.tokenCounter.count(chunk) > this.chunkTokens) {
+                end--;
+                chunk = text.substring(offsets[start], offsets[end]);
+            }
+            String stripped = chunk.strip();
+            if (!stripped.isEmpty()) {
+                chunks.add(stripped);
+            }
+            if (end >= count) {
+                break;
+            }
+            int next = end;
+            int overlap = 0;
+            while (next - 1 > start && overlap + tokens[next - 1] <= this.overlapTokens) {
+                overlap += tokens[--next];
+            }
+            start = next;
+        }
+        return chunks;
+    }
+
+    /**
+     * 문장 끝(. ! ? 。 …) 뒤의 공백이나 줄바꿈에서 텍스트를 조각냅니다. 조각은 뒤쪽 공백을 포함합니다.
+     */
+    private void segmentSentences(String text, Segments segments) {
+        int length = text.length();
+        int pieceStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean boundary = c == '\n'
+                    || (isSentenceEnd(c) && i + 1 < length && Character.isWhitespace(text.charAt(i + 1)));
+            if (boundary) {
+                int pieceEnd = i + 1;
+                while (pieceEnd < length && Character.isWhitespace(text.charAt(pieceEnd))) {
+                    pieceEnd++;
+                }
+                addPiece(text, pieceStart, pieceEnd, segments);
+                pieceStart = pieceEnd;
+                i = pieceEnd - 1;
+            }
+        }
+        if (pieceStart < length) {
+            addPiece(text, pieceStart, length, segments);
+        }
+    }
+
+    private void addPiece(String text, int start, int end, Segments segments) {
+        int tokens = this.tokenCounter.count(text.substring(start, end));
+        if (tokens <= this.chunkTokens) {
+            segments.add(start, end, tokens);
+            return;
+        }
+        // 예산을 넘는 문장은 공백 단위로 나눔
+        int wordStart = start;
+        for (int i = start; i < end; i++) {
+            if (Character.isWhitespace(text.charAt(i)) && (i + 1 == end || !Character.isWhitespace(text.charAt(i + 1)))) {
+                addWord(text, wordStart, i + 1, segments);
+                wordStart = i + 1;
+            }
+        }
+        if (wordStart < end) {
+            addWord(text, wordStart, end, segments);
+        }
+    }
+
+    private void addWord(String text, int start, int end, Segments segments) {
+        while (start < end) {
+            int tokens = this.tokenCounter.count(text.substring(start, end));
+            if (tokens <= this.chunkTokens) {
+                segments.add(start, end, tokens);
+                return;
+            }
+            // 예산 안에 들어가는 가장 긴 앞부분을 이분 탐색으로 찾음
+            int low = start + 1;
+            int high = end - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (this.tokenCounter.count(text.substring(start, mid)) <= this.chunkTokens) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (Character.isHighSurrogate(text.charAt(low - 1)) && low - 1 > start) {
+                low--;
+            }
+            segments.add(start, low, this.tokenCounter.count(text.substring(start, low)));
+            start = low;
+        }
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '。' || c == '…';
+    }
+
+    /**
+     * 조각의 시작 위치와 토큰 수를 담는 배열입니다. offsets[size]는 마지막 조각의 끝 위치입니다.
+     */
+    private static final class Segments {
+
+        int[] offsets = new int[64];
+        int[] tokens = new int[63];
+        int size;
+
+        void add(int start, int end, int tokenCount) {
+            if (this.size + 1 >= this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+                this.tokens = Arrays.copyOf(this.tokens, this.offsets.length - 1);
+            }
+            this.offsets[this.size] = start;
+            this.tokens[this.size] = tokenCount;
+            this.size++;
+            this.offsets[this.size] = end;
+        }
+    }
+}
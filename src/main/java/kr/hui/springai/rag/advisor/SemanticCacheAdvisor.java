@@ -0,0 +1,295 @@
+package kr.hui.springai.rag.advisor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.rag.etl.VectorIndexChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientMessageAggregator;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 질문 임베딩을 키로 RAG 최종 응답을 캐시하는 어드바이저입니다.
+ * 질문의 코사인 유사도가 기준 이상이고 필터 표현식, 시스템 프롬프트, 모델이 같으면 캐시된 응답을 반환하여
+ * 질의 변환/확장, 검색, 생성을 모두 건너뜁니다.
+ * <ul>
+ *     <li>대화 메모리 어드바이저 다음, 검색 어드바이저 이전에 실행되므로 적중한 응답도 대화 기록에 남습니다.</li>
+ *     <li>temperature가 0보다 큰 요청은 응답이 매번 달라야 하므로 캐시하지 않습니다.</li>
+ *     <li>크기 제한(LRU)과 TTL이 있으며, {@link VectorIndexChangedEvent}를 받으면 모두 비웁니다.</li>
+ *     <li>요청 결과는 'rag.semantic.cache.requests' 지표(result=hit/miss/skip)로 노출됩니다.</li>
+ * </ul>
+ * 항목은 선형으로 비교합니다. 항목 수가 수천 개 이하이면 임베딩 호출 한 번보다 훨씬 짧습니다.
+ */
+@Slf4j
+public class SemanticCacheAdvisor implements CallAdvisor, StreamAdvisor {
+
+    /**
+     * MessageChatMemoryAdvisor(HIGHEST_PRECEDENCE + 1000) 다음, RetrievalAugmentationAdvisor(0) 이전
+     */
+    public static final int DEFAULT_ORDER = Ordered.HIGHEST_PRECEDENCE + 2000;
+
+    private final EmbeddingModel embeddingModel;
+    private final SemanticCacheProperties properties;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    private long generation; // 무효화할 때마다 증가 (무효화 이전에 시작한 요청의 응답은 저장하지 않음)
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter skips;
+    private final Counter evictions;
+
+    /**
+     * @param embeddingModel 질문을 임베딩할 모델 (CachingEmbeddingModel이면 같은 질문은 다시 임베딩하지 않음)
+     * @param properties 유사도 기준, 크기, TTL 설정
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public SemanticCacheAdvisor(EmbeddingModel embeddingModel, SemanticCacheProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.properties = properties;
+        this.hits = Counter.builder("rag.semantic.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("rag.semantic.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.skips = Counter.builder("rag.semantic.cache.requests").tag("result", "skip").register(meterRegistry);
+        this.evictions = Counter.builder("rag.semantic.cache.evictions").register(meterRegistry);
+        Gauge.builder("rag.semantic.cache.size", this, SemanticCacheAdvisor::size).register(meterRegistry);
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        Lookup lookup = lookup(chatClientRequest);
+        if (lookup.hit() != null) {
+            return ChatClientResponse.builder().chatResponse(lookup.hit()).context(chatClientRequest.context()).build();
+        }
+        ChatClientResponse chatClientResponse = callAdvisorChain.nextCall(chatClientRequest);
+        store(lookup, chatClientResponse);
+        return chatClientResponse;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest chatClientRequest,
+                                                 StreamAdvisorChain streamAdvisorChain) {
+        // 질문 임베딩은 블로킹 호출이므로 RetrievalAugmentationAdvisor와 같이 boundedElastic에서 실행
+        return Mono.fromCallable(() -> lookup(chatClientRequest))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(lookup -> {
+                    if (lookup.hit() != null) {
+                        return Flux.just(ChatClientResponse.builder().chatResponse(lookup.hit())
+                                .context(chatClientRequest.context()).build());
+                    }
+                    return new ChatClientMessageAggregator().aggregateChatClientResponse(
+                            streamAdvisorChain.nextStream(chatClientRequest), response -> store(lookup, response));
+                });
+    }
+
+    private Lookup lookup(ChatClientRequest chatClientRequest) {
+        Prompt prompt = chatClientRequest.prompt();
+        String question = prompt.getUserMessage().getText();
+        if (!cacheable(prompt) || !StringUtils.hasText(question)) {
+            this.skips.increment();
+            return Lookup.SKIP;
+        }
+        String partition = partition(chatClientRequest);
+        float[] vector = normalize(this.embeddingModel.embed(question));
+
+        long now = System.nanoTime();
+        this.lock.readLock().lock();
+        try {
+            Entry best = bestMatch(partition, vector, now);
+            if (best != null) {
+                best.lastUsedNanos = now;
+                this.hits.increment();
+                return new Lookup(partition, vector, this.generation, best.response);
+            }
+            this.misses.increment();
+            return new Lookup(partition, vector, this.generation, null);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void store(Lookup lookup, ChatClientResponse chatClientResponse) {
+        ChatResponse response = chatClientResponse.chatResponse();
+        if (lookup.partition() == null || response == null || response.getResult() == null
+                || !StringUtils.hasText(response.getResult().getOutput().getText())) {
+            return;
+        }
+        long now = System.nanoTime();
+        this.lock.writeLock().lock();
+        try {
+            if (lookup.generation() != this.generation || bestMatch(lookup.partition(), lookup.vector(), now) != null) {
+                return; // 검색 중 인덱스가 바뀌었거나, 같은 질문을 다른 요청이 먼저 저장함
+            }
+            long ttlNanos = this.properties.ttl().toNanos();
+            this.entries.removeIf(entry -> now - entry.createdNanos > ttlNanos);
+            if (this.entries.size() >= this.properties.maxEntries()) {
+                Entry leastRecentlyUsed = this.entries.get(0);
+                for (Entry entry : this.entries) {
+                    if (entry.lastUsedNanos < leastRecentlyUsed.lastUsedNanos) {
+                        leastRecentlyUsed = entry;
+                    }
+                }
+                this.entries.remove(leastRecentlyUsed);
+                this.evictions.increment();
+            }
+            this.entries.add(new Entry(lookup.partition(), lookup.vector(), response, now));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 같은 구획에서 유사도가 기준 이상인 항목 중 가장 가까운 항목을 찾습니다. 호출자가 락을 잡고 있어야 합니다.
+     */
+    private Entry bestMatch(String partition, float[] vector, long now) {
+        long ttlNanos = this.properties.ttl().toNanos();
+        Entry best = null;
+        double bestScore = this.properties.similarityThreshold();
+        for (Entry entry : this.entries) {
+            if (now - entry.createdNanos > ttlNanos || !entry.partition.equals(partition)) {
+                continue;
+            }
+            double score = dot(entry.vector, vector);
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 질문이 같아도 응답이 달라질 수 있는 요청은 캐시하지 않습니다.
+     */
+    private boolean cacheable(Prompt prompt) {
+        ChatOptions options = prompt.getOptions();
+        if (options != null && options.getTemperature() != null && options.getTemperature() > 0) {
+            return false;
+        }
+        return !this.properties.firstTurnOnly() || prompt.getInstructions().stream()
+                .noneMatch(message -> message.getMessageType() == MessageType.ASSISTANT);
+    }
+
+    /**
+     * 질문 외에 응답에 영향을 주는 요소(필터 표현식, 시스템 프롬프트, 모델)입니다. 모두 같아야 같은 구획입니다.
+     */
+    private static String partition(ChatClientRequest chatClientRequest) {
+        Prompt prompt = chatClientRequest.prompt();
+        ChatOptions options = prompt.getOptions();
+        return Objects.toString(chatClientRequest.context().get(VectorStoreDocumentRetriever.FILTER_EXPRESSION), "")
+                + '\u0000' + Objects.toString(prompt.getSystemMessage().getText(), "")
+                + '\u0000' + (options != null ? Objects.toString(options.getModel(), "") : "");
+    }
+
+    /**
+     * 검색 인덱스가 바뀌면 캐시된 응답이 더 이상 유효하지 않으므로 모두 비웁니다.
+     */
+    @EventListener
+    public void onVectorIndexChanged(VectorIndexChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        this.lock.writeLock().lock();
+        try {
+            int size = this.entries.size();
+            this.entries.clear();
+            this.generation++;
+            log.info("Semantic cache invalidated ({} entries)", size);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1; // 임베딩 모델이 바뀐 경우
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String getName() {
+        return SemanticCacheAdvisor.class.getSimpleName();
+    }
+
+    @Override
+    public int getOrder() {
+        return DEFAULT_ORDER;
+    }
+
+    private static final class Entry {
+
+        final String partition;
+        final float[] vector;
+        final ChatResponse response;
+        final long createdNanos;
+        volatile long lastUsedNanos; // 읽기 락에서도 갱신
+
+        Entry(String partition, float[] vector, ChatResponse response, long createdNanos) {
+            this.partition = partition;
+            this.vector = vector;
+            this.response = response;
+            this.createdNanos = createdNanos;
+            this.lastUsedNanos = createdNanos;
+        }
+    }
+
+    /**
+     * @param partition 구획 (캐시하지 않는 요청이면 null)
+     * @param hit 캐시된 응답 (미스이면 null)
+     */
+    private record Lookup(String partition, float[] vector, long generation, ChatResponse hit) {
+
+        static final Lookup SKIP = new Lookup(null, null, 0, null);
+    }
+}
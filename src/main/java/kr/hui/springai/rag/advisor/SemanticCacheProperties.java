@@ -0,0 +1,23 @@
+package kr.hui.springai.rag.advisor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * RAG 응답 시맨틱 캐시 설정입니다. ('semanticCacheAdvisor'를 app.advisor.pipelines.rag에 추가해야 동작)
+ *
+ * @param enabled 캐시 사용 여부
+ * @param similarityThreshold 캐시된 질문과 같은 질문으로 볼 최소 코사인 유사도
+ * @param maxEntries 최대 항목 수 (넘치면 가장 오래 사용하지 않은 항목을 제거)
+ * @param ttl 항목 유지 시간
+ * @param firstTurnOnly true이면 이전 대화가 없는 질문만 캐시 (후속 질문은 대화 맥락에 따라 답이 달라짐)
+ */
+@ConfigurationProperties(prefix = "app.rag.semantic-cache")
+public record SemanticCacheProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("0.95") double similarityThreshold,
+                                      @DefaultValue("1000") int maxEntries,
+                                      @DefaultValue("1h") Duration ttl,
+                                      @DefaultValue("true") boolean firstTurnOnly) {
+}
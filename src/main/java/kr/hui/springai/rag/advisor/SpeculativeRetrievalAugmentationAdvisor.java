@@ -0,0 +1,235 @@
+package kr.hui.springai.rag.advisor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
+import org.springframework.ai.rag.generation.augmentation.QueryAugmenter;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 질의 번역/확장(LLM 호출)을 기다리지 않고 원 질의 검색을 먼저 시작하는 RAG 어드바이저입니다.
+ * RetrievalAugmentationAdvisor와 같은 구성 요소(변환, 확장, 검색, 병합, 후처리, 증강)를 같은 순서로 사용하지만,
+ * 원 질의 검색과 번역/확장을 동시에 실행하고 확장된 질의의 검색은 확장이 끝나는 대로 시작합니다.
+ * 번역/확장은 검색과 다른 TaskExecutor에서 실행하므로 느린 LLM 호출이 검색 스레드를 차지하지 않습니다.
+ * <ul>
+ *     <li>원 질의 검색 결과는 요청 시작부터 최대 대기 시간까지 기다리고, 넘거나 실패하면 확장된 질의의 결과만 사용합니다.</li>
+ *     <li>번역/확장 풀의 대기열이 가득 차면 확장 없이 원 질의 검색 결과로 응답합니다.</li>
+ *     <li>확장된 질의의 검색 결과는 요청 시작부터 기한(deadline)까지 끝난 것만 병합하고, 나머지는 버린 채 생성을 시작합니다.</li>
+ *     <li>기한을 넘긴 번역/확장은 백그라운드에서 끝까지 실행되므로, 질의 캐시를 사용하면 같은 질문의 다음 요청에서는 기한 안에 끝납니다.</li>
+ *     <li>확장된 질의가 모두 병합되었는지는 'rag.speculative.retrieval' 지표(result=complete/partial)로 노출됩니다.</li>
+ * </ul>
+ * 스트리밍 요청에서는 검색이 끝나야 첫 토큰이 생성되므로, 확장을 기다리지 않는 만큼 첫 토큰까지의 시간이 줄어듭니다.
+ */
+@Slf4j
+public class SpeculativeRetrievalAugmentationAdvisor implements BaseAdvisor {
+
+    private final List<QueryTransformer> queryTransformers;
+    private final QueryExpander queryExpander;
+    private final DocumentRetriever documentRetriever;
+    private final DocumentJoiner documentJoiner;
+    private final List<DocumentPostProcessor> documentPostProcessors;
+    private final QueryAugmenter queryAugmenter;
+    private final TaskExecutor taskExecutor;
+    private final TaskExecutor expansionTaskExecutor;
+    private final long deadlineNanos;
+    private final long speculativeTimeoutNanos;
+    private final Counter complete;
+    private final Counter partial;
+
+    /**
+     * @param queryTransformers 원 질의에 차례로 적용할 변환기 (e.g., 번역)
+     * @param queryExpander 변환된 질의를 여러 질의로 확장하는 확장기
+     * @param documentRetriever 질의별 문서 검색기
+     * @param documentJoiner 질의별 검색 결과 병합기
+     * @param documentPostProcessors 병합된 문서의 후처리기 (순서대로 실행)
+     * @param queryAugmenter 문서를 사용자 메시지에 넣는 증강기
+     * @param taskExecutor 원 질의 검색, 확장된 질의 검색을 실행할 TaskExecutor
+     * @param expansionTaskExecutor 번역/확장을 실행할 TaskExecutor (taskExecutor와 달라야 LLM 호출이 검색을 막지 않음)
+     * @param deadline 요청 시작부터 확장된 질의의 검색 결과를 기다리는 최대 시간
+     * @param speculativeTimeout 요청 시작부터 원 질의 검색 결과를 기다리는 최대 시간 (deadline보다 짧으면 deadline 사용)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public SpeculativeRetrievalAugmentationAdvisor(List<QueryTransformer> queryTransformers, QueryExpander queryExpander,
+                                                   DocumentRetriever documentRetriever, DocumentJoiner documentJoiner,
+                                                   List<DocumentPostProcessor> documentPostProcessors,
+                                                   QueryAugmenter queryAugmenter, TaskExecutor taskExecutor,
+                                                   TaskExecutor expansionTaskExecutor, Duration deadline,
+                                                   Duration speculativeTimeout, MeterRegistry meterRegistry) {
+        this.queryTransformers = List.copyOf(queryTransformers);
+        this.queryExpander = queryExpander;
+        this.documentRetriever = documentRetriever;
+        this.documentJoiner = documentJoiner;
+        this.documentPostProcessors = List.copyOf(documentPostProcessors);
+        this.queryAugmenter = queryAugmenter;
+        this.taskExecutor = taskExecutor;
+        this.expansionTaskExecutor = expansionTaskExecutor;
+        this.deadlineNanos = deadline.toNanos();
+        this.speculativeTimeoutNanos = Math.max(deadline.toNanos(), speculativeTimeout.toNanos());
+        this.complete = Counter.builder("rag.speculative.retrieval").tag("result", "complete").register(meterRegistry);
+        this.partial = Counter.builder("rag.speculative.retrieval").tag("result", "partial").register(meterRegistry);
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest chatClientRequest, AdvisorChain advisorChain) {
+        long start = System.nanoTime();
+        long deadline = start + this.deadlineNanos;
+        Map<String, Object> context = new HashMap<>(chatClientRequest.context());
+        Query originalQuery = Query.builder()
+                .text(chatClientRequest.prompt().getUserMessage().getText())
+                .history(chatClientRequest.prompt().getInstructions())
+                .context(context)
+                .build();
+
+        // 번역/확장과 원 질의 검색을 동시에 시작하고, 확장된 질의는 확장이 끝나는 대로 검색
+        // (검색 풀이 가득 차면 호출 스레드가 검색을 직접 실행하므로 확장을 먼저 제출)
+        CompletableFuture<Map<Query, CompletableFuture<List<Document>>>> expanded;
+        try {
+            expanded = CompletableFuture.supplyAsync(() -> expand(originalQuery), this.expansionTaskExecutor)
+                    .thenApply(queries -> retrieveExpanded(originalQuery, queries, deadline));
+        } catch (RejectedExecutionException e) {
+            log.warn("Query expansion rejected (executor queue full), continuing with the original query only");
+            expanded = null;
+        }
+        CompletableFuture<List<Document>> speculative = CompletableFuture.supplyAsync(
+                () -> this.documentRetriever.retrieve(originalQuery), this.taskExecutor);
+
+        Map<Query, List<List<Document>>> documentsForQuery = new LinkedHashMap<>();
+        documentsForQuery.put(originalQuery, List.of(awaitSpeculative(speculative, start + this.speculativeTimeoutNanos)));
+        boolean allMerged = true;
+        Map<Query, CompletableFuture<List<Document>>> retrievals = expanded == null ? null : await(expanded, deadline);
+        if (retrievals == null) {
+            allMerged = false;
+        } else {
+            for (Map.Entry<Query, CompletableFuture<List<Document>>> retrieval : retrievals.entrySet()) {
+                List<Document> documents = await(retrieval.getValue(), deadline);
+                if (documents == null) {
+                    allMerged = false;
+                    continue;
+                }
+                documentsForQuery.computeIfAbsent(retrieval.getKey(), query -> new ArrayList<>()).add(documents);
+            }
+        }
+        (allMerged ? this.complete : this.partial).increment();
+
+        List<Document> documents = this.documentJoiner.join(documentsForQuery);
+        for (DocumentPostProcessor documentPostProcessor : this.documentPostProcessors) {
+            documents = documentPostProcessor.process(originalQuery, documents);
+        }
+        context.put(RetrievalAugmentationAdvisor.DOCUMENT_CONTEXT, documents);
+
+        Query augmentedQuery = this.queryAugmenter.augment(originalQuery, documents);
+        return chatClientRequest.mutate()
+                .prompt(chatClientRequest.prompt().augmentUserMessage(augmentedQuery.text()))
+                .context(context)
+                .build();
+    }
+
+    private List<Query> expand(Query originalQuery) {
+        Query transformedQuery = originalQuery;
+        for (QueryTransformer queryTransformer : this.queryTransformers) {
+            transformedQuery = queryTransformer.transform(transformedQuery);
+        }
+        return this.queryExpander.expand(transformedQuery);
+    }
+
+    private Map<Query, CompletableFuture<List<Document>>> retrieveExpanded(Query originalQuery, List<Query> queries,
+                                                                          long deadline) {
+        Map<Query, CompletableFuture<List<Document>>> retrievals = new LinkedHashMap<>();
+        if (System.nanoTime() - deadline >= 0) {
+            return retrievals; // 기한을 넘겨 끝난 확장은 검색하지 않음 (결과를 기다리는 요청이 없음)
+        }
+        for (Query query : queries) {
+            if (!query.text().equals(originalQuery.text())) { // 원 질의는 이미 검색 중
+                retrievals.putIfAbsent(query, CompletableFuture.supplyAsync(
+                        () -> this.documentRetriever.retrieve(query), this.taskExecutor));
+            }
+        }
+        return retrievals;
+    }
+
+    /**
+     * 원 질의 검색 결과입니다. 최대 대기 시간을 넘기거나 실패하면 빈 결과이며, 확장된 질의의 결과만 병합됩니다.
+     */
+    private static List<Document> awaitSpeculative(CompletableFuture<List<Document>> speculative, long timeout) {
+        try {
+            return speculative.get(Math.max(0, timeout - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Speculative retrieval did not finish in time, continuing with expanded queries only");
+            return List.of();
+        } catch (ExecutionException e) {
+            log.warn("Speculative retrieval failed, continuing with expanded queries only", e.getCause());
+            return List.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    /**
+     * 기한까지 기다린 결과입니다. 기한을 넘기거나 실패하면 null입니다.
+     */
+    private static <T> T await(CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Query expansion or expanded retrieval failed, continuing without it", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * RetrievalAugmentationAdvisor와 같이 사용한 문서를 응답 메타데이터에 추가합니다.
+     */
+    @Override
+    public ChatClientResponse after(ChatClientResponse chatClientResponse, AdvisorChain advisorChain) {
+        ChatResponse.Builder chatResponseBuilder = chatClientResponse.chatResponse() == null
+                ? ChatResponse.builder()
+                : ChatResponse.builder().from(chatClientResponse.chatResponse());
+        chatResponseBuilder.metadata(RetrievalAugmentationAdvisor.DOCUMENT_CONTEXT,
+                chatClientResponse.context().get(RetrievalAugmentationAdvisor.DOCUMENT_CONTEXT));
+        return ChatClientResponse.builder()
+                .chatResponse(chatResponseBuilder.build())
+                .context(chatClientResponse.context())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return SpeculativeRetrievalAugmentationAdvisor.class.getSimpleName();
+    }
+
+    @Override
+    public int getOrder() {
+        return 0; // RetrievalAugmentationAdvisor와 같은 순서
+    }
+}
@@ -55,7 +55,7 @@ public class RagChatController {
         );
     }
 
-    private static Prompt buildPrompt(RagPromptBody ragPromptBody) {
+    static Prompt buildPrompt(RagPromptBody ragPromptBody) {
         List<Message> messages = new ArrayList<>();
         Optional.ofNullable(ragPromptBody.systemPrompt()).filter(Predicate.not(String::isBlank))
                         .map(SystemMessage.builder()::text).map(SystemMessage.Builder::build).ifPresent(messages::add);
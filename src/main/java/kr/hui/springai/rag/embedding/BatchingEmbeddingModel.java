@@ -0,0 +1,256 @@
+package kr.hui.springai.rag.embedding;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시에 들어온 작은 임베딩 요청들을 모아 한 번의 배치 호출로 보내는 EmbeddingModel 데코레이터입니다.
+ * 첫 요청이 도착한 뒤 window 동안, 또는 입력 수가 maxBatchSize에 이를 때까지 요청을 모으고,
+ * 모델/차원 옵션이 같은 요청끼리 묶어 위임 모델을 호출한 뒤 결과를 각 호출자에게 나눠 돌려줍니다.
+ * 이미 maxBatchSize 이상인 요청(ETL 저장 등)은 모으지 않고 바로 위임합니다.
+ * 배치 크기와 대기/호출 시간은 'embedding.batch.*' 히스토그램으로 노출되므로 window를 p99에 맞춰 조정할 수 있습니다.
+ */
+public class BatchingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private final EmbeddingModel delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final LinkedBlockingQueue<PendingRequest> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService dispatchExecutor;
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Timer batchLatency;
+
+    /**
+     * @param delegate 실제 임베딩을 수행하는 모델
+     * @param window 첫 요청 이후 다른 요청을 기다리는 최대 시간
+     * @param maxBatchSize 한 번의 호출에 담을 최대 입력 수
+     * @param maxInFlight 동시에 진행할 수 있는 배치 호출 수
+     * @param timeout 호출자가 배치 결과를 기다리는 최대 시간
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    BatchingEmbeddingModel(EmbeddingModel delegate, Duration window, int maxBatchSize, int maxInFlight,
+                           Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeoutNanos = timeout.toNanos();
+        AtomicInteger sequence = new AtomicInteger();
+        this.dispatchExecutor = Executors.newFixedThreadPool(Math.max(1, maxInFlight), runnable -> {
+            Thread thread = new Thread(runnable, "embedding-batch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder("embedding.batch.size")
+                .description("Number of inputs per batched embedding call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("embedding.batch.wait")
+                .description("Time a request waited in the batching window")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchLatency = Timer.builder("embedding.batch.latency")
+                .description("Latency of batched embedding calls")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.collector = new Thread(this::collect, "embedding-batch-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        if (request.getInstructions().size() >= this.maxBatchSize || !this.running) {
+            return this.delegate.call(request);
+        }
+        PendingRequest pending = new PendingRequest(request, OptionsKey.of(request.getOptions()), System.nanoTime(),
+                new CompletableFuture<>());
+        this.queue.add(pending);
+        if (!this.running && this.queue.remove(pending)) {
+            // 넣는 사이 close()가 호출되어 수집 스레드가 큐를 이미 비웠을 수 있으므로 직접 위임
+            return this.delegate.call(request);
+        }
+        try {
+            return pending.result().get(this.timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Batched embedding call failed", e.getCause());
+        } catch (TimeoutException e) {
+            this.queue.remove(pending);
+            throw new IllegalStateException("Timed out waiting for batched embedding after "
+                    + Duration.ofNanos(this.timeoutNanos).toMillis() + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.queue.remove(pending);
+            throw new IllegalStateException("Interrupted while waiting for batched embedding", e);
+        }
+    }
+
+    /**
+     * 큐에서 요청을 모아 배치를 만드는 수집 스레드의 루프입니다.
+     */
+    private void collect() {
+        PendingRequest carried = null;
+        List<PendingRequest> batch = List.of();
+        while (this.running) {
+            try {
+                PendingRequest first = carried != null ? carried : this.queue.take();
+                carried = null;
+                batch = new ArrayList<>();
+                batch.add(first);
+                int inputs = first.size();
+                long deadline = first.enqueuedNanos() + this.windowNanos;
+                while (inputs < this.maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRequest next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : this.queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (inputs + next.size() > this.maxBatchSize) {
+                        carried = next; // 다음 배치의 첫 요청으로 넘김
+                        break;
+                    }
+                    batch.add(next);
+                    inputs += next.size();
+                }
+                dispatch(batch);
+                batch = List.of();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // 모으던 중 종료된 배치, 다음 배치로 넘긴 요청, 큐에 남은 요청을 모두 실패로 완료
+        IllegalStateException closed = closedException();
+        batch.forEach(pending -> pending.result().completeExceptionally(closed));
+        failPending(carried);
+    }
+
+    private void dispatch(List<PendingRequest> batch) {
+        Map<OptionsKey, List<PendingRequest>> groups = new LinkedHashMap<>();
+        for (PendingRequest pending : batch) {
+            groups.computeIfAbsent(pending.optionsKey(), key -> new ArrayList<>()).add(pending);
+        }
+        for (List<PendingRequest> group : groups.values()) {
+            try {
+                this.dispatchExecutor.execute(() -> callDelegate(group));
+            } catch (RejectedExecutionException e) {
+                // close()가 배치 호출 스레드를 먼저 종료한 경우
+                IllegalStateException closed = closedException();
+                group.forEach(pending -> pending.result().completeExceptionally(closed));
+            }
+        }
+    }
+
+    private void callDelegate(List<PendingRequest> group) {
+        long startNanos = System.nanoTime();
+        List<String> inputs = new ArrayList<>();
+        for (PendingRequest pending : group) {
+            this.queueWait.record(startNanos - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            inputs.addAll(pending.request().getInstructions());
+        }
+        this.batchSize.record(inputs.size());
+        try {
+            EmbeddingResponse response = this.delegate.call(
+                    new EmbeddingRequest(inputs, group.get(0).request().getOptions()));
+            this.batchLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            List<Embedding> results = new ArrayList<>(response.getResults());
+            results.sort(Comparator.comparing(Embedding::getIndex));
+            int offset = 0;
+            for (PendingRequest pending : group) {
+                List<Embedding> embeddings = new ArrayList<>(pending.size());
+                for (int i = 0; i < pending.size(); i++) {
+                    embeddings.add(new Embedding(results.get(offset + i).getOutput(), i));
+                }
+                offset += pending.size();
+                pending.result().complete(new EmbeddingResponse(embeddings, response.getMetadata()));
+            }
+        } catch (RuntimeException e) {
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void failPending(PendingRequest carried) {
+        IllegalStateException closed = closedException();
+        if (carried != null) {
+            carried.result().completeExceptionally(closed);
+        }
+        PendingRequest pending;
+        while ((pending = this.queue.poll()) != null) {
+            pending.result().completeExceptionally(closed);
+        }
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("Embedding batcher is closed");
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return this.delegate.dimensions();
+    }
+
+    /**
+     * 수집 스레드와 배치 호출 스레드를 종료합니다. 대기 중인 요청은 실패로 완료됩니다.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.collector.interrupt();
+        this.dispatchExecutor.shutdown();
+    }
+
+    private record PendingRequest(EmbeddingRequest request, OptionsKey optionsKey, long enqueuedNanos,
+                                  CompletableFuture<EmbeddingResponse> result) {
+
+        int size() {
+            return this.request.getInstructions().size();
+        }
+    }
+
+    /**
+     * 같은 배치로 묶을 수 있는 요청인지 판단하는 옵션 키입니다. (모델 이름, 차원 수)
+     */
+    private record OptionsKey(String model, Integer dimensions) {
+
+        static OptionsKey of(EmbeddingOptions options) {
+            return options == null ? new OptionsKey(null, null) : new OptionsKey(options.getModel(), options.getDimensions());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package kr.hui.springai.rag.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.cache.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 같은 텍스트를 다시 임베딩하지 않도록 결과를 캐시하는 EmbeddingModel 데코레이터입니다.
+ * 키는 모델 이름, 차원 옵션, 텍스트의 해시이며 두 계층으로 조회합니다.
+ * <ol>
+ *     <li>힙: 크기가 제한된 LRU</li>
+ *     <li>디스크: 고정 길이 float 벡터를 담는 메모리 맵 파일 ({@link MappedEmbeddingStore}, 선택 사항)</li>
+ * </ol>
+ * 캐시에 없는 입력만 모아서 위임 모델을 한 번 호출합니다.
+ * 적중/미스/제거 횟수는 'embedding.cache.*' 지표로 노출됩니다.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private final EmbeddingModel delegate;
+    private final String defaultModelName;
+    private final LruCache<EmbeddingKey, float[]> heapCache;
+    private final MappedEmbeddingStore diskCache;
+
+    private final Counter heapHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter diskEvictions;
+
+    /**
+     * @param delegate 실제 임베딩을 수행하는 모델
+     * @param defaultModelName 요청 옵션에 모델 이름이 없을 때 키에 사용할 모델 이름
+     * @param heapMaxEntries 힙 LRU 계층의 최대 항목 수
+     * @param diskCache 디스크 계층 (null이면 힙 계층만 사용)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    CachingEmbeddingModel(EmbeddingModel delegate, String defaultModelName, int heapMaxEntries,
+                          MappedEmbeddingStore diskCache, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.defaultModelName = defaultModelName;
+        Counter heapEvictions = Counter.builder("embedding.cache.evictions").tag("tier", "heap").register(meterRegistry);
+        this.heapCache = new LruCache<>(heapMaxEntries, null, (key, vector) -> heapEvictions.increment());
+        this.diskCache = diskCache;
+
+        this.heapHits = Counter.builder("embedding.cache.requests").tag("tier", "heap").tag("result", "hit")
+                .register(meterRegistry);
+        this.diskHits = Counter.builder("embedding.cache.requests").tag("tier", "disk").tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("embedding.cache.requests").tag("tier", "none").tag("result", "miss")
+                .register(meterRegistry);
+        this.diskEvictions = Counter.builder("embedding.cache.evictions").tag("tier", "disk").register(meterRegistry);
+        Gauge.builder("embedding.cache.size", this.heapCache, LruCache::size).tag("tier", "heap").register(meterRegistry);
+        if (diskCache != null) {
+            Gauge.builder("embedding.cache.size", diskCache, MappedEmbeddingStore::size).tag("tier", "disk")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> inputs = request.getInstructions();
+        EmbeddingOptions options = request.getOptions();
+        String model = options != null && options.getModel() != null ? options.getModel() : this.defaultModelName;
+        Integer dimensions = options != null ? options.getDimensions() : null;
+
+        float[][] vectors = new float[inputs.size()][];
+        EmbeddingKey[] keys = new EmbeddingKey[inputs.size()];
+        List<Integer> missIndexes = new ArrayList<>();
+        List<String> missTexts = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            keys[i] = EmbeddingKey.of(model, dimensions, inputs.get(i));
+            vectors[i] = lookup(keys[i]);
+            if (vectors[i] == null) {
+                missIndexes.add(i);
+                missTexts.add(inputs.get(i));
+            }
+        }
+
+        EmbeddingResponseMetadata metadata = new EmbeddingResponseMetadata();
+        if (!missTexts.isEmpty()) {
+            this.misses.increment(missTexts.size());
+            EmbeddingResponse response = this.delegate.call(new EmbeddingRequest(missTexts, options));
+            List<Embedding> results = new ArrayList<>(response.getResults());
+            results.sort(Comparator.comparing(Embedding::getIndex));
+            for (int j = 0; j < results.size(); j++) {
+                int i = missIndexes.get(j);
+                vectors[i] = results.get(j).getOutput();
+                store(keys[i], vectors[i]);
+            }
+            metadata = response.getMetadata();
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            embeddings.add(new Embedding(vectors[i], i));
+        }
+        return new EmbeddingResponse(embeddings, metadata);
+    }
+
+    private float[] lookup(EmbeddingKey key) {
+        float[] vector = this.heapCache.get(key);
+        if (vector != null) {
+            this.heapHits.increment();
+            return vector;
+        }
+        if (this.diskCache != null) {
+            vector = this.diskCache.get(key);
+            if (vector != null) {
+                this.diskHits.increment();
+                this.heapCache.put(key, vector);
+                return vector;
+            }
+        }
+        return null;
+    }
+
+    private void store(EmbeddingKey key, float[] vector) {
+        this.heapCache.put(key, vector);
+        if (this.diskCache != null && this.diskCache.put(key, vector)) {
+            this.diskEvictions.increment();
+        }
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return this.delegate.dimensions();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.delegate instanceof BatchingEmbeddingModel batchingEmbeddingModel) {
+            batchingEmbeddingModel.close();
+        }
+        if (this.diskCache != null) {
+            this.diskCache.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package kr.hui.springai.rag.embedding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 임베딩 마이크로 배치 설정입니다.
+ *
+ * @param enabled 배치 사용 여부
+ * @param window 첫 요청 이후 다른 요청을 모으는 최대 시간
+ * @param maxBatchSize 한 번의 호출에 담을 최대 입력 수 (이 이상인 요청은 바로 위임)
+ * @param maxInFlight 동시에 진행할 수 있는 배치 호출 수
+ * @param timeout 호출자가 배치 결과를 기다리는 최대 시간 (넘으면 예외)
+ */
+@ConfigurationProperties(prefix = "app.embedding.batching")
+public record EmbeddingBatchingProperties(@DefaultValue("false") boolean enabled,
+                                          @DefaultValue("5ms") Duration window,
+                                          @DefaultValue("32") int maxBatchSize,
+                                          @DefaultValue("2") int maxInFlight,
+                                          @DefaultValue("30s") Duration timeout) {
+}
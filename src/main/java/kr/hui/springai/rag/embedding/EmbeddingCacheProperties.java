@@ -0,0 +1,25 @@
+package kr.hui.springai.rag.embedding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * 임베딩 캐시 설정입니다.
+ *
+ * @param enabled 캐시 사용 여부
+ * @param modelName 요청 옵션에 모델 이름이 없을 때 캐시 키에 사용할 모델 이름
+ * @param heapMaxEntries 힙 LRU 계층의 최대 항목 수
+ * @param diskPath 디스크 계층 파일 경로 (비워 두면 디스크 계층을 사용하지 않음)
+ * @param diskMaxEntries 디스크 계층의 최대 항목 수 (파일 크기 = 항목 수 × (36 + 4 × dimensions) 바이트)
+ * @param dimensions 디스크 계층에 저장할 벡터 차원 수
+ */
+@ConfigurationProperties(prefix = "app.embedding.cache")
+public record EmbeddingCacheProperties(@DefaultValue("false") boolean enabled,
+                                       @DefaultValue("bge-m3") String modelName,
+                                       @DefaultValue("10000") int heapMaxEntries,
+                                       Path diskPath,
+                                       @DefaultValue("200000") int diskMaxEntries,
+                                       @DefaultValue("1024") int dimensions) {
+}
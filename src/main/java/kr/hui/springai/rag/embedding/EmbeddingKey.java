@@ -0,0 +1,44 @@
+package kr.hui.springai.rag.embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 임베딩 캐시 키입니다. 모델 이름, 차원 옵션, 텍스트를 합친 SHA-256(32바이트)을 long 4개로 보관합니다.
+ */
+record EmbeddingKey(long h0, long h1, long h2, long h3) {
+
+    static final int BYTES = 32;
+
+    static EmbeddingKey of(String model, Integer dimensions, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(dimensions).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return read(ByteBuffer.wrap(digest.digest()), 0);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static EmbeddingKey read(ByteBuffer buffer, int offset) {
+        return new EmbeddingKey(buffer.getLong(offset), buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16), buffer.getLong(offset + 24));
+    }
+
+    void write(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, this.h0);
+        buffer.putLong(offset + 8, this.h1);
+        buffer.putLong(offset + 16, this.h2);
+        buffer.putLong(offset + 24, this.h3);
+    }
+
+    boolean isEmpty() {
+        return this.h0 == 0 && this.h1 == 0 && this.h2 == 0 && this.h3 == 0;
+    }
+}
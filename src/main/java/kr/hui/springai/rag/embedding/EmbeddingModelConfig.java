@@ -0,0 +1,69 @@
+package kr.hui.springai.rag.embedding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * EmbeddingModel Bean을 데코레이터로 감싸는 설정입니다.
+ * BeanPostProcessor로 감싸므로 VectorStore(SimpleVectorStore, ElasticsearchVectorStore)의 저장과
+ * VectorStoreDocumentRetriever의 검색 모두 코드 변경 없이 감싼 EmbeddingModel을 사용합니다.
+ */
+@Configuration
+public class EmbeddingModelConfig {
+
+    /**
+     * EmbeddingModel을 설정에 따라 BatchingEmbeddingModel, CachingEmbeddingModel 순서로 감싸고,
+     * 가장 바깥을 TimedEmbeddingModel로 감싸는 BeanPostProcessor를 생성합니다.
+     * 캐시가 바깥에 있으므로 캐시에 없는 입력만 배치로 모입니다.
+     * BeanPostProcessor는 다른 Bean보다 먼저 만들어지므로 static으로 선언하고, 의존 Bean은 ObjectProvider로 늦게 조회합니다.
+     *
+     * @param cacheProperties 임베딩 캐시 설정 ('app.embedding.cache')
+     * @param batchingProperties 임베딩 배치 설정 ('app.embedding.batching')
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     * @return BeanPostProcessor 인스턴스
+     */
+    @Bean
+    public static BeanPostProcessor embeddingModelPostProcessor(ObjectProvider<EmbeddingCacheProperties> cacheProperties,
+                                                                ObjectProvider<EmbeddingBatchingProperties> batchingProperties,
+                                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof EmbeddingModel embeddingModel) || bean instanceof CachingEmbeddingModel
+                        || bean instanceof BatchingEmbeddingModel || bean instanceof TimedEmbeddingModel) {
+                    return bean;
+                }
+                EmbeddingBatchingProperties batching = batchingProperties.getObject();
+                if (batching.enabled()) {
+                    embeddingModel = new BatchingEmbeddingModel(embeddingModel, batching.window(),
+                            batching.maxBatchSize(), batching.maxInFlight(), batching.timeout(),
+                            meterRegistry.getObject());
+                }
+                EmbeddingCacheProperties cache = cacheProperties.getObject();
+                if (cache.enabled()) {
+                    embeddingModel = new CachingEmbeddingModel(embeddingModel, cache.modelName(),
+                            cache.heapMaxEntries(), openDiskCache(cache), meterRegistry.getObject());
+                }
+                return new TimedEmbeddingModel(embeddingModel, meterRegistry.getObject());
+            }
+        };
+    }
+
+    private static MappedEmbeddingStore openDiskCache(EmbeddingCacheProperties properties) {
+        if (properties.diskPath() == null) {
+            return null;
+        }
+        try {
+            return new MappedEmbeddingStore(properties.diskPath(), properties.dimensions(), properties.diskMaxEntries());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open embedding cache " + properties.diskPath(), e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package kr.hui.springai.rag.embedding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 고정 길이 float 벡터를 메모리 맵 파일에 저장하는 임베딩 캐시의 디스크 계층입니다.
+ * <pre>
+ * header(64B): magic, version, dimensions, capacity, next(쓰기 위치), count
+ * slot       : key(32B) | crc32c(4B) | float[dimensions]
+ * </pre>
+ * 슬롯은 링 버퍼처럼 순환하며, 가득 차면 가장 먼저 쓴 슬롯을 덮어씁니다(eviction).
+ * 키 → 슬롯 인덱스는 힙에 두고 시작 시 키 영역만 읽어 다시 만듭니다.
+ * 벡터는 읽을 때 CRC로 검증하므로, 쓰는 도중 종료되어 깨진 슬롯은 캐시 미스로 처리됩니다.
+ */
+@Slf4j
+class MappedEmbeddingStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x454D4243; // "EMBC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int CRC_BYTES = 4;
+
+    private final FileChannel channel;
+    private final int dimensions;
+    private final int capacity;
+    private final int slotBytes;
+    private final int slotsPerRegion;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] regions;
+    private final Map<EmbeddingKey, Integer> index = new HashMap<>();
+    private final EmbeddingKey[] slotKeys;
+    private int next;
+    private int count;
+
+    MappedEmbeddingStore(Path path, int dimensions, int capacity) throws IOException {
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.slotBytes = EmbeddingKey.BYTES + CRC_BYTES + dimensions * Float.BYTES;
+        this.slotsPerRegion = Integer.MAX_VALUE / this.slotBytes;
+        this.slotKeys = new EmbeddingKey[capacity];
+
+        Path absolutePath = path.toAbsolutePath();
+        Files.createDirectories(absolutePath.getParent());
+        this.channel = FileChannel.open(absolutePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean existing = this.channel.size() >= HEADER_BYTES;
+        this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (existing && !matchesHeader()) {
+            log.warn("Embedding cache {} has a different layout, recreating it", absolutePath);
+            this.channel.truncate(HEADER_BYTES);
+            existing = false;
+        }
+
+        int regionCount = (capacity + this.slotsPerRegion - 1) / this.slotsPerRegion;
+        this.regions = new MappedByteBuffer[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            int slots = Math.min(this.slotsPerRegion, capacity - i * this.slotsPerRegion);
+            long position = HEADER_BYTES + (long) i * this.slotsPerRegion * this.slotBytes;
+            this.regions[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, position, (long) slots * this.slotBytes);
+            this.regions[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if (existing) {
+            this.next = this.header.getInt(16);
+            this.count = this.header.getInt(20);
+            for (int slot = 0; slot < this.count; slot++) {
+                EmbeddingKey key = EmbeddingKey.read(region(slot), offset(slot));
+                if (!key.isEmpty()) {
+                    this.slotKeys[slot] = key;
+                    this.index.put(key, slot);
+                }
+            }
+        } else {
+            this.header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, dimensions).putInt(12, capacity)
+                    .putInt(16, 0).putInt(20, 0);
+        }
+    }
+
+    private boolean matchesHeader() {
+        return this.header.getInt(0) == MAGIC && this.header.getInt(4) == VERSION
+                && this.header.getInt(8) == this.dimensions && this.header.getInt(12) == this.capacity;
+    }
+
+    int dimensions() {
+        return this.dimensions;
+    }
+
+    synchronized int size() {
+        return this.index.size();
+    }
+
+    /**
+     * @return 저장된 벡터의 복사본, 없거나 손상되었으면 null
+     */
+    synchronized float[] get(EmbeddingKey key) {
+        Integer slot = this.index.get(key);
+        if (slot == null) {
+            return null;
+        }
+        ByteBuffer region = region(slot);
+        int offset = offset(slot);
+        int vectorOffset = offset + EmbeddingKey.BYTES + CRC_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(region.slice(vectorOffset, this.dimensions * Float.BYTES));
+        if ((int) crc.getValue() != region.getInt(offset + EmbeddingKey.BYTES)) {
+            this.index.remove(key);
+            this.slotKeys[slot] = null;
+            return null;
+        }
+        float[] vector = new float[this.dimensions];
+        region.slice(vectorOffset, this.dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * 벡터를 다음 슬롯에 씁니다.
+     *
+     * @return 덮어써서 제거된 키가 있으면 true
+     */
+    synchronized boolean put(EmbeddingKey key, float[] vector) {
+        if (vector.length != this.dimensions || this.index.containsKey(key)) {
+            return false;
+        }
+        int slot = this.next;
+        EmbeddingKey evictedKey = this.slotKeys[slot];
+        if (evictedKey != null) {
+            this.index.remove(evictedKey);
+        }
+        ByteBuffer region = region(slot);
+        int offset = offset(slot);
+        int vectorOffset = offset + EmbeddingKey.BYTES + CRC_BYTES;
+        region.slice(vectorOffset, this.dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(vector);
+        CRC32C crc = new CRC32C();
+        crc.update(region.slice(vectorOffset, this.dimensions * Float.BYTES));
+        region.putInt(offset + EmbeddingKey.BYTES, (int) crc.getValue());
+        key.write(region, offset);
+
+        this.slotKeys[slot] = key;
+        this.index.put(key, slot);
+        this.next = (slot + 1) % this.capacity;
+        this.count = Math.max(this.count, slot + 1);
+        this.header.putInt(16, this.next).putInt(20, this.count);
+        return evictedKey != null;
+    }
+
+    private ByteBuffer region(int slot) {
+        return this.regions[slot / this.slotsPerRegion];
+    }
+
+    private int offset(int slot) {
+        return (slot % this.slotsPerRegion) * this.slotBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (MappedByteBuffer region : this.regions) {
+            region.force();
+        }
+        this.header.force();
+        this.channel.close();
+    }
+}
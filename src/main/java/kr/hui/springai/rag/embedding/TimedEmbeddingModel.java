@@ -0,0 +1,52 @@
+package kr.hui.springai.rag.embedding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * 임베딩 호출 시간을 'embedding.duration' 지표로 기록하는 EmbeddingModel 데코레이터입니다.
+ * 가장 바깥에서 감싸므로 캐시 적중과 배치 대기를 포함해 호출자가 실제로 기다린 시간을 기록합니다.
+ */
+class TimedEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private final EmbeddingModel delegate;
+    private final Timer timer;
+
+    /**
+     * @param delegate 실제 임베딩을 수행하는 모델
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    TimedEmbeddingModel(EmbeddingModel delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timer = Timer.builder("embedding.duration")
+                .description("Embedding call latency including cache and batching")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        return this.timer.record(() -> this.delegate.call(request));
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return this.timer.record(() -> this.delegate.embed(document));
+    }
+
+    @Override
+    public int dimensions() {
+        return this.delegate.dimensions();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package kr.hui.springai.rag.etl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 증분(incremental) ETL을 위한 로컬 매니페스트입니다.
+ * 원본 리소스별 콘텐츠 해시와, 그 리소스에서 만들어져 VectorStore에 저장된 청크 ID 목록을 JSON 파일로 유지합니다.
+ * 청크 ID는 리소스와 청크 내용의 해시로부터 결정적으로 만들어지므로, ID가 같으면 내용도 같습니다.
+ *
+ * @param sources 리소스 URI → 리소스 항목
+ */
+public record EtlManifest(Map<String, SourceEntry> sources) {
+
+    public EtlManifest {
+        sources = sources == null ? new TreeMap<>() : new TreeMap<>(sources);
+    }
+
+    /**
+     * @param hash 리소스 원본 바이트의 SHA-256
+     * @param chunkIds 리소스에서 만들어진 청크 ID
+     */
+    public record SourceEntry(String hash, Set<String> chunkIds) {
+    }
+
+    /**
+     * 매니페스트 파일을 읽습니다. 파일이 없으면 빈 매니페스트를 반환합니다.
+     */
+    public static EtlManifest load(Path path, ObjectMapper objectMapper) throws IOException {
+        if (!Files.exists(path)) {
+            return new EtlManifest(null);
+        }
+        return objectMapper.readValue(path.toFile(), EtlManifest.class);
+    }
+
+    /**
+     * 임시 파일에 먼저 쓴 뒤 원자적으로 교체하여, 중간에 실패해도 이전 매니페스트가 손상되지 않도록 합니다.
+     */
+    public void save(Path path, ObjectMapper objectMapper) throws IOException {
+        AtomicFiles.write(path, outputStream -> objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, this));
+    }
+}
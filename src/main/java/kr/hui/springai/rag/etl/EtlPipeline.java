@@ -0,0 +1,289 @@
+package kr.hui.springai.rag.etl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentReader;
+import org.springframework.ai.document.DocumentTransformer;
+import org.springframework.ai.document.DocumentWriter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 읽기(read) → 분할(split) → 보강(enrich) → 임베딩/저장(write) 단계를 크기가 제한된 큐로 연결한 ETL 파이프라인입니다.
+ * 각 단계는 독립된 스레드에서 동시에 실행되며, 다음 단계의 큐가 가득 차면 앞 단계가 대기(backpressure)하므로
+ * 힙에 동시에 올라가는 청크 수는 큐 크기로 제한됩니다.
+ * 임베딩은 VectorStore.add() 내부에서 수행되므로 write 단계가 임베딩과 저장을 함께 담당합니다.
+ */
+@Slf4j
+public class EtlPipeline {
+
+    private final EtlPipelineProperties properties;
+    private final DocumentReader[] documentReaders;
+    private final DocumentTransformer textSplitter;
+    private final DocumentTransformer metadataEnricher;
+    private final DocumentWriter[] documentWriters;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public EtlPipeline(EtlPipelineProperties properties,
+                       DocumentReader[] documentReaders,
+                       DocumentTransformer textSplitter,
+                       DocumentTransformer metadataEnricher,
+                       DocumentWriter[] documentWriters) {
+        this.properties = properties;
+        this.documentReaders = documentReaders;
+        this.textSplitter = textSplitter;
+        this.metadataEnricher = metadataEnricher;
+        this.documentWriters = documentWriters;
+    }
+
+    /**
+     * 파이프라인을 실행하고 모든 단계가 끝날 때까지 대기합니다.
+     * 어느 단계에서든 예외가 발생하면 나머지 단계를 중단하고 예외를 다시 던집니다.
+     *
+     * @return 단계별 처리량 리포트
+     */
+    public List<StageReport> run() {
+        Stage read = new Stage("read", Math.min(this.properties.readerParallelism(), Math.max(1, this.documentReaders.length)));
+        Stage split = new Stage("split", this.properties.splitterParallelism());
+        Stage enrich = new Stage("enrich", this.properties.enricherParallelism());
+        Stage write = new Stage("write", this.properties.writerParallelism());
+
+        BlockingQueue<Item> splitQueue = new ArrayBlockingQueue<>(this.properties.queueCapacity());
+        BlockingQueue<Item> enrichQueue = new ArrayBlockingQueue<>(this.properties.queueCapacity());
+        BlockingQueue<Item> writeQueue = new ArrayBlockingQueue<>(this.properties.queueCapacity());
+        Queue<DocumentReader> pendingReaders = new ConcurrentLinkedQueue<>(Arrays.asList(this.documentReaders));
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                read.workers + split.workers + enrich.workers + write.workers, new EtlThreadFactory());
+        long startNanos = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < read.workers; i++) {
+                futures.add(executor.submit(() -> worker(executor, read, split, splitQueue,
+                        () -> readAll(pendingReaders, read, splitQueue))));
+            }
+            for (int i = 0; i < split.workers; i++) {
+                futures.add(executor.submit(() -> worker(executor, split, enrich, enrichQueue,
+                        () -> consume(splitQueue, 1, Duration.ZERO, split,
+                                documents -> publish(this.textSplitter.apply(documents), split, enrichQueue)))));
+            }
+            for (int i = 0; i < enrich.workers; i++) {
+                futures.add(executor.submit(() -> worker(executor, enrich, write, writeQueue,
+                        () -> consume(enrichQueue, this.properties.batchSize(), Duration.ZERO, enrich,
+                                documents -> publish(this.metadataEnricher.apply(documents), enrich, writeQueue)))));
+            }
+            for (int i = 0; i < write.workers; i++) {
+                futures.add(executor.submit(() -> worker(executor, write, null, null,
+                        () -> consume(writeQueue, this.properties.batchSize(), this.properties.flushInterval(), write,
+                                documents -> {
+                                    for (DocumentWriter documentWriter : this.documentWriters) {
+                                        documentWriter.write(documents);
+                                    }
+                                    write.out.addAndGet(documents.size());
+                                }))));
+            }
+            awaitAll(futures);
+        } catch (RejectedExecutionException e) {
+            // 워커 등록 중 다른 워커가 실패하여 executor가 종료된 경우, 원인은 failure에 기록되어 있음
+            awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Throwable cause = this.failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("ETL pipeline failed", cause);
+        }
+        List<StageReport> reports = List.of(read.report(startNanos), split.report(startNanos),
+                enrich.report(startNanos), write.report(startNanos));
+        reports.forEach(report -> log.info("ETL {}", report));
+        return reports;
+    }
+
+    private void readAll(Queue<DocumentReader> pendingReaders, Stage read, BlockingQueue<Item> splitQueue)
+            throws InterruptedException {
+        DocumentReader documentReader;
+        while ((documentReader = pendingReaders.poll()) != null) {
+            read.in.incrementAndGet();
+            long begin = System.nanoTime();
+            List<Document> documents = documentReader.read();
+            read.busyNanos.addAndGet(System.nanoTime() - begin);
+            publish(documents, read, splitQueue);
+        }
+    }
+
+    /**
+     * 입력 큐에서 최대 batchSize개를 모아 handler에 전달합니다. 종료 신호(END)를 받으면 남은 배치를 처리하고 끝냅니다.
+     * maxWait가 0이면 이미 큐에 있는 항목만 모으고, 0보다 크면 배치가 찰 때까지 최대 maxWait만큼 기다립니다.
+     */
+    private void consume(BlockingQueue<Item> in, int batchSize, Duration maxWait, Stage stage,
+                         BatchHandler handler) throws InterruptedException {
+        List<Document> batch = new ArrayList<>(batchSize);
+        boolean finished = false;
+        while (!finished) {
+            Item item = in.take();
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            while (true) {
+                if (item == Item.END) {
+                    finished = true;
+                    break;
+                }
+                batch.add(item.document());
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                item = remaining > 0 ? in.poll(remaining, TimeUnit.NANOSECONDS) : in.poll();
+                if (item == null) {
+                    break;
+                }
+            }
+            if (!batch.isEmpty()) {
+                stage.in.addAndGet(batch.size());
+                long begin = System.nanoTime();
+                handler.handle(List.copyOf(batch));
+                stage.busyNanos.addAndGet(System.nanoTime() - begin);
+                batch.clear();
+            }
+        }
+    }
+
+    private static void publish(List<Document> documents, Stage stage, BlockingQueue<Item> out)
+            throws InterruptedException {
+        for (Document document : documents) {
+            out.put(new Item(document));
+        }
+        stage.out.addAndGet(documents.size());
+    }
+
+    /**
+     * 단계 작업을 실행하고, 해당 단계의 마지막 워커가 끝나면 다음 단계 워커 수만큼 종료 신호를 전달합니다.
+     * 예외가 발생하면 전체 파이프라인을 중단합니다.
+     */
+    private void worker(ExecutorService executor, Stage stage, Stage next, BlockingQueue<Item> nextQueue,
+                        StageTask task) {
+        try {
+            task.run();
+            if (stage.remaining.decrementAndGet() == 0) {
+                stage.finishedNanos = System.nanoTime();
+                if (next != null) {
+                    for (int i = 0; i < next.workers; i++) {
+                        nextQueue.put(Item.END);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            if (this.failure.compareAndSet(null, e)) {
+                log.error("ETL stage '{}' failed, aborting pipeline", stage.name, e);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for ETL pipeline", e);
+            } catch (ExecutionException | CancellationException e) {
+                // 워커 내부에서 failure에 기록되므로 여기서는 무시
+            }
+        }
+    }
+
+    /**
+     * 단계별 처리 결과입니다.
+     *
+     * @param stage 단계 이름
+     * @param workers 워커(스레드) 수
+     * @param in 입력 항목 수 (read 단계는 DocumentReader 수)
+     * @param out 출력 문서/청크 수
+     * @param elapsed 파이프라인 시작부터 단계 종료까지 걸린 시간
+     * @param busy 워커들이 실제 작업에 사용한 시간의 합
+     */
+    public record StageReport(String stage, int workers, long in, long out, Duration elapsed, Duration busy) {
+
+        public double throughputPerSecond() {
+            double seconds = this.elapsed.toNanos() / 1_000_000_000.0;
+            return seconds > 0 ? this.out / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("stage=%s workers=%d in=%d out=%d elapsed=%.2fs busy=%.2fs throughput=%.1f/s",
+                    this.stage, this.workers, this.in, this.out, this.elapsed.toMillis() / 1000.0,
+                    this.busy.toMillis() / 1000.0, throughputPerSecond());
+        }
+    }
+
+    private record Item(Document document) {
+        static final Item END = new Item(null);
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface BatchHandler {
+        void handle(List<Document> documents) throws InterruptedException;
+    }
+
+    private static final class Stage {
+
+        final String name;
+        final int workers;
+        final AtomicInteger remaining;
+        final AtomicLong in = new AtomicLong();
+        final AtomicLong out = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        volatile long finishedNanos;
+
+        Stage(String name, int workers) {
+            this.name = name;
+            this.workers = Math.max(1, workers);
+            this.remaining = new AtomicInteger(this.workers);
+        }
+
+        StageReport report(long startNanos) {
+            return new StageReport(this.name, this.workers, this.in.get(), this.out.get(),
+                    Duration.ofNanos(this.finishedNanos - startNanos), Duration.ofNanos(this.busyNanos.get()));
+        }
+    }
+
+    private static final class EtlThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "etl-" + this.sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package kr.hui.springai.rag.etl;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * ETL 파이프라인의 단계별 병렬도와 큐/배치 크기 설정입니다.
+ * 파이프라인이 동시에 메모리에 유지하는 청크 수는 코퍼스 크기가 아니라
+ * queueCapacity와 batchSize, 각 단계의 병렬도에 의해 결정됩니다.
+ *
+ * @param readerParallelism DocumentReader를 동시에 실행하는 스레드 수
+ * @param splitterParallelism 문서를 청크로 나누는 스레드 수
+ * @param enricherParallelism 청크에 메타데이터(키워드)를 채우는 스레드 수
+ * @param writerParallelism 임베딩 후 저장(DocumentWriter)하는 스레드 수
+ * @param queueCapacity 단계 사이 큐의 최대 크기 (가득 차면 앞 단계가 대기)
+ * @param batchSize enricher/writer 단계의 마이크로 배치 크기
+ * @param flushInterval writer 단계에서 배치가 다 차지 않았을 때 기다리는 최대 시간
+ * @param mode 전체(full) 또는 증분(incremental) 처리
+ * @param manifestPath 증분 처리에 사용하는 매니페스트 파일 경로
+ */
+@ConfigurationProperties(prefix = "app.etl.pipeline")
+public record EtlPipelineProperties(@DefaultValue("2") int readerParallelism,
+                                    @DefaultValue("2") int splitterParallelism,
+                                    @DefaultValue("4") int enricherParallelism,
+                                    @DefaultValue("2") int writerParallelism,
+                                    @DefaultValue("256") int queueCapacity,
+                                    @DefaultValue("32") int batchSize,
+                                    @DefaultValue("500ms") Duration flushInterval,
+                                    @DefaultValue("full") Mode mode,
+                                    @DefaultValue("./data/etl-manifest.json") Path manifestPath) {
+
+    public enum Mode {
+        /**
+         * 모든 문서를 다시 처리하고 다시 임베딩합니다.
+         */
+        FULL,
+        /**
+         * 매니페스트와 비교하여 새로 생기거나 바뀐 청크만 처리하고, 사라진 청크는 삭제합니다.
+         */
+        INCREMENTAL
+    }
+}
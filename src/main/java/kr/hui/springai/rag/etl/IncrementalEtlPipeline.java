@@ -0,0 +1,186 @@
+package kr.hui.springai.rag.etl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.util.ContentHash;
+import kr.hui.springai.rag.retrieval.Bm25Index;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentReader;
+import org.springframework.ai.document.DocumentTransformer;
+import org.springframework.ai.document.DocumentWriter;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 매니페스트({@link EtlManifest})를 이용해 변경된 부분만 다시 처리하는 증분 ETL입니다.
+ * <ul>
+ *     <li>원본 해시가 같은 리소스는 읽지도 않고 건너뜁니다.</li>
+ *     <li>변경된 리소스는 다시 읽고 분할하지만, 이전과 내용이 같은 청크는 키워드 추가/임베딩/저장을 건너뜁니다.</li>
+ *     <li>더 이상 만들어지지 않는 청크와 삭제된 리소스의 청크는 VectorStore(와 BM25 색인)에서 삭제합니다.</li>
+ * </ul>
+ * 청크 ID는 리소스 URI와 청크 내용 해시로 만든 UUID이므로 같은 청크는 항상 같은 ID로 저장됩니다.
+ * 매니페스트는 저장소를 영구 저장({@link Checkpoint})한 뒤에 저장하므로, 중간에 실패해도 매니페스트가 저장소보다 앞서지 않습니다.
+ */
+@Slf4j
+public class IncrementalEtlPipeline {
+
+    /**
+     * 청크가 만들어진 원본 리소스 URI를 담는 메타데이터 키
+     */
+    public static final String SOURCE_URI_METADATA_KEY = "source_uri";
+
+    private final EtlPipelineProperties properties;
+    private final Resource[] resources;
+    private final Function<Resource, DocumentReader> readerFactory;
+    private final DocumentTransformer textSplitter;
+    private final DocumentTransformer metadataEnricher;
+    private final DocumentWriter[] documentWriters;
+    private final ObjectMapper objectMapper;
+    private final boolean writersRestored;
+    private final Checkpoint checkpoint;
+
+    /**
+     * @param writersRestored 저장소가 이전 실행의 내용을 가지고 있는지 여부
+     *                        (false이면 매니페스트에 있는 청크도 건너뛰지 않고 다시 저장)
+     * @param checkpoint 처리가 끝난 저장소를 영구 저장하는 함수 (매니페스트보다 먼저 호출)
+     */
+    public IncrementalEtlPipeline(EtlPipelineProperties properties,
+                                  Resource[] resources,
+                                  Function<Resource, DocumentReader> readerFactory,
+                                  DocumentTransformer textSplitter,
+                                  DocumentTransformer metadataEnricher,
+                                  DocumentWriter[] documentWriters,
+                                  ObjectMapper objectMapper,
+                                  boolean writersRestored,
+                                  Checkpoint checkpoint) {
+        this.properties = properties;
+        this.resources = resources;
+        this.readerFactory = readerFactory;
+        this.textSplitter = textSplitter;
+        this.metadataEnricher = metadataEnricher;
+        this.documentWriters = documentWriters;
+        this.objectMapper = objectMapper;
+        this.writersRestored = writersRestored;
+        this.checkpoint = checkpoint;
+    }
+
+    public void run() throws IOException {
+        EtlManifest previous = EtlManifest.load(this.properties.manifestPath(), this.objectMapper);
+        // 저장소가 복원되지 않았으면 매니페스트의 청크가 저장소에 없으므로 모든 리소스와 청크를 다시 저장 (오래된 청크 삭제에만 사용)
+        boolean skipStored = this.writersRestored;
+        if (!skipStored && !previous.sources().isEmpty()) {
+            log.warn("Document writers were not restored from their snapshots, re-ingesting all resources");
+        }
+        Map<String, EtlManifest.SourceEntry> nextSources = new HashMap<>();
+        Map<String, String> changedSources = new HashMap<>(); // URI → 새 해시
+        List<DocumentReader> changedReaders = new ArrayList<>();
+
+        for (Resource resource : this.resources) {
+            String uri = resource.getURI().toString();
+            String hash;
+            try (InputStream inputStream = resource.getInputStream()) {
+                hash = ContentHash.sha256(inputStream);
+            }
+            EtlManifest.SourceEntry previousEntry = previous.sources().get(uri);
+            if (skipStored && previousEntry != null && previousEntry.hash().equals(hash)) {
+                nextSources.put(uri, previousEntry);
+                continue;
+            }
+            changedSources.put(uri, hash);
+            DocumentReader documentReader = this.readerFactory.apply(resource);
+            changedReaders.add(() -> documentReader.read().stream()
+                    .map(document -> document.mutate().metadata(SOURCE_URI_METADATA_KEY, uri).build())
+                    .toList());
+        }
+
+        List<String> staleChunkIds = new ArrayList<>();
+        previous.sources().forEach((uri, entry) -> {
+            if (!nextSources.containsKey(uri) && !changedSources.containsKey(uri)) {
+                staleChunkIds.addAll(entry.chunkIds()); // 삭제된 리소스
+            }
+        });
+
+        Map<String, Set<String>> producedChunkIds = new ConcurrentHashMap<>();
+        if (!changedReaders.isEmpty()) {
+            ChunkGate chunkGate = new ChunkGate(previous, producedChunkIds, skipStored);
+            DocumentTransformer gatedSplitter = documents -> chunkGate.apply(this.textSplitter.apply(documents));
+            new EtlPipeline(this.properties, changedReaders.toArray(DocumentReader[]::new), gatedSplitter,
+                    this.metadataEnricher, this.documentWriters).run();
+        }
+
+        changedSources.forEach((uri, hash) -> {
+            Set<String> chunkIds = producedChunkIds.getOrDefault(uri, Set.of());
+            EtlManifest.SourceEntry previousEntry = previous.sources().get(uri);
+            if (previousEntry != null) {
+                previousEntry.chunkIds().stream().filter(id -> !chunkIds.contains(id)).forEach(staleChunkIds::add);
+            }
+            nextSources.put(uri, new EtlManifest.SourceEntry(hash, new HashSet<>(chunkIds)));
+        });
+
+        if (!staleChunkIds.isEmpty()) {
+            for (DocumentWriter documentWriter : this.documentWriters) {
+                if (documentWriter instanceof VectorStore vectorStore) {
+                    vectorStore.delete(staleChunkIds);
+                } else if (documentWriter instanceof Bm25Index bm25Index) {
+                    bm25Index.delete(staleChunkIds);
+                }
+            }
+        }
+        this.checkpoint.persist();
+        new EtlManifest(nextSources).save(this.properties.manifestPath(), this.objectMapper);
+        log.info("Incremental ETL: {} resources, {} changed, {} stale chunks deleted",
+                this.resources.length, changedSources.size(), staleChunkIds.size());
+    }
+
+    /**
+     * 분할된 청크에 결정적 ID를 부여하고, 이전 실행에서 이미 저장된 청크는 다음 단계로 보내지 않습니다.
+     */
+    private static final class ChunkGate {
+
+        private final EtlManifest previous;
+        private final Map<String, Set<String>> producedChunkIds;
+        private final boolean skipStored;
+
+        ChunkGate(EtlManifest previous, Map<String, Set<String>> producedChunkIds, boolean skipStored) {
+            this.previous = previous;
+            this.producedChunkIds = producedChunkIds;
+            this.skipStored = skipStored;
+        }
+
+        List<Document> apply(List<Document> chunks) {
+            List<Document> newChunks = new ArrayList<>(chunks.size());
+            for (Document chunk : chunks) {
+                String uri = String.valueOf(chunk.getMetadata().get(SOURCE_URI_METADATA_KEY));
+                String chunkId = UUID.nameUUIDFromBytes((uri + "#" + ContentHash.sha256(chunk.getText()))
+                        .getBytes(StandardCharsets.UTF_8)).toString();
+                this.producedChunkIds.computeIfAbsent(uri, key -> ConcurrentHashMap.newKeySet()).add(chunkId);
+                EtlManifest.SourceEntry previousEntry = this.previous.sources().get(uri);
+                if (!this.skipStored || previousEntry == null || !previousEntry.chunkIds().contains(chunkId)) {
+                    newChunks.add(chunk.mutate().id(chunkId).build());
+                }
+            }
+            return newChunks;
+        }
+    }
+
+    /**
+     * 청크 저장/삭제가 끝난 저장소를 영구 저장합니다. (인메모리 VectorStore 스냅숏, BM25 색인 파일 등)
+     */
+    @FunctionalInterface
+    public interface Checkpoint {
+        void persist() throws IOException;
+    }
+}
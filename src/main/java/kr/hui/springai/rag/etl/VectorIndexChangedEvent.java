@@ -0,0 +1,12 @@
+package kr.hui.springai.rag.etl;
+
+import java.time.Instant;
+
+/**
+ * ETL 파이프라인이 VectorStore에 문서를 추가하거나 삭제한 뒤 발행하는 이벤트입니다.
+ * 검색 결과에 의존하는 캐시(예: RAG 응답 캐시)는 이 이벤트를 받으면 비워야 합니다.
+ *
+ * @param changedAt 파이프라인이 끝난 시각
+ */
+public record VectorIndexChangedEvent(Instant changedAt) {
+}
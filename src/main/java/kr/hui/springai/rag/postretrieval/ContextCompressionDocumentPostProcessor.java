@@ -0,0 +1,278 @@
+package kr.hui.springai.rag.postretrieval;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.token.TokenCounter;
+import kr.hui.springai.rag.retrieval.LexicalTokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 검색된 문서를 프롬프트에 넣기 전에 줄이는 DocumentPostProcessor입니다. 다음 순서로 처리합니다.
+ * <ol>
+ *     <li>같은 출처(metadata 'source')에서 끝과 시작이 겹치는 청크를 하나로 이어 붙여, 분할 시 생긴 겹침(chunkOverlap)을 한 번만 넣습니다.</li>
+ *     <li>단어 3-gram이 대부분 겹치는 문서는 점수가 낮은 쪽을 제거합니다.</li>
+ *     <li>남은 본문이 토큰 예산을 넘으면 질의 토큰이 많이 나오는 문장부터 예산 안에서 고르고, 문서별로 원래 순서대로 남깁니다.</li>
+ * </ol>
+ * 압축 전후의 본문 토큰 수는 'rag.context.tokens' 지표(stage=input/output)로 노출됩니다.
+ */
+@Slf4j
+public class ContextCompressionDocumentPostProcessor implements DocumentPostProcessor {
+
+    private static final Pattern SENTENCE_BOUNDARY = Pattern.compile("(?<=[.!?。！？])\\s+|\\s*\\n+\\s*");
+    private static final int SHINGLE_SIZE = 3;
+
+    private final TokenCounter tokenCounter;
+    private final ContextCompressionProperties properties;
+    private final DistributionSummary inputTokens;
+    private final DistributionSummary outputTokens;
+
+    /**
+     * @param tokenCounter 토큰 예산 계산에 사용할 로컬 토크나이저
+     * @param properties 토큰 예산, 겹침/중복 기준 설정
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public ContextCompressionDocumentPostProcessor(TokenCounter tokenCounter, ContextCompressionProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        this.tokenCounter = tokenCounter;
+        this.properties = properties;
+        this.inputTokens = DistributionSummary.builder("rag.context.tokens")
+                .description("Tokens of retrieved document text before and after context compression")
+                .tag("stage", "input")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.outputTokens = DistributionSummary.builder("rag.context.tokens")
+                .description("Tokens of retrieved document text before and after context compression")
+                .tag("stage", "output")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Document> process(Query query, List<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return documents;
+        }
+        int before = countTokens(documents);
+        List<Document> compressed = trimToBudget(query, removeDuplicates(mergeOverlaps(documents)));
+        int after = countTokens(compressed);
+        this.inputTokens.record(before);
+        this.outputTokens.record(after);
+        log.debug("Context compressed: {} documents/{} tokens -> {} documents/{} tokens", documents.size(), before,
+                compressed.size(), after);
+        return compressed;
+    }
+
+    /**
+     * 같은 출처에서 한 청크의 끝과 다른 청크의 시작이 겹치면 하나로 이어 붙입니다. 이어 붙인 문서는 앞 청크의 ID와 두 점수 중 큰 값을 갖습니다.
+     */
+    private List<Document> mergeOverlaps(List<Document> documents) {
+        List<Document> merged = new ArrayList<>(documents);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            search:
+            for (int i = 0; i < merged.size(); i++) {
+                for (int j = 0; j < merged.size(); j++) {
+                    Document first = merged.get(i);
+                    Document second = merged.get(j);
+                    if (i == j || !sameSource(first, second)) {
+                        continue;
+                    }
+                    int overlap = overlapLength(first.getText(), second.getText());
+                    if (overlap > 0) {
+                        merged.set(i, first.mutate()
+                                .text(first.getText() + second.getText().substring(overlap))
+                                .score(maxScore(first, second))
+                                .build());
+                        merged.remove(j);
+                        changed = true;
+                        break search;
+                    }
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * first의 끝과 second의 시작이 겹치는 글자 수입니다. 최소 겹침보다 짧으면 0입니다.
+     */
+    private int overlapLength(String first, String second) {
+        int minOverlap = Math.max(1, this.properties.minOverlapChars());
+        if (first == null || second == null || first.length() < minOverlap || second.length() < minOverlap) {
+            return 0;
+        }
+        String probe = second.substring(0, minOverlap);
+        int index = first.indexOf(probe, Math.max(0, first.length() - second.length()));
+        while (index >= 0) {
+            int tail = first.length() - index;
+            if (second.regionMatches(0, first, index, tail)) {
+                return tail;
+            }
+            index = first.indexOf(probe, index + 1);
+        }
+        return 0;
+    }
+
+    /**
+     * 문서는 점수 순서로 들어오므로, 앞에 남긴 문서와 중복되는 뒤 문서를 제거합니다.
+     * 짧은 쪽의 3-gram 중 겹치는 비율로 비교하므로 다른 문서에 거의 포함된 문서도 중복으로 봅니다.
+     */
+    private List<Document> removeDuplicates(List<Document> documents) {
+        List<Document> unique = new ArrayList<>();
+        List<Set<String>> uniqueShingles = new ArrayList<>();
+        for (Document document : documents) {
+            Set<String> shingles = shingles(document.getText());
+            boolean duplicate = false;
+            for (Set<String> kept : uniqueShingles) {
+                if (containment(shingles, kept) >= this.properties.duplicateThreshold()) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                unique.add(document);
+                uniqueShingles.add(shingles);
+            }
+        }
+        return unique;
+    }
+
+    private List<Document> trimToBudget(Query query, List<Document> documents) {
+        int budget = this.properties.maxContextTokens();
+        if (countTokens(documents) <= budget) {
+            return documents;
+        }
+        Set<String> queryTokens = new HashSet<>(LexicalTokenizer.tokenize(query.text()));
+        List<Sentence> sentences = new ArrayList<>();
+        List<String[]> documentSentences = new ArrayList<>();
+        for (int doc = 0; doc < documents.size(); doc++) {
+            String text = documents.get(doc).getText();
+            String[] split = text == null ? new String[0] : SENTENCE_BOUNDARY.split(text.strip());
+            documentSentences.add(split);
+            for (int index = 0; index < split.length; index++) {
+                if (!split[index].isBlank()) {
+                    sentences.add(new Sentence(doc, index, relevance(split[index], queryTokens),
+                            this.tokenCounter.count(split[index])));
+                }
+            }
+        }
+
+        // 관련도가 같으면 점수가 높은 문서, 앞 문장 순서
+        sentences.sort(Comparator.comparingDouble(Sentence::relevance).reversed()
+                .thenComparingInt(Sentence::doc)
+                .thenComparingInt(Sentence::index));
+        boolean[][] selected = new boolean[documents.size()][];
+        for (int doc = 0; doc < documents.size(); doc++) {
+            selected[doc] = new boolean[documentSentences.get(doc).length];
+        }
+        int remaining = budget;
+        for (Sentence sentence : sentences) {
+            if (sentence.tokens() <= remaining) {
+                selected[sentence.doc()][sentence.index()] = true;
+                remaining -= sentence.tokens();
+            }
+        }
+
+        List<Document> trimmed = new ArrayList<>();
+        for (int doc = 0; doc < documents.size(); doc++) {
+            StringBuilder text = new StringBuilder();
+            String[] split = documentSentences.get(doc);
+            for (int index = 0; index < split.length; index++) {
+                if (selected[doc][index]) {
+                    if (!text.isEmpty()) {
+                        text.append(' ');
+                    }
+                    text.append(split[index]);
+                }
+            }
+            if (!text.isEmpty()) {
+                trimmed.add(documents.get(doc).mutate().text(text.toString()).build());
+            }
+        }
+        return trimmed;
+    }
+
+    /**
+     * 질의의 서로 다른 토큰 중 문장에 나오는 토큰의 비율입니다.
+     */
+    private static double relevance(String sentence, Set<String> queryTokens) {
+        if (queryTokens.isEmpty()) {
+            return 0;
+        }
+        Set<String> sentenceTokens = new HashSet<>(LexicalTokenizer.tokenize(sentence));
+        int matched = 0;
+        for (String token : queryTokens) {
+            if (sentenceTokens.contains(token)) {
+                matched++;
+            }
+        }
+        return (double) matched / queryTokens.size();
+    }
+
+    private static Set<String> shingles(String text) {
+        List<String> tokens = LexicalTokenizer.tokenize(text);
+        Set<String> shingles = new HashSet<>();
+        if (tokens.size() < SHINGLE_SIZE) {
+            shingles.addAll(tokens);
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE_SIZE <= tokens.size(); i++) {
+            shingles.add(String.join(" ", tokens.subList(i, i + SHINGLE_SIZE)));
+        }
+        return shingles;
+    }
+
+    private static double containment(Set<String> a, Set<String> b) {
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        if (smaller.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String shingle : smaller) {
+            if (larger.contains(shingle)) {
+                shared++;
+            }
+        }
+        return (double) shared / smaller.size();
+    }
+
+    private int countTokens(List<Document> documents) {
+        int tokens = 0;
+        for (Document document : documents) {
+            tokens += this.tokenCounter.count(document.getText());
+        }
+        return tokens;
+    }
+
+    private static boolean sameSource(Document first, Document second) {
+        Object source = first.getMetadata().get("source");
+        return source != null && Objects.equals(source, second.getMetadata().get("source"));
+    }
+
+    private static Double maxScore(Document first, Document second) {
+        if (first.getScore() == null || second.getScore() == null) {
+            return first.getScore() != null ? first.getScore() : second.getScore();
+        }
+        return Math.max(first.getScore(), second.getScore());
+    }
+
+    /**
+     * @param doc 문서 순서 (점수 순)
+     * @param index 문서 안의 문장 순서
+     */
+    private record Sentence(int doc, int index, double relevance, int tokens) {
+    }
+}
@@ -0,0 +1,19 @@
+package kr.hui.springai.rag.postretrieval;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 검색된 문서를 프롬프트에 넣기 전에 줄이는 문맥 압축 설정입니다.
+ *
+ * @param enabled 문맥 압축 사용 여부
+ * @param maxContextTokens 프롬프트에 넣을 문서 본문의 최대 토큰 수 (넘으면 질의와 관련 있는 문장만 남김)
+ * @param minOverlapChars 같은 출처의 두 청크를 이어 붙일 최소 겹침 글자 수 (분할 시 chunkOverlap보다 작게)
+ * @param duplicateThreshold 짧은 문서의 단어 3-gram 중 이 비율 이상이 다른 문서에도 있으면 중복으로 보고 제거
+ */
+@ConfigurationProperties(prefix = "app.rag.compression")
+public record ContextCompressionProperties(@DefaultValue("false") boolean enabled,
+                                           @DefaultValue("1500") int maxContextTokens,
+                                           @DefaultValue("50") int minOverlapChars,
+                                           @DefaultValue("0.8") double duplicateThreshold) {
+}
@@ -0,0 +1,68 @@
+package kr.hui.springai.rag.preretrieval;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.cache.SingleFlightLruCache;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LLM을 호출하는 QueryExpander(예: MultiQueryExpander)의 결과 텍스트 목록을 캐시하는 데코레이터입니다.
+ * 키는 정규화된 질의 텍스트와 확장기 설정이며, 확장된 질의마다 요청의 대화 기록과 컨텍스트를 그대로 유지합니다.
+ * 같은 질의가 동시에 들어오면 LLM은 한 번만 호출됩니다.
+ * 결과 질의 수가 기대한 수와 다르면(예: LLM 호출이 실패하여 MultiQueryExpander가 원 질의만 반환) 캐시하지 않으므로,
+ * 일시적인 실패의 대체 결과가 TTL 동안 재사용되지 않습니다.
+ * 적중/미스 횟수는 'rag.query.cache.requests' 지표(stage, result)로 노출됩니다.
+ */
+public class CachingQueryExpander implements QueryExpander {
+
+    private final QueryExpander delegate;
+    private final String configuration;
+    private final int expectedQueryCount;
+    private final SingleFlightLruCache<QueryCacheKey, List<String>> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param delegate 실제 확장을 수행하는 QueryExpander
+     * @param stage 지표에 표시할 단계 이름 (e.g., "expansion")
+     * @param configuration 결과에 영향을 주는 확장기 설정 (e.g., 질의 수, 원본 포함 여부) - 캐시 키에 포함
+     * @param expectedQueryCount 확장에 성공했을 때의 질의 수 (원본 포함 시 원본 포함) - 다르면 캐시하지 않음
+     * @param properties 캐시 크기와 TTL 설정
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public CachingQueryExpander(QueryExpander delegate, String stage, String configuration, int expectedQueryCount,
+                                QueryCacheProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.configuration = stage + ":" + configuration;
+        this.expectedQueryCount = expectedQueryCount;
+        this.cache = new SingleFlightLruCache<>(properties.maxEntries(), properties.ttl());
+        this.hits = Counter.builder("rag.query.cache.requests").tag("stage", stage).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rag.query.cache.requests").tag("stage", stage).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("rag.query.cache.size", this.cache, SingleFlightLruCache::size).tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Query> expand(Query query) {
+        List<List<Query>> loaded = new ArrayList<>(1);
+        List<String> texts = this.cache.get(QueryCacheKey.of(this.configuration, query.text()), key -> {
+            List<Query> queries = this.delegate.expand(query);
+            loaded.add(queries);
+            // 대체 결과는 null을 반환하여 캐시하지 않음
+            return queries.size() == this.expectedQueryCount ? queries.stream().map(Query::text).toList() : null;
+        });
+        (loaded.isEmpty() ? this.hits : this.misses).increment();
+        if (texts == null) {
+            // 이 요청이 계산한 대체 결과, 또는 같은 질의를 먼저 계산한 요청이 대체 결과를 얻었으면 다시 확장
+            return loaded.isEmpty() ? this.delegate.expand(query) : loaded.get(0);
+        }
+        return texts.stream().map(text -> query.mutate().text(text).build()).toList();
+    }
+}
@@ -0,0 +1,62 @@
+package kr.hui.springai.rag.preretrieval;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.cache.SingleFlightLruCache;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+
+/**
+ * LLM을 호출하는 QueryTransformer(예: TranslationQueryTransformer)의 결과 텍스트를 캐시하는 데코레이터입니다.
+ * 키는 정규화된 질의 텍스트와 변환기 설정이며, 대화 기록과 컨텍스트는 요청의 값을 그대로 유지합니다.
+ * 같은 질의가 동시에 들어오면 LLM은 한 번만 호출됩니다.
+ * 결과 텍스트가 원 질의와 같으면(예: LLM 호출이 실패하여 TranslationQueryTransformer가 원 질의를 반환) 캐시하지 않으므로,
+ * 일시적인 실패의 대체 결과가 TTL 동안 재사용되지 않습니다. 이미 대상 언어인 질의는 LanguageGatedQueryTransformer가
+ * 이 캐시보다 먼저 걸러내므로, 여기까지 온 질의는 번역되면 텍스트가 바뀝니다. (게이트를 끄면 이미 대상 언어인 질의는 캐시되지 않음)
+ * 적중/미스 횟수는 'rag.query.cache.requests' 지표(stage, result)로 노출됩니다.
+ */
+public class CachingQueryTransformer implements QueryTransformer {
+
+    private final QueryTransformer delegate;
+    private final String configuration;
+    private final SingleFlightLruCache<QueryCacheKey, String> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param delegate 실제 변환을 수행하는 QueryTransformer
+     * @param stage 지표에 표시할 단계 이름 (e.g., "translation")
+     * @param configuration 결과에 영향을 주는 변환기 설정 (e.g., 대상 언어) - 캐시 키에 포함
+     * @param properties 캐시 크기와 TTL 설정
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public CachingQueryTransformer(QueryTransformer delegate, String stage, String configuration,
+                                   QueryCacheProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.configuration = stage + ":" + configuration;
+        this.cache = new SingleFlightLruCache<>(properties.maxEntries(), properties.ttl());
+        this.hits = Counter.builder("rag.query.cache.requests").tag("stage", stage).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("rag.query.cache.requests").tag("stage", stage).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("rag.query.cache.size", this.cache, SingleFlightLruCache::size).tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Query transform(Query query) {
+        Query[] loaded = {null};
+        String text = this.cache.get(QueryCacheKey.of(this.configuration, query.text()), key -> {
+            loaded[0] = this.delegate.transform(query);
+            // 대체 결과(원 질의 그대로)는 null을 반환하여 캐시하지 않음
+            return loaded[0].text().equals(query.text()) ? null : loaded[0].text();
+        });
+        (loaded[0] == null ? this.hits : this.misses).increment();
+        if (text == null) {
+            // 이 요청이 계산한 대체 결과, 또는 같은 질의를 먼저 계산한 요청이 대체 결과를 얻었으면 다시 번역
+            return loaded[0] != null ? loaded[0] : this.delegate.transform(query);
+        }
+        return query.mutate().text(text).build();
+    }
+}
@@ -0,0 +1,77 @@
+package kr.hui.springai.rag.preretrieval;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+
+/**
+ * 질의가 이미 대상 언어이면 번역(LLM 호출)을 건너뛰는 QueryTransformer 데코레이터입니다.
+ * 언어는 문자 체계(Unicode script)로 판별합니다. 글자가 포함된 단어 중 대상 문자(예: 한글)가 들어간 단어의 비율이
+ * 기준 이상이면 대상 언어로 봅니다. 단어 단위로 세므로 "Spring AI에서 RAG 설정"처럼 영문 고유명사가 섞인 질의도
+ * 한국어로 판별되고, 글자가 없는 질의(숫자, 기호)는 번역할 것이 없으므로 건너뜁니다.
+ * 건너뛴/번역한 횟수는 'rag.query.translation' 지표(result=skipped/translated)로 노출됩니다.
+ */
+public class LanguageGatedQueryTransformer implements QueryTransformer {
+
+    private final QueryTransformer delegate;
+    private final Character.UnicodeScript targetScript;
+    private final double minRatio;
+    private final Counter skipped;
+    private final Counter translated;
+
+    /**
+     * @param delegate 번역을 수행하는 QueryTransformer (e.g., TranslationQueryTransformer)
+     * @param targetScript 번역 대상 언어의 문자 체계 (e.g., HANGUL)
+     * @param minRatio 대상 언어로 볼 최소 단어 비율 (0~1)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public LanguageGatedQueryTransformer(QueryTransformer delegate, Character.UnicodeScript targetScript,
+                                         double minRatio, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.targetScript = targetScript;
+        this.minRatio = minRatio;
+        this.skipped = Counter.builder("rag.query.translation").tag("result", "skipped").register(meterRegistry);
+        this.translated = Counter.builder("rag.query.translation").tag("result", "translated").register(meterRegistry);
+    }
+
+    @Override
+    public Query transform(Query query) {
+        if (isTargetLanguage(query.text())) {
+            this.skipped.increment();
+            return query;
+        }
+        this.translated.increment();
+        return this.delegate.transform(query);
+    }
+
+    boolean isTargetLanguage(String text) {
+        int words = 0;
+        int targetWords = 0;
+        boolean wordHasLetter = false;
+        boolean wordHasTarget = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (Character.isLetter(codePoint)) {
+                    wordHasLetter = true;
+                    wordHasTarget |= Character.UnicodeScript.of(codePoint) == this.targetScript;
+                }
+                continue;
+            }
+            // 단어 경계 (공백, 구두점)
+            if (wordHasLetter) {
+                words++;
+                targetWords += wordHasTarget ? 1 : 0;
+            }
+            wordHasLetter = false;
+            wordHasTarget = false;
+        }
+        if (wordHasLetter) {
+            words++;
+            targetWords += wordHasTarget ? 1 : 0;
+        }
+        return words == 0 || targetWords >= this.minRatio * words;
+    }
+}
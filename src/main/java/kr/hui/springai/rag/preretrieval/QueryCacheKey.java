@@ -0,0 +1,20 @@
+package kr.hui.springai.rag.preretrieval;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * 질의 변환 캐시의 키입니다. 공백과 유니코드 표현만 다른 질의는 같은 키가 됩니다.
+ *
+ * @param configuration 변환기 종류와 설정 (예: "translation:korean") - 설정이 바뀌면 다른 키가 됨
+ * @param text 정규화된 질의 텍스트
+ */
+record QueryCacheKey(String configuration, String text) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static QueryCacheKey of(String configuration, String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return new QueryCacheKey(configuration, WHITESPACE.matcher(normalized).replaceAll(" ").strip());
+    }
+}
@@ -0,0 +1,19 @@
+package kr.hui.springai.rag.preretrieval;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * LLM을 사용하는 검색 전 단계(질의 번역, 다중 질의 확장)의 결과 캐시 설정입니다.
+ *
+ * @param enabled 캐시 사용 여부
+ * @param maxEntries 단계별 최대 항목 수
+ * @param ttl 항목 유지 시간
+ */
+@ConfigurationProperties(prefix = "app.rag.query-cache")
+public record QueryCacheProperties(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("10000") int maxEntries,
+                                   @DefaultValue("6h") Duration ttl) {
+}
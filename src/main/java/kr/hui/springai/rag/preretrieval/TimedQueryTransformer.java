@@ -0,0 +1,35 @@
+package kr.hui.springai.rag.preretrieval;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+
+/**
+ * 질의 변환 시간을 'rag.stage.duration' 지표(stage=단계 이름)로 기록하는 QueryTransformer 데코레이터입니다.
+ * 캐시 적중이나 번역 생략도 포함한, 요청이 실제로 이 단계에서 보낸 시간입니다.
+ */
+public class TimedQueryTransformer implements QueryTransformer {
+
+    private final QueryTransformer delegate;
+    private final Timer timer;
+
+    /**
+     * @param delegate 실제 변환을 수행하는 QueryTransformer
+     * @param stage 지표의 stage 태그 (e.g., translation)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public TimedQueryTransformer(QueryTransformer delegate, String stage, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timer = Timer.builder("rag.stage.duration")
+                .description("RAG pipeline stage latency")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Query transform(Query query) {
+        return this.timer.record(() -> this.delegate.transform(query));
+    }
+}
@@ -0,0 +1,63 @@
+package kr.hui.springai.rag.preretrieval;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 질의 번역 전 언어 판별 설정입니다.
+ *
+ * @param enabled true이면 이미 대상 언어인 질의는 번역하지 않음
+ * @param targetScript 번역 대상 언어의 문자 체계 (Character.UnicodeScript 이름, e.g., HANGUL)
+ *                     - 비워 두면 번역 대상 언어에서 정하고, 지정하면 대상 언어의 문자 체계와 같아야 함
+ * @param minRatio 대상 문자가 들어간 단어의 비율이 이 값 이상이면 대상 언어로 판별
+ */
+@ConfigurationProperties(prefix = "app.rag.translation-gate")
+public record TranslationGateProperties(@DefaultValue("true") boolean enabled,
+                                        Character.UnicodeScript targetScript,
+                                        @DefaultValue("0.3") double minRatio) {
+
+    // TranslationQueryTransformer의 대상 언어 이름 → 그 언어를 쓰는 문자 체계 (여러 문자 체계를 섞어 쓰는 언어는 제외)
+    private static final Map<String, Character.UnicodeScript> LANGUAGE_SCRIPTS = Map.ofEntries(
+            Map.entry("korean", Character.UnicodeScript.HANGUL),
+            Map.entry("chinese", Character.UnicodeScript.HAN),
+            Map.entry("russian", Character.UnicodeScript.CYRILLIC),
+            Map.entry("ukrainian", Character.UnicodeScript.CYRILLIC),
+            Map.entry("greek", Character.UnicodeScript.GREEK),
+            Map.entry("arabic", Character.UnicodeScript.ARABIC),
+            Map.entry("hebrew", Character.UnicodeScript.HEBREW),
+            Map.entry("thai", Character.UnicodeScript.THAI),
+            Map.entry("hindi", Character.UnicodeScript.DEVANAGARI),
+            Map.entry("english", Character.UnicodeScript.LATIN),
+            Map.entry("french", Character.UnicodeScript.LATIN),
+            Map.entry("german", Character.UnicodeScript.LATIN),
+            Map.entry("spanish", Character.UnicodeScript.LATIN),
+            Map.entry("italian", Character.UnicodeScript.LATIN),
+            Map.entry("portuguese", Character.UnicodeScript.LATIN),
+            Map.entry("vietnamese", Character.UnicodeScript.LATIN));
+
+    /**
+     * 번역 대상 언어의 문자 체계입니다. targetScript를 지정하지 않았으면 대상 언어에서 정합니다.
+     *
+     * @param targetLanguage TranslationQueryTransformer의 대상 언어 (e.g., "korean")
+     * @throws IllegalStateException 지정한 targetScript가 대상 언어의 문자 체계와 다르거나, 지정하지 않았는데 대상 언어의
+     *                               문자 체계를 알 수 없는 경우 (다른 언어의 질의를 번역하지 않고 통과시키지 않도록 시작 시 실패)
+     */
+    public Character.UnicodeScript targetScriptFor(String targetLanguage) {
+        Character.UnicodeScript languageScript = LANGUAGE_SCRIPTS.get(targetLanguage.toLowerCase(Locale.ROOT));
+        if (this.targetScript == null) {
+            if (languageScript == null) {
+                throw new IllegalStateException("Cannot derive the script of translation target language '"
+                        + targetLanguage + "', set app.rag.translation-gate.target-script");
+            }
+            return languageScript;
+        }
+        if (languageScript != null && languageScript != this.targetScript) {
+            throw new IllegalStateException("app.rag.translation-gate.target-script " + this.targetScript
+                    + " does not match translation target language '" + targetLanguage + "' (" + languageScript + ")");
+        }
+        return this.targetScript;
+    }
+}
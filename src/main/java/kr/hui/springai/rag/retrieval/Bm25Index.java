@@ -0,0 +1,294 @@
+package kr.hui.springai.rag.retrieval;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.util.AtomicFiles;
+import kr.hui.springai.rag.vectorstore.FilterExpressionEvaluator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentWriter;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 문서 청크를 BM25로 검색하는 인메모리 역색인입니다.
+ * DocumentWriter이므로 Bean으로 등록하면 ETL 파이프라인이 VectorStore와 함께 청크를 씁니다.
+ * 벡터 검색이 약한 클래스 이름, 설정 키, 오류 코드 같은 정확한 식별자를 찾는 데 사용하며, 토큰화는 {@link LexicalTokenizer}를 따릅니다.
+ * <ul>
+ *     <li>같은 ID의 문서를 다시 쓰면 교체합니다. 삭제한 문서의 자리는 비워 두고 재사용하지 않습니다.</li>
+ *     <li>검색은 읽기 락, 추가/삭제는 쓰기 락으로 보호합니다.</li>
+ *     <li>색인 파일에는 문서(ID, 본문, 메타데이터)만 저장하고, 읽을 때 역색인을 다시 만듭니다.</li>
+ * </ul>
+ */
+@Slf4j
+public class Bm25Index implements DocumentWriter {
+
+    private final double k1;
+    private final double b;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>(); // 문서 번호별 문서 (삭제되면 null)
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * @param k1 단어 빈도 포화 계수 (일반적으로 1.2)
+     * @param b 문서 길이 정규화 계수 (0이면 길이를 무시, 일반적으로 0.75)
+     */
+    public Bm25Index(double k1, double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    @Override
+    public void accept(List<Document> documents) {
+        this.lock.writeLock().lock();
+        try {
+            for (Document document : documents) {
+                remove(document.getId());
+                add(document);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(List<String> ids) {
+        this.lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 질의와 BM25 점수가 높은 순서로 문서를 반환합니다. 반환하는 문서의 score는 BM25 점수입니다.
+     *
+     * @param query 질의 텍스트
+     * @param topK 최대 문서 수
+     * @param filter 메타데이터 필터 (null이면 모든 문서)
+     */
+    public List<Document> search(String query, int topK, Filter.Expression filter) {
+        Set<String> terms = new LinkedHashSet<>(LexicalTokenizer.tokenize(query));
+        this.lock.readLock().lock();
+        try {
+            int liveDocs = this.docsById.size();
+            if (terms.isEmpty() || liveDocs == 0 || topK <= 0) {
+                return List.of();
+            }
+            double averageLength = (double) this.totalLength / liveDocs;
+            List<Postings> matched = new ArrayList<>(terms.size());
+            List<Double> idfs = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings termPostings = this.postings.get(term);
+                if (termPostings != null) {
+                    matched.add(termPostings);
+                    idfs.add(Math.log(1 + (liveDocs - termPostings.size + 0.5) / (termPostings.size + 0.5)));
+                }
+            }
+
+            // 단어별 목록은 문서 번호 순서이므로 병합하며 문서별 점수를 합산 (비용은 전체 문서 수가 아닌 일치한 항목 수에 비례)
+            int[] cursors = new int[matched.size()];
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Comparator.comparingDouble(ScoredDoc::score));
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (int t = 0; t < cursors.length; t++) {
+                    Postings termPostings = matched.get(t);
+                    if (cursors[t] < termPostings.size) {
+                        doc = Math.min(doc, termPostings.docs[cursors[t]]);
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                double norm = this.k1 * (1 - this.b + this.b * this.entries.get(doc).length() / averageLength);
+                double score = 0;
+                for (int t = 0; t < cursors.length; t++) {
+                    Postings termPostings = matched.get(t);
+                    if (cursors[t] < termPostings.size && termPostings.docs[cursors[t]] == doc) {
+                        int frequency = termPostings.frequencies[cursors[t]++];
+                        score += idfs.get(t) * frequency * (this.k1 + 1) / (frequency + norm);
+                    }
+                }
+                if (score <= 0 || (top.size() == topK && score <= top.peek().score())) {
+                    continue;
+                }
+                if (filter != null && !FilterExpressionEvaluator.matches(filter, this.entries.get(doc).document().getMetadata())) {
+                    continue;
+                }
+                top.add(new ScoredDoc(doc, score));
+                if (top.size() > topK) {
+                    top.poll();
+                }
+            }
+            List<Document> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ScoredDoc scored = top.poll();
+                results.add(this.entries.get(scored.doc()).document().mutate().score(scored.score()).build());
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.docsById.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 색인한 문서를 파일에 원자적으로 저장합니다.
+     *
+     * @param path 색인 파일 경로 (null이면 아무것도 하지 않음)
+     * @param objectMapper 문서 직렬화에 사용할 ObjectMapper
+     * @throws IOException 쓰기 중 오류 발생 시
+     */
+    public void save(Path path, ObjectMapper objectMapper) throws IOException {
+        if (path == null) {
+            return;
+        }
+        List<StoredDocument> documents = new ArrayList<>();
+        this.lock.readLock().lock();
+        try {
+            for (Entry entry : this.entries) {
+                if (entry != null) {
+                    Document document = entry.document();
+                    documents.add(new StoredDocument(document.getId(), document.getText(), document.getMetadata()));
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        AtomicFiles.write(path, outputStream -> objectMapper.writeValue(outputStream, documents));
+        log.info("Saved BM25 index: {} documents to {}", documents.size(), path);
+    }
+
+    /**
+     * 색인 파일이 있으면 문서를 읽어 역색인을 다시 만듭니다. 파일이 손상되었으면 경고를 남기고 빈 색인으로 시작하며,
+     * 파일은 '.corrupt'로 옮겨 두어 증분 ETL이 복원되지 않은 색인으로 판단하도록 합니다.
+     *
+     * @param path 색인 파일 경로 (null이면 아무것도 하지 않음)
+     * @param objectMapper 문서 역직렬화에 사용할 ObjectMapper
+     */
+    public void load(Path path, ObjectMapper objectMapper) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            List<StoredDocument> documents = objectMapper.readValue(path.toFile(), new TypeReference<List<StoredDocument>>() {
+            });
+            accept(documents.stream()
+                    .map(document -> new Document(document.id(), document.text(), document.metadata()))
+                    .toList());
+            log.info("Loaded BM25 index: {} documents from {}", documents.size(), path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load BM25 index {}, starting empty", path, e);
+            try {
+                log.warn("Moved unreadable BM25 index to {}", AtomicFiles.moveAside(path));
+            } catch (IOException moveException) {
+                log.warn("Failed to move unreadable BM25 index {}", path, moveException);
+            }
+        }
+    }
+
+    /**
+     * 호출자가 쓰기 락을 잡고 있어야 합니다.
+     */
+    private void add(Document document) {
+        List<String> tokens = LexicalTokenizer.tokenize(document.getText());
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        int doc = this.entries.size();
+        this.entries.add(new Entry(document, tokens.size(), frequencies.keySet().toArray(String[]::new)));
+        this.docsById.put(document.getId(), doc);
+        this.totalLength += tokens.size();
+        frequencies.forEach((term, frequency) -> this.postings.computeIfAbsent(term, key -> new Postings())
+                .add(doc, frequency));
+    }
+
+    /**
+     * 호출자가 쓰기 락을 잡고 있어야 합니다.
+     */
+    private void remove(String id) {
+        Integer doc = this.docsById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        Entry entry = this.entries.set(doc, null);
+        this.totalLength -= entry.length();
+        for (String term : entry.terms()) {
+            Postings termPostings = this.postings.get(term);
+            termPostings.remove(doc);
+            if (termPostings.size == 0) {
+                this.postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * @param terms 문서에 나오는 서로 다른 단어 (삭제할 때 역색인에서 지울 목록)
+     */
+    private record Entry(Document document, int length, String[] terms) {
+    }
+
+    private record ScoredDoc(int doc, double score) {
+    }
+
+    /**
+     * 색인 파일에 저장하는 문서입니다.
+     */
+    record StoredDocument(String id, String text, Map<String, Object> metadata) {
+    }
+
+    /**
+     * 단어 하나의 문서 번호와 빈도 목록입니다. 문서 번호는 추가된 순서이므로 항상 정렬되어 있습니다.
+     */
+    private static final class Postings {
+
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int doc, int frequency) {
+            if (this.size == this.docs.length) {
+                this.docs = Arrays.copyOf(this.docs, this.size * 2);
+                this.frequencies = Arrays.copyOf(this.frequencies, this.size * 2);
+            }
+            this.docs[this.size] = doc;
+            this.frequencies[this.size] = frequency;
+            this.size++;
+        }
+
+        void remove(int doc) {
+            int index = Arrays.binarySearch(this.docs, 0, this.size, doc);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(this.docs, index + 1, this.docs, index, this.size - index - 1);
+            System.arraycopy(this.frequencies, index + 1, this.frequencies, index, this.size - index - 1);
+            this.size--;
+        }
+    }
+}
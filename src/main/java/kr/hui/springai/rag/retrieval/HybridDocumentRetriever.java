@@ -0,0 +1,62 @@
+package kr.hui.springai.rag.retrieval;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.ai.rag.retrieval.search.VectorStoreDocumentRetriever;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BM25 검색과 벡터 검색을 차례로 실행하고 결과를 Reciprocal Rank Fusion으로 병합하는 DocumentRetriever입니다.
+ * 두 검색 모두 호출 스레드에서 실행합니다. BM25 검색은 메모리 안에서 끝나므로 전체 시간은 벡터 검색 시간과 거의 같고,
+ * 스레드를 한 번 더 건너지 않으므로 관측(Observation) 컨텍스트가 그대로 유지됩니다.
+ * 두 결과에 모두 나온 문서가 앞에 오고, 한쪽에만 나온 문서(예: 식별자가 정확히 일치한 문서)도 결과에 포함됩니다.
+ * 질의 컨텍스트의 필터 표현식({@link VectorStoreDocumentRetriever#FILTER_EXPRESSION})은 두 검색에 모두 적용합니다.
+ */
+public class HybridDocumentRetriever implements DocumentRetriever {
+
+    private final DocumentRetriever vectorRetriever;
+    private final Bm25Index bm25Index;
+    private final int topK;
+    private final ReciprocalRankFusionDocumentJoiner joiner;
+
+    /**
+     * @param vectorRetriever 벡터 검색을 수행하는 DocumentRetriever
+     * @param bm25Index BM25 역색인
+     * @param topK BM25 검색 문서 수이자 병합 후 반환할 최대 문서 수
+     * @param rrfK Reciprocal Rank Fusion의 순위 보정 상수
+     */
+    public HybridDocumentRetriever(DocumentRetriever vectorRetriever, Bm25Index bm25Index, int topK, int rrfK) {
+        this.vectorRetriever = vectorRetriever;
+        this.bm25Index = bm25Index;
+        this.topK = topK;
+        this.joiner = new ReciprocalRankFusionDocumentJoiner(rrfK);
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        List<Document> lexicalResults = this.bm25Index.search(query.text(), this.topK, filterExpression(query));
+        List<Document> vectorResults = this.vectorRetriever.retrieve(query);
+        List<Document> fused = this.joiner.join(Map.of(query, List.of(vectorResults, lexicalResults)));
+        return fused.size() > this.topK ? fused.subList(0, this.topK) : fused;
+    }
+
+    /**
+     * VectorStoreDocumentRetriever와 같이 Filter.Expression 또는 텍스트 필터를 받습니다.
+     */
+    private static Filter.Expression filterExpression(Query query) {
+        Object filter = query.context().get(VectorStoreDocumentRetriever.FILTER_EXPRESSION);
+        if (filter instanceof Filter.Expression expression) {
+            return expression;
+        }
+        if (filter != null && StringUtils.hasText(filter.toString())) {
+            return new FilterExpressionTextParser().parse(filter.toString());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package kr.hui.springai.rag.retrieval;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * 벡터 검색과 BM25 검색을 함께 사용하는 하이브리드 검색 설정입니다.
+ *
+ * @param enabled 하이브리드 검색 사용 여부 (ETL 파이프라인이 BM25 색인에도 청크를 씀)
+ * @param topK 질의 하나에서 BM25로 찾을 문서 수이자 병합 후 반환할 최대 문서 수
+ * @param k1 BM25 단어 빈도 포화 계수
+ * @param b BM25 문서 길이 정규화 계수
+ * @param indexPath BM25 색인 파일 경로 (시작할 때 읽고 ETL 파이프라인이 끝나면 저장, 비우면 저장하지 않음)
+ */
+@ConfigurationProperties(prefix = "app.rag.hybrid")
+public record HybridRetrievalProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("3") int topK,
+                                        @DefaultValue("1.2") double k1,
+                                        @DefaultValue("0.75") double b,
+                                        Path indexPath) {
+}
@@ -0,0 +1,92 @@
+package kr.hui.springai.rag.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BM25 색인과 질의, 문맥 압축의 문장 관련도 계산에 공통으로 사용하는 토크나이저입니다. 형태소 분석기 없이 한국어를 다루기 위해 문자 체계별로 나눕니다.
+ * <ul>
+ *     <li>한글/한자/가나 연속 구간은 두 글자씩 겹쳐 자릅니다(bigram). "설정을"은 "설정", "정을"이 되어 조사가 붙어도 "설정"과 일치합니다.</li>
+ *     <li>그 밖의 글자, 숫자, '_' 연속 구간은 소문자 단어가 됩니다. ("AI에서"는 "ai"와 "에서")</li>
+ *     <li>'.', '-', ':', '/'로 이어진 식별자(예: spring.ai.openai.api-key, HTTP-429)는 각 부분과 함께 전체도 토큰으로 만들어
+ *     클래스 이름, 설정 키, 오류 코드가 정확히 일치하는 문서의 점수가 높아집니다.</li>
+ * </ul>
+ */
+public final class LexicalTokenizer {
+
+    private LexicalTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        StringBuilder compound = new StringBuilder();
+        StringBuilder ideographs = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isIdeographic(codePoint)) {
+                endWord(tokens, word, compound);
+                ideographs.appendCodePoint(codePoint);
+                continue;
+            }
+            endIdeographs(tokens, ideographs);
+            if (Character.isLetterOrDigit(codePoint) || codePoint == '_') {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (isConnector(codePoint) && !word.isEmpty() && i < length && isWordChar(text.codePointAt(i))) {
+                // 식별자 안의 연결 문자: 부분 단어를 내보내고 전체 식별자는 계속 이어감
+                compound.append(word).appendCodePoint(codePoint);
+                tokens.add(word.toString());
+                word.setLength(0);
+            } else {
+                endWord(tokens, word, compound);
+            }
+        }
+        endWord(tokens, word, compound);
+        endIdeographs(tokens, ideographs);
+        return tokens;
+    }
+
+    private static void endWord(List<String> tokens, StringBuilder word, StringBuilder compound) {
+        if (!word.isEmpty()) {
+            tokens.add(word.toString());
+            if (!compound.isEmpty()) {
+                tokens.add(compound.append(word).toString());
+            }
+        }
+        word.setLength(0);
+        compound.setLength(0);
+    }
+
+    private static void endIdeographs(List<String> tokens, StringBuilder ideographs) {
+        if (ideographs.isEmpty()) {
+            return;
+        }
+        int[] codePoints = ideographs.codePoints().toArray();
+        if (codePoints.length == 1) {
+            tokens.add(new String(codePoints, 0, 1));
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+        ideographs.setLength(0);
+    }
+
+    private static boolean isIdeographic(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HANGUL || script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA || script == Character.UnicodeScript.KATAKANA;
+    }
+
+    private static boolean isWordChar(int codePoint) {
+        return (Character.isLetterOrDigit(codePoint) || codePoint == '_') && !isIdeographic(codePoint);
+    }
+
+    private static boolean isConnector(int codePoint) {
+        return codePoint == '.' || codePoint == '-' || codePoint == ':' || codePoint == '/';
+    }
+}
@@ -0,0 +1,48 @@
+package kr.hui.springai.rag.retrieval;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 여러 질의의 검색 결과를 Reciprocal Rank Fusion(RRF)으로 병합하는 DocumentJoiner입니다.
+ * 문서마다 결과 목록에서의 순위(1부터)로 1 / (k + 순위)를 더하고, 합이 큰 순서로 정렬합니다.
+ * 질의마다 유사도 분포가 달라도 순위만 사용하므로, 여러 질의에서 함께 상위에 나온 문서가 앞에 옵니다.
+ * 같은 ID의 문서는 하나로 합치며, 반환하는 문서의 score는 RRF 점수입니다.
+ */
+public class ReciprocalRankFusionDocumentJoiner implements DocumentJoiner {
+
+    private final int k;
+
+    /**
+     * @param k 순위 보정 상수 (일반적으로 60)
+     */
+    public ReciprocalRankFusionDocumentJoiner(int k) {
+        this.k = k;
+    }
+
+    @Override
+    public List<Document> join(Map<Query, List<List<Document>>> documentsForQuery) {
+        Map<String, Document> documents = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (List<List<Document>> resultLists : documentsForQuery.values()) {
+            for (List<Document> results : resultLists) {
+                for (int rank = 0; rank < results.size(); rank++) {
+                    Document document = results.get(rank);
+                    documents.putIfAbsent(document.getId(), document);
+                    scores.merge(document.getId(), 1.0 / (this.k + rank + 1), Double::sum);
+                }
+            }
+        }
+        List<Document> fused = new ArrayList<>(documents.size());
+        documents.forEach((id, document) -> fused.add(document.mutate().score(scores.get(id)).build()));
+        fused.sort(Comparator.comparingDouble(Document::getScore).reversed());
+        return fused;
+    }
+}
@@ -0,0 +1,33 @@
+package kr.hui.springai.rag.retrieval;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 확장된 질의의 병렬 검색과 결과 병합 설정입니다.
+ *
+ * @param timeout 질의 하나의 검색 제한 시간 (넘으면 그 질의의 결과는 버리고 나머지로 응답)
+ * @param parallelism 동시에 실행할 최대 검색 수 (요청 수 × 확장된 질의 수를 고려)
+ * @param queueCapacity 실행을 기다릴 수 있는 최대 검색 수 (넘으면 그 질의는 버림)
+ * @param rrfK Reciprocal Rank Fusion의 순위 보정 상수 (클수록 하위 순위 문서의 비중이 커짐)
+ * @param speculative 원 질의 선행 검색 설정
+ */
+@ConfigurationProperties(prefix = "app.rag.retrieval")
+public record RetrievalProperties(@DefaultValue("3s") Duration timeout,
+                                  @DefaultValue("16") int parallelism,
+                                  @DefaultValue("64") int queueCapacity,
+                                  @DefaultValue("60") int rrfK,
+                                  @DefaultValue Speculative speculative) {
+
+    /**
+     * @param enabled true이면 질의 번역/확장을 기다리지 않고 원 질의 검색을 먼저 시작
+     * @param deadline 요청 시작부터 확장된 질의의 검색 결과를 기다리는 최대 시간 (넘으면 그때까지의 결과로 생성)
+     * @param expansionConcurrency 동시에 실행할 최대 번역/확장 수 (검색과 별도의 스레드 풀)
+     */
+    public record Speculative(@DefaultValue("false") boolean enabled,
+                              @DefaultValue("1500ms") Duration deadline,
+                              @DefaultValue("4") int expansionConcurrency) {
+    }
+}
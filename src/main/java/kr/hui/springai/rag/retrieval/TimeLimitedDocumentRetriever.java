@@ -0,0 +1,123 @@
+package kr.hui.springai.rag.retrieval;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 질의 하나의 검색 시간을 제한하는 DocumentRetriever 데코레이터입니다.
+ * RetrievalAugmentationAdvisor는 확장된 질의를 병렬로 검색하지만 가장 느린 질의를 끝까지 기다리고,
+ * 하나라도 실패하면 요청 전체가 실패합니다. 이 데코레이터는 제한 시간을 넘기거나 실패한 질의를 빈 결과로 바꾸므로
+ * 전체 검색 시간은 제한 시간 안에 끝난 질의 중 가장 느린 질의의 시간이 됩니다.
+ * 제한 시간은 검색이 taskExecutor에서 시작된 때부터 재므로 대기열에서 기다린 시간은 포함되지 않으며,
+ * 제한 시간 안에 시작하지도 못한 질의는 result=queue_timeout으로 따로 집계합니다.
+ * 대기열이 가득 차 taskExecutor가 거절한 질의는 result=rejected로 집계합니다.
+ * 질의별 결과는 'rag.retrieval.queries' 지표(result=success/timeout/queue_timeout/rejected/error)로, 대기를 포함한 검색 시간은
+ * 'rag.stage.duration' 지표(stage=retrieval)로 노출됩니다.
+ */
+@Slf4j
+public class TimeLimitedDocumentRetriever implements DocumentRetriever {
+
+    private final DocumentRetriever delegate;
+    private final long timeoutNanos;
+    private final AsyncTaskExecutor taskExecutor;
+    private final Counter successes;
+    private final Counter timeouts;
+    private final Counter queueTimeouts;
+    private final Counter rejections;
+    private final Counter errors;
+    private final Timer latency;
+
+    /**
+     * @param delegate 실제 검색을 수행하는 DocumentRetriever
+     * @param timeout 질의 하나의 검색 제한 시간
+     * @param taskExecutor 검색을 실행할 TaskExecutor (호출 스레드의 풀과 달라야 서로를 기다리며 막히지 않음, 대기열 상한이 있어야 거절됨)
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public TimeLimitedDocumentRetriever(DocumentRetriever delegate, Duration timeout, AsyncTaskExecutor taskExecutor,
+                                        MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+        this.taskExecutor = taskExecutor;
+        this.successes = Counter.builder("rag.retrieval.queries").tag("result", "success").register(meterRegistry);
+        this.timeouts = Counter.builder("rag.retrieval.queries").tag("result", "timeout").register(meterRegistry);
+        this.queueTimeouts = Counter.builder("rag.retrieval.queries").tag("result", "queue_timeout")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("rag.retrieval.queries").tag("result", "rejected").register(meterRegistry);
+        this.errors = Counter.builder("rag.retrieval.queries").tag("result", "error").register(meterRegistry);
+        this.latency = Timer.builder("rag.stage.duration")
+                .description("RAG pipeline stage latency")
+                .tag("stage", "retrieval")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        long start = System.nanoTime();
+        try {
+            return retrieveWithTimeout(query);
+        } finally {
+            this.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<Document> retrieveWithTimeout(Query query) {
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        Future<List<Document>> future;
+        try {
+            future = this.taskExecutor.submit(() -> {
+                started.complete(System.nanoTime());
+                return this.delegate.retrieve(query);
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejections.increment();
+            log.warn("Retrieval rejected (executor queue full), dropping query: {}", query.text());
+            return List.of();
+        }
+        try {
+            long startedNanos;
+            try {
+                startedNanos = started.get(this.timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                this.queueTimeouts.increment();
+                log.warn("Retrieval did not start within {} ms (executor saturated), dropping query: {}",
+                        TimeUnit.NANOSECONDS.toMillis(this.timeoutNanos), query.text());
+                return List.of();
+            }
+            List<Document> documents = future.get(Math.max(0, startedNanos + this.timeoutNanos - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+            this.successes.increment();
+            return documents;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            this.timeouts.increment();
+            log.warn("Retrieval timed out after {} ms, dropping query: {}", TimeUnit.NANOSECONDS.toMillis(this.timeoutNanos),
+                    query.text());
+            return List.of();
+        } catch (ExecutionException e) {
+            this.errors.increment();
+            log.warn("Retrieval failed, dropping query: {}", query.text(), e.getCause());
+            return List.of();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+}
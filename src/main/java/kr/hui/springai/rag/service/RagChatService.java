@@ -1,7 +1,7 @@
 package kr.hui.springai.rag.service;
 
+import kr.hui.springai.common.advisor.AdvisorPipelines;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.api.Advisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.ChatOptions;
@@ -24,16 +24,16 @@ public class RagChatService {
 
     /**
      * RagChatService의 생성자입니다.
-     * 주입된 ChatClient.Builder와 Advisor들을 사용하여 ChatClient 인스턴스를 생성하고 설정합니다.
+     * 주입된 ChatClient.Builder와 'rag' 어드바이저 파이프라인을 사용하여 ChatClient 인스턴스를 생성하고 설정합니다.
      * - defaultOptions: 모든 채팅 요청에 기본적으로 적용될 옵션(예: temperature=0.0)을 설정합니다.
-     * - defaultAdvisors: RAG, 채팅 메모리 등 등록된 모든 어드바이저를 ChatClient에 적용합니다.
+     * - defaultAdvisors: 'rag' 파이프라인에 설정된 어드바이저(RAG, 채팅 메모리 등)를 ChatClient에 적용합니다.
      *
      * @param chatClientBuilder ChatClient를 생성하기 위한 빌더
-     * @param advisors ChatClient의 동작을 확장하는 어드바이저 배열 (Spring이 자동으로 주입)
+     * @param advisorPipelines 이름별 어드바이저 파이프라인 (app.advisor.pipelines)
      */
-    public RagChatService(ChatClient.Builder chatClientBuilder, Advisor[] advisors) {
+    public RagChatService(ChatClient.Builder chatClientBuilder, AdvisorPipelines advisorPipelines) {
         this.chatClient = chatClientBuilder.defaultOptions(ChatOptions.builder().temperature(0.0).build())
-                .defaultAdvisors(advisors).build();
+                .defaultAdvisors(advisorPipelines.get(AdvisorPipelines.RAG)).build();
     }
 
     /**
@@ -0,0 +1,113 @@
+package kr.hui.springai.rag.vectorstore;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Filter.Expression을 문서 메타데이터에 대해 직접 평가합니다.
+ * SimpleVectorStore처럼 SpEL로 변환하지 않으므로 검색 중 노드마다 호출해도 부담이 적습니다.
+ * 숫자는 타입과 관계없이 값으로 비교하고, 메타데이터에 키가 없으면 NE/NIN만 참이 됩니다.
+ */
+public final class FilterExpressionEvaluator {
+
+    private FilterExpressionEvaluator() {
+    }
+
+    public static boolean matches(Filter.Expression expression, Map<String, Object> metadata) {
+        return switch (expression.type()) {
+            case AND -> evaluate(expression.left(), metadata) && evaluate(expression.right(), metadata);
+            case OR -> evaluate(expression.left(), metadata) || evaluate(expression.right(), metadata);
+            case NOT -> !evaluate(expression.left(), metadata);
+            case EQ -> valueEquals(metadataValue(expression, metadata), operandValue(expression));
+            case NE -> !valueEquals(metadataValue(expression, metadata), operandValue(expression));
+            case GT -> compare(metadataValue(expression, metadata), operandValue(expression)) > 0;
+            case GTE -> compare(metadataValue(expression, metadata), operandValue(expression)) >= 0;
+            case LT -> compare(operandValue(expression), metadataValue(expression, metadata)) > 0;
+            case LTE -> compare(operandValue(expression), metadataValue(expression, metadata)) >= 0;
+            case IN -> in(metadataValue(expression, metadata), operandValue(expression));
+            case NIN -> !in(metadataValue(expression, metadata), operandValue(expression));
+            default -> throw new IllegalArgumentException("Unsupported filter expression type: " + expression.type());
+        };
+    }
+
+    private static boolean evaluate(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand instanceof Filter.Expression expression) {
+            return matches(expression, metadata);
+        }
+        if (operand instanceof Filter.Group group) {
+            return matches(group.content(), metadata);
+        }
+        throw new IllegalArgumentException("Expected an expression or group but got: " + operand);
+    }
+
+    /**
+     * 필터 키에 해당하는 메타데이터 값입니다. 텍스트 필터에서 온 키는 따옴표로 감싸져 있을 수 있습니다.
+     */
+    static Object metadataValue(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key key)) {
+            throw new IllegalArgumentException("Expected a key on the left side of: " + expression);
+        }
+        return metadata.get(unquote(key.key()));
+    }
+
+    static String unquote(String key) {
+        if (key.length() >= 2 && (key.charAt(0) == '\'' || key.charAt(0) == '"')
+                && key.charAt(key.length() - 1) == key.charAt(0)) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    private static Object operandValue(Filter.Expression expression) {
+        if (!(expression.right() instanceof Filter.Value value)) {
+            throw new IllegalArgumentException("Expected a value on the right side of: " + expression);
+        }
+        return value.value();
+    }
+
+    private static boolean valueEquals(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+        }
+        return Objects.equals(actual, expected);
+    }
+
+    /**
+     * 두 값을 비교합니다. 한쪽이 없거나 비교할 수 없으면 -1을 반환하므로,
+     * 메타데이터 값을 왼쪽(GT/GTE) 또는 오른쪽(LT/LTE)에 두고 0과 비교하면 값이 없을 때 거짓이 됩니다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return -1;
+        }
+        if (left instanceof Number a && right instanceof Number b) {
+            return Integer.signum(Double.compare(a.doubleValue(), b.doubleValue()));
+        }
+        if (left instanceof Comparable a && left.getClass() == right.getClass()) {
+            return Integer.signum(a.compareTo(right));
+        }
+        if (left instanceof String || right instanceof String) {
+            return Integer.signum(left.toString().compareTo(right.toString()));
+        }
+        return -1;
+    }
+
+    private static boolean in(Object actual, Object expected) {
+        if (actual == null) {
+            return false;
+        }
+        if (expected instanceof Collection<?> values) {
+            for (Object value : values) {
+                if (valueEquals(actual, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return valueEquals(actual, expected);
+    }
+}
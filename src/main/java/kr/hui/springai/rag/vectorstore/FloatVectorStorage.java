@@ -0,0 +1,124 @@
+package kr.hui.springai.rag.vectorstore;
+
+import java.util.Arrays;
+
+/**
+ * 정규화된 벡터를 원본 정밀도 그대로 float[] 블록에 연속으로 저장하는 저장소입니다.
+ * 노드 번호는 추가된 순서이며, 벡터 하나마다 배열을 만들지 않으므로 객체 수와 GC 부담이 블록 수에 비례합니다.
+ * 벡터를 단위 길이로 정규화해 두므로 내적이 곧 코사인 유사도입니다.
+ * <p>
+ * 스레드 안전하지 않으며, 호출자(HnswVectorStore)가 읽기/쓰기 락으로 보호합니다.
+ */
+final class FloatVectorStorage implements VectorStorage {
+
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT; // 블록당 벡터 수
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final int dimensions;
+    private float[][] blocks = new float[0][];
+    private int size;
+
+    FloatVectorStorage(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return this.dimensions;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public int add(float[] vector) {
+        if (vector.length != this.dimensions) {
+            throw new IllegalArgumentException("Expected " + this.dimensions + " dimensions but got " + vector.length);
+        }
+        int node = this.size;
+        int block = node >>> BLOCK_SHIFT;
+        if (block == this.blocks.length) {
+            this.blocks = Arrays.copyOf(this.blocks, block + 1);
+            this.blocks[block] = new float[BLOCK_SIZE * this.dimensions];
+        }
+        System.arraycopy(vector, 0, this.blocks[block], (node & BLOCK_MASK) * this.dimensions, this.dimensions);
+        this.size++;
+        return node;
+    }
+
+    @Override
+    public QueryScorer scorer(float[] query) {
+        return node -> exactScore(node, query);
+    }
+
+    @Override
+    public float exactScore(int node, float[] query) {
+        return dot(this.blocks[node >>> BLOCK_SHIFT], (node & BLOCK_MASK) * this.dimensions, query, 0, this.dimensions);
+    }
+
+    @Override
+    public float exactScore(int a, int b) {
+        return dot(this.blocks[a >>> BLOCK_SHIFT], (a & BLOCK_MASK) * this.dimensions,
+                this.blocks[b >>> BLOCK_SHIFT], (b & BLOCK_MASK) * this.dimensions, this.dimensions);
+    }
+
+    /**
+     * 네 개의 누산기로 나눠 더해 덧셈 간 의존성을 줄입니다. (JIT는 float 덧셈 순서를 바꾸지 않으므로 직접 분리)
+     */
+    static float dot(float[] x, int xOffset, float[] y, int yOffset, int length) {
+        float sum0 = 0f;
+        float sum1 = 0f;
+        float sum2 = 0f;
+        float sum3 = 0f;
+        int i = 0;
+        for (int bound = length & ~3; i < bound; i += 4) {
+            sum0 += x[xOffset + i] * y[yOffset + i];
+            sum1 += x[xOffset + i + 1] * y[yOffset + i + 1];
+            sum2 += x[xOffset + i + 2] * y[yOffset + i + 2];
+            sum3 += x[xOffset + i + 3] * y[yOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += x[xOffset + i] * y[yOffset + i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public float[] vector(int node, float[] buffer) {
+        System.arraycopy(this.blocks[node >>> BLOCK_SHIFT], (node & BLOCK_MASK) * this.dimensions, buffer, 0,
+                this.dimensions);
+        return buffer;
+    }
+
+    @Override
+    public boolean approximate() {
+        return false;
+    }
+
+    @Override
+    public long heapBytesPerVector() {
+        return (long) Float.BYTES * this.dimensions;
+    }
+
+    /**
+     * 벡터를 단위 길이로 정규화한 복사본을 반환합니다. 길이가 0이면 그대로 복사합니다.
+     */
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = Arrays.copyOf(vector, vector.length);
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] *= scale;
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,397 @@
+package kr.hui.springai.rag.vectorstore;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * HNSW(Hierarchical Navigable Small World) 그래프입니다. (Malkov &amp; Yashunin, 2016)
+ * 노드 번호는 {@link VectorStorage}의 벡터 번호와 같고, 유사도는 정규화된 벡터의 내적입니다.
+ * 그래프는 원본 정밀도 유사도로 구성하고, 검색은 저장소의 검색용 유사도(양자화 시 근사값)로 탐색합니다.
+ * <p>
+ * 삽입은 세 단계로 나뉘어 있어 호출자가 락 범위를 나눌 수 있습니다.
+ * <ol>
+ *     <li>{@link #addNode(float[])}: 벡터를 저장하고 레벨을 정함 (쓰기 락)</li>
+ *     <li>{@link #findNeighbors(int, float[])}: 레벨별 이웃 후보를 탐색함 (읽기 락, 다른 삽입/검색과 동시에 실행 가능)</li>
+ *     <li>{@link #link(int, int[][])}: 이웃을 선택하고 양방향으로 연결함 (쓰기 락)</li>
+ * </ol>
+ * 연결되기 전의 노드는 다른 노드에서 도달할 수 없으므로 탐색 결과에 나타나지 않습니다.
+ */
+final class HnswGraph {
+
+    private final VectorStorage storage;
+    private final int m;
+    private final int maxConnections0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    /**
+     * links[node][level] = [이웃 수, 이웃1, 이웃2, ...]
+     */
+    private int[][][] links = new int[0][][];
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * @param storage 벡터 저장소
+     * @param m 레벨 1 이상에서 노드당 최대 이웃 수 (레벨 0은 2 × m)
+     * @param efConstruction 삽입 시 탐색할 후보 수
+     */
+    HnswGraph(VectorStorage storage, int m, int efConstruction) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2: " + m);
+        }
+        this.storage = storage;
+        this.m = m;
+        this.maxConnections0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * 탐색 결과입니다. 유사도가 높은 순서로 정렬되어 있습니다.
+     */
+    record Neighbors(int[] nodes, float[] scores) {
+    }
+
+    int size() {
+        return this.storage.size();
+    }
+
+    /**
+     * 벡터를 저장하고 무작위 레벨의 빈 이웃 목록을 할당합니다. 첫 노드는 바로 진입점이 됩니다.
+     *
+     * @param vector 정규화된 벡터
+     * @return 새 노드 번호
+     */
+    int addNode(float[] vector) {
+        int node = this.storage.add(vector);
+        int level = randomLevel();
+        if (node == this.links.length) {
+            this.links = Arrays.copyOf(this.links, Math.max(16, node * 3 / 2));
+        }
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[maxConnections(l) + 1];
+        }
+        this.links[node] = nodeLinks;
+        if (this.entryPoint < 0) {
+            this.entryPoint = node;
+            this.maxLevel = level;
+        }
+        return node;
+    }
+
+    /**
+     * 스냅숏에서 읽은 노드를 그대로 추가합니다. 노드 번호 순서대로 호출해야 합니다.
+     *
+     * @param vector 정규화된 벡터
+     * @param nodeLinks 레벨별 이웃 목록 (이웃 수가 현재 m 설정보다 많으면 잘라냄)
+     */
+    void restoreNode(float[] vector, int[][] nodeLinks) {
+        int node = this.storage.add(vector);
+        if (node == this.links.length) {
+            this.links = Arrays.copyOf(this.links, Math.max(16, node * 3 / 2));
+        }
+        int[][] restored = new int[nodeLinks.length][];
+        for (int l = 0; l < nodeLinks.length; l++) {
+            int count = Math.min(nodeLinks[l].length, maxConnections(l));
+            restored[l] = new int[maxConnections(l) + 1];
+            restored[l][0] = count;
+            System.arraycopy(nodeLinks[l], 0, restored[l], 1, count);
+        }
+        this.links[node] = restored;
+    }
+
+    void restoreEntryPoint(int entryPoint, int maxLevel) {
+        this.entryPoint = entryPoint;
+        this.maxLevel = maxLevel;
+    }
+
+    int entryPoint() {
+        return this.entryPoint;
+    }
+
+    int maxLevel() {
+        return this.maxLevel;
+    }
+
+    /**
+     * 노드의 최상위 레벨입니다.
+     */
+    int level(int node) {
+        return this.links[node].length - 1;
+    }
+
+    /**
+     * 노드의 레벨별 이웃 목록입니다. (스냅숏 저장용)
+     */
+    int[][] neighbors(int node) {
+        int[][] nodeLinks = this.links[node];
+        int[][] neighbors = new int[nodeLinks.length][];
+        for (int l = 0; l < nodeLinks.length; l++) {
+            neighbors[l] = Arrays.copyOfRange(nodeLinks[l], 1, nodeLinks[l][0] + 1);
+        }
+        return neighbors;
+    }
+
+    /**
+     * 새 노드의 레벨별 이웃 후보를 탐색합니다. 그래프를 변경하지 않습니다.
+     *
+     * @return 레벨별 후보 (유사도 높은 순서), 노드가 첫 진입점이면 null
+     */
+    int[][] findNeighbors(int node, float[] vector) {
+        int entry = this.entryPoint;
+        int top = this.maxLevel;
+        if (entry == node) {
+            return null;
+        }
+        int level = this.links[node].length - 1;
+        VectorStorage.QueryScorer scorer = candidate -> this.storage.exactScore(candidate, vector);
+        for (int l = top; l > level; l--) {
+            entry = greedySearch(scorer, entry, l);
+        }
+        int[][] candidates = new int[Math.min(level, top) + 1][];
+        for (int l = candidates.length - 1; l >= 0; l--) {
+            candidates[l] = searchLayer(scorer, entry, this.efConstruction, l, null).drainBestFirst(null);
+            entry = candidates[l][0];
+        }
+        return candidates;
+    }
+
+    /**
+     * 후보 중에서 이웃을 선택해 양방향으로 연결하고, 새 노드의 레벨이 가장 높으면 진입점으로 바꿉니다.
+     */
+    void link(int node, int[][] candidates) {
+        if (candidates == null) {
+            return;
+        }
+        for (int l = 0; l < candidates.length; l++) {
+            int[] selected = selectNeighbors(node, candidates[l], maxConnections(l));
+            int[] nodeLinks = this.links[node][l];
+            System.arraycopy(selected, 0, nodeLinks, 1, selected.length);
+            nodeLinks[0] = selected.length;
+            for (int neighbor : selected) {
+                addLink(neighbor, node, l);
+            }
+        }
+        int level = this.links[node].length - 1;
+        if (level > this.maxLevel) {
+            this.maxLevel = level;
+            this.entryPoint = node;
+        }
+    }
+
+    /**
+     * query와 가장 유사한 노드를 찾습니다.
+     *
+     * @param query 정규화된 질의 벡터
+     * @param k 반환할 최대 노드 수
+     * @param ef 레벨 0에서 유지할 후보 수 (클수록 정확하고 느림)
+     * @param accept 결과에 포함할 노드 조건 (삭제/필터), null이면 모든 노드
+     */
+    Neighbors search(float[] query, int k, int ef, IntPredicate accept) {
+        if (this.entryPoint < 0 || k <= 0) {
+            return new Neighbors(new int[0], new float[0]);
+        }
+        int entry = this.entryPoint;
+        VectorStorage.QueryScorer scorer = this.storage.scorer(query);
+        for (int l = this.maxLevel; l > 0; l--) {
+            entry = greedySearch(scorer, entry, l);
+        }
+        ScoredNodeQueue results = searchLayer(scorer, entry, Math.max(ef, k), 0, accept);
+        while (results.size() > k) {
+            results.pop();
+        }
+        float[] scores = new float[results.size()];
+        int[] nodes = results.drainBestFirst(scores);
+        return new Neighbors(nodes, scores);
+    }
+
+    /**
+     * 한 레벨에서 더 유사한 이웃이 없을 때까지 이동합니다.
+     */
+    private int greedySearch(VectorStorage.QueryScorer scorer, int entry, int level) {
+        float best = scorer.score(entry);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] neighbors = this.links[entry][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                float score = scorer.score(neighbors[i]);
+                if (score > best) {
+                    best = score;
+                    entry = neighbors[i];
+                    changed = true;
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * 한 레벨에서 ef개의 후보를 유지하며 탐색합니다. accept를 통과하지 못한 노드도 경로로는 사용합니다.
+     *
+     * @return accept를 통과한 노드 (유사도가 낮은 노드가 맨 위)
+     */
+    private ScoredNodeQueue searchLayer(VectorStorage.QueryScorer scorer, int entry, int ef, int level,
+                                        IntPredicate accept) {
+        VisitedSet visited = new VisitedSet();
+        ScoredNodeQueue candidates = new ScoredNodeQueue(ef, true);
+        ScoredNodeQueue results = new ScoredNodeQueue(ef + 1, false);
+
+        float entryScore = scorer.score(entry);
+        visited.add(entry);
+        candidates.push(entry, entryScore);
+        if (accept == null || accept.test(entry)) {
+            results.push(entry, entryScore);
+        }
+        while (!candidates.isEmpty()) {
+            float candidateScore = candidates.topScore();
+            if (results.size() >= ef && candidateScore < results.topScore()) {
+                break;
+            }
+            int[] neighbors = this.links[candidates.pop()][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                float score = scorer.score(neighbor);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbor, score);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.push(neighbor, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 이웃 선택 휴리스틱: 이미 선택된 이웃보다 base에 더 가까운 후보만 고르고,
+     * 부족하면 제외된 후보로 채웁니다. (서로 다른 방향의 이웃을 고르게 유지)
+     *
+     * @param candidates base와의 유사도가 높은 순서의 후보
+     */
+    private int[] selectNeighbors(int base, int[] candidates, int maxConnections) {
+        int[] selected = new int[maxConnections];
+        int[] discarded = new int[candidates.length];
+        int selectedCount = 0;
+        int discardedCount = 0;
+        for (int candidate : candidates) {
+            if (selectedCount >= maxConnections) {
+                break;
+            }
+            if (candidate == base) {
+                continue;
+            }
+            float score = this.storage.exactScore(base, candidate);
+            boolean keep = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (this.storage.exactScore(candidate, selected[j]) > score) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = candidate;
+            } else {
+                discarded[discardedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < discardedCount && selectedCount < maxConnections; i++) {
+            selected[selectedCount++] = discarded[i];
+        }
+        return Arrays.copyOf(selected, selectedCount);
+    }
+
+    /**
+     * target의 이웃 목록에 node를 추가합니다. 목록이 가득 차면 휴리스틱으로 다시 고릅니다.
+     */
+    private void addLink(int target, int node, int level) {
+        int[] targetLinks = this.links[target][level];
+        int count = targetLinks[0];
+        int maxConnections = maxConnections(level);
+        if (count < maxConnections) {
+            targetLinks[count + 1] = node;
+            targetLinks[0] = count + 1;
+            return;
+        }
+        ScoredNodeQueue ordered = new ScoredNodeQueue(count + 1, true);
+        for (int i = 1; i <= count; i++) {
+            ordered.push(targetLinks[i], this.storage.exactScore(target, targetLinks[i]));
+        }
+        ordered.push(node, this.storage.exactScore(target, node));
+        int[] selected = selectNeighbors(target, ordered.drainBestFirst(null), maxConnections);
+        System.arraycopy(selected, 0, targetLinks, 1, selected.length);
+        targetLinks[0] = selected.length;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? this.maxConnections0 : this.m;
+    }
+
+    private int randomLevel() {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        return (int) (-Math.log(random) * this.levelMultiplier);
+    }
+
+    /**
+     * 탐색 한 번에 방문한 노드 집합입니다. 방문 수는 보통 ef × 이웃 수 정도이므로
+     * 전체 노드 수 크기의 배열 대신 작은 개방 주소 해시 집합을 사용합니다.
+     */
+    private static final class VisitedSet {
+
+        private int[] table = new int[1024];
+        private int size;
+
+        VisitedSet() {
+            Arrays.fill(this.table, -1);
+        }
+
+        /**
+         * @return 처음 방문한 노드이면 true
+         */
+        boolean add(int node) {
+            if (this.size * 2 >= this.table.length) {
+                grow();
+            }
+            int mask = this.table.length - 1;
+            int slot = mix(node) & mask;
+            while (this.table[slot] != -1) {
+                if (this.table[slot] == node) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = node;
+            this.size++;
+            return true;
+        }
+
+        private void grow() {
+            int[] old = this.table;
+            this.table = new int[old.length * 2];
+            Arrays.fill(this.table, -1);
+            int mask = this.table.length - 1;
+            for (int node : old) {
+                if (node != -1) {
+                    int slot = mix(node) & mask;
+                    while (this.table[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    this.table[slot] = node;
+                }
+            }
+        }
+
+        private static int mix(int node) {
+            return node * 0x9E3779B9;
+        }
+    }
+}
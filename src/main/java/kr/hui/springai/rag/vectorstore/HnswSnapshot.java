@@ -0,0 +1,273 @@
+package kr.hui.springai.rag.vectorstore;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * HnswVectorStore의 스냅숏 파일 형식입니다. 모든 정수/실수는 빅 엔디언입니다.
+ * <pre>
+ * 헤더     : magic(8) version(4) dimensions(4) count(4) entryPoint(4) maxLevel(4)
+ * 노드 × count : 원본 정밀도 벡터(4 × dimensions), 레벨 수(4), 레벨마다 [이웃 수(4), 이웃(4 × 이웃 수)]
+ * 문서 × count : 존재 여부(1), [ID 길이(4) ID(UTF-8), 메타데이터 JSON 길이(4) JSON, 본문 길이(4)]
+ * 본문 영역    : 살아 있는 문서의 본문(UTF-8)을 노드 순서대로 이어 붙인 영역 (파일 끝까지)
+ * </pre>
+ * 벡터와 그래프는 바이너리 그대로 읽으므로 다시 임베딩하거나 그래프를 다시 만들지 않습니다. 다만 벡터는 메모리 맵이 아니라
+ * 순서대로 읽어 현재 양자화 설정의 저장소(힙, 양자화 시 원본 벡터 파일)로 복사하므로, 읽는 시간과 메모리는 벡터 수에 비례합니다.
+ * 메모리 맵으로 열어 두는 것은 본문 영역뿐이며, 본문은 검색 결과로 반환될 때만 디코딩합니다. 삭제된 노드(툼스톤)는 쓰지 않고 살아 있는 노드의 번호를 다시 매기므로,
+ * 삭제가 누적된 저장소도 저장 후 다시 읽으면 툼스톤이 회수됩니다. 삭제된 이웃은 그 노드의 살아 있는 이웃으로 대체하여
+ * 그래프 연결을 유지합니다. 파일은 {@link AtomicFiles}로 교체하므로 쓰는 도중 종료되어도 기존 스냅숏이 유지됩니다.
+ */
+final class HnswSnapshot {
+
+    private static final long MAGIC = 0x484E_5357_534E_5031L; // "HNSWSNP1"
+    private static final int VERSION = 1;
+    private static final long TEXT_CHUNK_BYTES = 1L << 30; // 매핑 하나의 최대 크기 (MappedByteBuffer는 2GB 미만)
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private HnswSnapshot() {
+    }
+
+    /**
+     * 살아 있는 노드만 스냅숏에 원자적으로 씁니다. 호출자가 읽기 락을 잡고 있어야 합니다.
+     */
+    static void write(Path path, ObjectMapper objectMapper, VectorStorage storage, HnswGraph graph,
+                      List<HnswVectorStore.StoredDocument> documents) throws IOException {
+        AtomicFiles.write(path, outputStream -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+            int dimensions = storage.dimensions();
+            int[] renumbered = new int[documents.size()]; // 노드 번호 → 스냅숏의 노드 번호 (삭제되었으면 -1)
+            int count = 0;
+            for (int node = 0; node < renumbered.length; node++) {
+                renumbered[node] = documents.get(node) != null ? count++ : -1;
+            }
+            int entryPoint = graph.entryPoint();
+            int maxLevel = graph.maxLevel();
+            if (entryPoint >= 0 && renumbered[entryPoint] < 0) {
+                // 진입점이 삭제되었으면 레벨이 가장 높은 살아 있는 노드로 교체
+                entryPoint = -1;
+                maxLevel = -1;
+                for (int node = 0; node < renumbered.length; node++) {
+                    if (renumbered[node] >= 0 && graph.level(node) > maxLevel) {
+                        entryPoint = node;
+                        maxLevel = graph.level(node);
+                    }
+                }
+            }
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dimensions);
+            out.writeInt(count);
+            out.writeInt(entryPoint < 0 ? -1 : renumbered[entryPoint]);
+            out.writeInt(maxLevel);
+
+            float[] vector = new float[dimensions];
+            ByteBuffer vectorBytes = ByteBuffer.allocate(Float.BYTES * dimensions);
+            for (int node = 0; node < renumbered.length; node++) {
+                if (renumbered[node] < 0) {
+                    continue;
+                }
+                vectorBytes.clear();
+                vectorBytes.asFloatBuffer().put(storage.vector(node, vector));
+                out.write(vectorBytes.array());
+                int[][] neighbors = liveNeighbors(graph, node, renumbered);
+                out.writeInt(neighbors.length);
+                for (int[] levelNeighbors : neighbors) {
+                    out.writeInt(levelNeighbors.length);
+                    for (int neighbor : levelNeighbors) {
+                        out.writeInt(neighbor);
+                    }
+                }
+            }
+
+            for (HnswVectorStore.StoredDocument document : documents) {
+                if (document != null) {
+                    out.writeBoolean(true);
+                    writeBytes(out, document.id().getBytes(StandardCharsets.UTF_8));
+                    writeBytes(out, objectMapper.writeValueAsBytes(document.metadata()));
+                    out.writeInt(document.text().get().getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+            for (HnswVectorStore.StoredDocument document : documents) {
+                if (document != null) {
+                    out.write(document.text().get().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * 노드의 레벨별 이웃을 스냅숏의 노드 번호로 바꿉니다. 삭제된 이웃은 빼고, 빈 자리는 삭제된 이웃의 같은 레벨
+     * 이웃 중 살아 있는 노드로 채웁니다. (삭제된 노드를 거쳐 가던 경로를 한 단계 건너뛰어 유지)
+     */
+    private static int[][] liveNeighbors(HnswGraph graph, int node, int[] renumbered) {
+        int[][] neighbors = graph.neighbors(node);
+        for (int l = 0; l < neighbors.length; l++) {
+            int[] live = new int[neighbors[l].length];
+            int count = 0;
+            for (int neighbor : neighbors[l]) {
+                if (renumbered[neighbor] >= 0) {
+                    live[count++] = renumbered[neighbor];
+                }
+            }
+            for (int neighbor : neighbors[l]) {
+                if (count == live.length) {
+                    break;
+                }
+                if (renumbered[neighbor] >= 0) {
+                    continue;
+                }
+                for (int bypass : graph.neighbors(neighbor)[l]) {
+                    if (count == live.length) {
+                        break;
+                    }
+                    if (bypass != node && renumbered[bypass] >= 0 && !contains(live, count, renumbered[bypass])) {
+                        live[count++] = renumbered[bypass];
+                    }
+                }
+            }
+            neighbors[l] = Arrays.copyOf(live, count);
+        }
+        return neighbors;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 스냅숏을 읽어 그래프와 문서 목록을 채웁니다. 벡터와 이웃 목록은 graphFactory가 만든 그래프(저장소)로 복사합니다.
+     *
+     * @param graphFactory 차원 수를 받아 비어 있는 그래프를 만드는 함수
+     * @param documents 노드 번호 순서로 문서를 추가할 목록 (삭제된 노드는 null)
+     * @return 읽은 노드 수
+     */
+    static int read(Path path, ObjectMapper objectMapper, IntFunction<HnswGraph> graphFactory,
+                    List<HnswVectorStore.StoredDocument> documents) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not an HNSW snapshot: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported HNSW snapshot version " + version + ": " + path);
+            }
+            int dimensions = in.readInt();
+            int count = in.readInt();
+            int entryPoint = in.readInt();
+            int maxLevel = in.readInt();
+
+            HnswGraph graph = graphFactory.apply(dimensions);
+            byte[] vectorBytes = new byte[Float.BYTES * dimensions];
+            float[] vector = new float[dimensions];
+            for (int node = 0; node < count; node++) {
+                in.readFully(vectorBytes);
+                ByteBuffer.wrap(vectorBytes).asFloatBuffer().get(vector);
+                int[][] neighbors = new int[in.readInt()][];
+                for (int l = 0; l < neighbors.length; l++) {
+                    neighbors[l] = new int[in.readInt()];
+                    for (int i = 0; i < neighbors[l].length; i++) {
+                        neighbors[l][i] = in.readInt();
+                    }
+                }
+                graph.restoreNode(vector, neighbors);
+            }
+            graph.restoreEntryPoint(entryPoint, maxLevel);
+
+            TextRegion texts = new TextRegion();
+            long textOffset = 0;
+            for (int node = 0; node < count; node++) {
+                if (!in.readBoolean()) {
+                    documents.add(null);
+                    continue;
+                }
+                String id = new String(readBytes(in), StandardCharsets.UTF_8);
+                Map<String, Object> metadata = objectMapper.readValue(readBytes(in), METADATA_TYPE);
+                int textLength = in.readInt();
+                long offset = textOffset;
+                documents.add(new HnswVectorStore.StoredDocument(id, metadata, () -> texts.read(offset, textLength)));
+                texts.addText(offset, textLength);
+                textOffset += textLength;
+            }
+            texts.map(channel, channel.size() - textOffset);
+            return count;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 메모리 맵으로 연 본문 영역입니다. 본문 하나가 두 매핑에 걸치지 않도록 본문 경계에서 매핑을 나눕니다.
+     * 매핑은 파일 채널을 닫은 뒤에도 유지되며, 이 객체를 참조하는 문서가 없어지면 해제됩니다.
+     */
+    private static final class TextRegion {
+
+        private long[] chunkStarts = {0};
+        private int chunkCount = 1;
+        private long end;
+        private MappedByteBuffer[] chunks;
+
+        void addText(long offset, int length) {
+            if (offset + length - this.chunkStarts[this.chunkCount - 1] > TEXT_CHUNK_BYTES) {
+                if (this.chunkCount == this.chunkStarts.length) {
+                    this.chunkStarts = Arrays.copyOf(this.chunkStarts, this.chunkCount * 2);
+                }
+                this.chunkStarts[this.chunkCount++] = offset;
+            }
+            this.end = offset + length;
+        }
+
+        void map(FileChannel channel, long regionStart) throws IOException {
+            this.chunks = new MappedByteBuffer[this.chunkCount];
+            for (int i = 0; i < this.chunkCount; i++) {
+                long chunkEnd = i + 1 < this.chunkCount ? this.chunkStarts[i + 1] : this.end;
+                this.chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, regionStart + this.chunkStarts[i],
+                        chunkEnd - this.chunkStarts[i]);
+            }
+        }
+
+        String read(long offset, int length) {
+            int chunk = Arrays.binarySearch(this.chunkStarts, 0, this.chunkCount, offset);
+            if (chunk < 0) {
+                chunk = -chunk - 2;
+            }
+            byte[] bytes = new byte[length];
+            this.chunks[chunk].get((int) (offset - this.chunkStarts[chunk]), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package kr.hui.springai.rag.vectorstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.BatchingStrategy;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptionsBuilder;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * HNSW 그래프로 근사 최근접 이웃을 찾는 인메모리 VectorStore입니다.
+ * SimpleVectorStore는 검색마다 모든 문서의 박싱된 벡터와 코사인 유사도를 계산하지만,
+ * 이 저장소는 정규화된 벡터를 float[] 블록에 저장하고 그래프를 따라 일부 노드만 비교합니다.
+ * <ul>
+ *     <li>유사도는 SimpleVectorStore와 같은 코사인 유사도이며, topK와 similarityThreshold를 같은 의미로 적용합니다.</li>
+ *     <li>검색과 삽입의 이웃 탐색은 읽기 락으로 동시에 실행되고, 그래프 연결만 쓰기 락으로 직렬화됩니다.</li>
+ *     <li>삭제된 문서는 그래프에서 경로로만 쓰이고 결과에서는 제외됩니다. (같은 ID로 다시 추가하면 새 노드로 교체)
+ *     삭제된 노드는 스냅숏에 쓰지 않으므로 저장 후 다시 읽으면 회수됩니다.</li>
+ *     <li>문서 ID는 삽입의 첫 단계에서 등록되므로, 이웃 탐색 중에 들어온 삭제도 연결 후에 되살아나지 않습니다.</li>
+ *     <li>양자화(int8/binary)를 사용하면 압축 코드로 topK × oversample개의 후보를 찾고,
+ *     메모리 맵 파일의 원본 정밀도 벡터로 다시 정렬합니다. 일부 검색은 전체 탐색 결과와 비교해 oversample을 조정합니다.</li>
+ *     <li>필터 검색은 메타데이터 비트맵 색인으로 후보를 먼저 좁힙니다. 후보가 적으면 그래프 대신 후보만 전체 비교하고,
+ *     많으면 그래프 탐색에서 후보가 아닌 노드를 건너뜁니다. 선택도가 높은 필터일수록 검색이 빨라집니다.</li>
+ *     <li>{@link #save(Path, ObjectMapper)}로 벡터, 그래프, 문서를 스냅숏 파일에 저장하고, 재시작 시
+ *     {@link #load(Path, ObjectMapper)}로 다시 임베딩하거나 그래프를 다시 만들지 않고 복원합니다.</li>
+ * </ul>
+ */
+@Slf4j
+public class HnswVectorStore implements VectorStore, AutoCloseable {
+
+    private final EmbeddingModel embeddingModel;
+    private final BatchingStrategy batchingStrategy = new TokenCountBatchingStrategy();
+    private final InMemoryVectorStoreProperties.Hnsw hnsw;
+    private final InMemoryVectorStoreProperties.Quantization quantization;
+    private final InMemoryVectorStoreProperties.FilterIndex filterIndex;
+    private final OversampleTuner oversampleTuner;
+    private final ExecutorService recallSampler;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private VectorStorage storage; // 첫 벡터가 들어올 때 차원 수를 알 수 있으므로 늦게 생성
+    private HnswGraph graph;
+    private final List<StoredDocument> documents = new ArrayList<>(); // 노드 번호 → 문서 (삭제되면 null)
+    private final Map<String, Integer> nodesById = new HashMap<>();
+    private final Map<Integer, Integer> replacedNodes = new HashMap<>(); // 연결 중인 노드 → 교체할 같은 ID의 이전 노드
+    private final MetadataIndex metadataIndex;
+
+    /**
+     * @param embeddingModel 문서와 질의를 벡터로 변환할 EmbeddingModel
+     * @param hnsw 그래프 설정 (m, efConstruction, efSearch)
+     * @param quantization 벡터 양자화와 재정렬 설정
+     * @param filterIndex 필터 검색용 메타데이터 색인 설정
+     */
+    public HnswVectorStore(EmbeddingModel embeddingModel, InMemoryVectorStoreProperties.Hnsw hnsw,
+                           InMemoryVectorStoreProperties.Quantization quantization,
+                           InMemoryVectorStoreProperties.FilterIndex filterIndex) {
+        this.embeddingModel = embeddingModel;
+        this.hnsw = hnsw;
+        this.quantization = quantization;
+        this.filterIndex = filterIndex;
+        this.metadataIndex = new MetadataIndex(filterIndex.fields());
+        this.oversampleTuner = new OversampleTuner(quantization.oversample(), quantization.recallTolerance(),
+                quantization.recallSampleRate());
+        // 재현율 측정은 전체 탐색이므로 한 번에 하나만 실행하고, 밀려 있으면 새 표본은 버림
+        this.recallSampler = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hnsw-recall-sampler");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptionsBuilder.builder().build(),
+                this.batchingStrategy);
+        for (int i = 0; i < documents.size(); i++) {
+            insert(documents.get(i), FloatVectorStorage.normalize(embeddings.get(i)));
+        }
+    }
+
+    private void insert(Document document, float[] vector) {
+        int node;
+        this.lock.writeLock().lock();
+        try {
+            if (this.graph == null) {
+                this.storage = createStorage(vector.length);
+                this.graph = new HnswGraph(this.storage, this.hnsw.m(), this.hnsw.efConstruction());
+                log.info("HNSW vector store: {} dimensions, {} encoding, {} heap bytes per vector", vector.length,
+                        this.quantization.encoding(), this.storage.heapBytesPerVector());
+            }
+            node = this.graph.addNode(vector);
+            String text = document.getText();
+            this.documents.add(new StoredDocument(document.getId(), new HashMap<>(document.getMetadata()), () -> text));
+            // ID를 먼저 등록해야 연결 전에 들어온 삭제가 이 노드를 지움 (이전 노드는 연결할 때까지 검색 결과에 남김)
+            Integer previous = this.nodesById.put(document.getId(), node);
+            if (previous != null) {
+                this.replacedNodes.put(node, previous);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        int[][] candidates;
+        this.lock.readLock().lock();
+        try {
+            candidates = this.graph.findNeighbors(node, vector);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            this.graph.link(node, candidates);
+            Integer previous = this.replacedNodes.remove(node);
+            if (previous != null) {
+                markDeleted(previous);
+            }
+            if (this.documents.get(node) == null) {
+                return; // 연결되기 전에 삭제되었거나 같은 ID의 다음 삽입으로 교체된 경우
+            }
+            this.metadataIndex.add(node, this.documents.get(node).metadata());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private VectorStorage createStorage(int dimensions) {
+        return switch (this.quantization.encoding()) {
+            case NONE -> new FloatVectorStorage(dimensions);
+            case INT8 -> new Int8VectorStorage(dimensions,
+                    new MappedFloatVectors(this.quantization.vectorsPath(), dimensions));
+            case BINARY -> new BinaryVectorStorage(dimensions,
+                    new MappedFloatVectors(this.quantization.vectorsPath(), dimensions));
+        };
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        this.lock.writeLock().lock();
+        try {
+            for (String id : idList) {
+                Integer node = this.nodesById.remove(id);
+                if (node != null) {
+                    deleteNode(node);
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        this.lock.writeLock().lock();
+        try {
+            for (int node = 0; node < this.documents.size(); node++) {
+                StoredDocument document = this.documents.get(node);
+                if (document != null && FilterExpressionEvaluator.matches(filterExpression, document.metadata())) {
+                    this.nodesById.remove(document.id(), node); // 교체 중인 이전 노드이면 새 노드의 등록은 유지
+                    deleteNode(node);
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 노드를 삭제합니다. 아직 연결 중인 노드이면 그 노드가 교체할 이전 노드도 함께 삭제합니다.
+     */
+    private void deleteNode(int node) {
+        markDeleted(node);
+        Integer previous = this.replacedNodes.remove(node);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+    }
+
+    private void markDeleted(int node) {
+        StoredDocument document = this.documents.set(node, null);
+        if (document != null) {
+            this.metadataIndex.remove(node, document.metadata());
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        float[] query = FloatVectorStorage.normalize(this.embeddingModel.embed(request.getQuery()));
+        Filter.Expression filter = request.getFilterExpression();
+
+        this.lock.readLock().lock();
+        try {
+            if (this.graph == null) {
+                return List.of();
+            }
+            IntPredicate accept = node -> {
+                StoredDocument document = this.documents.get(node);
+                return document != null && (filter == null || FilterExpressionEvaluator.matches(filter, document.metadata()));
+            };
+            HnswGraph.Neighbors neighbors = filter == null ? nearest(query, request.getTopK(), accept)
+                    : filteredNearest(query, request.getTopK(), filter, accept);
+
+            List<Document> results = new ArrayList<>(neighbors.nodes().length);
+            for (int i = 0; i < neighbors.nodes().length; i++) {
+                double score = neighbors.scores()[i];
+                if (score < request.getSimilarityThreshold()) {
+                    break; // 유사도 내림차순이므로 이후 결과도 기준 미달
+                }
+                StoredDocument document = this.documents.get(neighbors.nodes()[i]);
+                results.add(Document.builder()
+                        .id(document.id())
+                        .text(document.text().get())
+                        .metadata(new HashMap<>(document.metadata()))
+                        .metadata(DocumentMetadata.DISTANCE.value(), 1 - score)
+                        .score(score)
+                        .build());
+            }
+            return results;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 유사도가 높은 topK개의 노드를 찾습니다. 저장소가 근사 유사도를 사용하면 후보를 더 찾아 원본 정밀도로 다시 정렬합니다.
+     */
+    private HnswGraph.Neighbors nearest(float[] query, int topK, IntPredicate accept) {
+        if (!this.storage.approximate()) {
+            return this.graph.search(query, topK, this.hnsw.efSearch(), accept);
+        }
+        int candidates = this.oversampleTuner.candidates(topK);
+        HnswGraph.Neighbors approximate = this.graph.search(query, candidates,
+                Math.max(this.hnsw.efSearch(), candidates), accept);
+        ScoredNodeQueue rescored = new ScoredNodeQueue(topK + 1, false);
+        for (int node : approximate.nodes()) {
+            rescored.push(node, this.storage.exactScore(node, query));
+            if (rescored.size() > topK) {
+                rescored.pop();
+            }
+        }
+        float[] scores = new float[rescored.size()];
+        int[] nodes = rescored.drainBestFirst(scores);
+        if (this.oversampleTuner.shouldSample()) {
+            this.recallSampler.execute(() -> sampleRecall(query, topK, accept, nodes));
+        }
+        return new HnswGraph.Neighbors(nodes, scores);
+    }
+
+    /**
+     * 메타데이터 색인으로 후보를 좁힌 뒤 검색합니다. 후보가 bruteForceThreshold 이하이면 후보만 원본 정밀도로 비교하고,
+     * 그보다 많으면 그래프를 탐색하되 후보 비트맵에 없는 노드는 결과에서 제외합니다.
+     */
+    private HnswGraph.Neighbors filteredNearest(float[] query, int topK, Filter.Expression filter, IntPredicate accept) {
+        MetadataIndex.Candidates candidates = this.metadataIndex.candidates(filter);
+        if (candidates == null) {
+            return nearest(query, topK, accept);
+        }
+        RoaringBitmap nodes = candidates.nodes();
+        IntPredicate acceptCandidate = candidates.exact() ? nodes::contains
+                : node -> nodes.contains(node) && accept.test(node);
+        if (nodes.getCardinality() > this.filterIndex.bruteForceThreshold()) {
+            return nearest(query, topK, acceptCandidate);
+        }
+        ScoredNodeQueue exact = exactNearest(query, topK, nodes.getIntIterator(), acceptCandidate);
+        float[] scores = new float[exact.size()];
+        int[] found = exact.drainBestFirst(scores);
+        return new HnswGraph.Neighbors(found, scores);
+    }
+
+    /**
+     * 주어진 노드를 모두 원본 정밀도로 비교하여 유사도가 높은 topK개를 찾습니다. 호출자가 읽기 락을 잡고 있어야 합니다.
+     */
+    private ScoredNodeQueue exactNearest(float[] query, int topK, IntIterator nodes, IntPredicate accept) {
+        ScoredNodeQueue exact = new ScoredNodeQueue(topK + 1, false);
+        while (nodes.hasNext()) {
+            int node = nodes.next();
+            if (!accept.test(node)) {
+                continue;
+            }
+            float score = this.storage.exactScore(node, query);
+            if (exact.size() < topK || score > exact.topScore()) {
+                exact.push(node, score);
+                if (exact.size() > topK) {
+                    exact.pop();
+                }
+            }
+        }
+        return exact;
+    }
+
+    /**
+     * 원본 정밀도 전체 탐색 결과와 비교해 양자화 검색의 재현율을 측정합니다.
+     */
+    private void sampleRecall(float[] query, int topK, IntPredicate accept, int[] found) {
+        ScoredNodeQueue exact;
+        this.lock.readLock().lock();
+        try {
+            exact = exactNearest(query, topK, RoaringBitmap.bitmapOfRange(0, this.storage.size()).getIntIterator(), accept);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        if (exact.isEmpty()) {
+            return;
+        }
+        Set<Integer> foundNodes = new HashSet<>();
+        for (int node : found) {
+            foundNodes.add(node);
+        }
+        int expected = exact.size();
+        int hits = 0;
+        while (!exact.isEmpty()) {
+            if (foundNodes.contains(exact.pop())) {
+                hits++;
+            }
+        }
+        this.oversampleTuner.record((double) hits / expected);
+    }
+
+    /**
+     * 검색 결과에 나올 수 있는 문서 수입니다. (삭제된 문서 제외)
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.nodesById.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 벡터, 그래프, 문서를 스냅숏 파일에 저장합니다. 저장하는 동안 검색은 계속되고 추가/삭제는 대기합니다.
+     *
+     * @param path 스냅숏 파일 경로 (기존 파일은 원자적으로 교체)
+     * @param objectMapper 메타데이터 직렬화에 사용할 ObjectMapper
+     * @throws IOException 쓰기 중 오류 발생 시
+     */
+    public void save(Path path, ObjectMapper objectMapper) throws IOException {
+        this.lock.readLock().lock();
+        try {
+            if (this.graph == null) {
+                return;
+            }
+            HnswSnapshot.write(path, objectMapper, this.storage, this.graph, this.documents);
+            log.info("Saved HNSW snapshot: {} documents to {}", this.nodesById.size(), path);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 스냅숏 파일에서 벡터, 그래프, 문서를 복원합니다. 비어 있는 저장소에서만 호출할 수 있습니다.
+     * 벡터는 현재 양자화 설정으로 다시 인코딩되고, 문서 본문은 메모리 맵으로 열어 검색 결과로 반환될 때 읽습니다.
+     *
+     * @param path 스냅숏 파일 경로
+     * @param objectMapper 메타데이터 역직렬화에 사용할 ObjectMapper
+     * @return 파일이 없으면 false
+     * @throws IOException 파일이 손상되었거나 읽기 중 오류 발생 시 (저장소는 비어 있는 상태로 남음)
+     */
+    public boolean load(Path path, ObjectMapper objectMapper) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        this.lock.writeLock().lock();
+        try {
+            if (this.graph != null) {
+                throw new IllegalStateException("HNSW snapshot can only be loaded into an empty store");
+            }
+            try {
+                HnswSnapshot.read(path, objectMapper, dimensions -> {
+                    this.storage = createStorage(dimensions);
+                    this.graph = new HnswGraph(this.storage, this.hnsw.m(), this.hnsw.efConstruction());
+                    return this.graph;
+                }, this.documents);
+            } catch (IOException | RuntimeException e) {
+                if (this.storage != null) {
+                    this.storage.close();
+                }
+                this.storage = null;
+                this.graph = null;
+                this.documents.clear();
+                throw e;
+            }
+            for (int node = 0; node < this.documents.size(); node++) {
+                StoredDocument document = this.documents.get(node);
+                if (document != null) {
+                    this.nodesById.put(document.id(), node);
+                    this.metadataIndex.add(node, document.metadata());
+                }
+            }
+            log.info("Loaded HNSW snapshot: {} documents ({} dimensions, {} encoding) from {}", this.nodesById.size(),
+                    this.storage.dimensions(), this.quantization.encoding(), path);
+            return true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 재현율 측정 스레드를 종료하고 메모리 맵 파일을 닫습니다. (Bean 소멸 시 호출)
+     */
+    @Override
+    public void close() {
+        this.recallSampler.shutdownNow();
+        this.lock.writeLock().lock();
+        try {
+            if (this.storage != null) {
+                this.storage.close();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 노드에 저장된 문서입니다. 스냅숏에서 복원한 문서의 본문은 처음 요청될 때 파일에서 읽습니다.
+     */
+    record StoredDocument(String id, Map<String, Object> metadata, Supplier<String> text) {
+    }
+}
@@ -0,0 +1,64 @@
+package kr.hui.springai.rag.vectorstore;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 인메모리 VectorStore 설정입니다. ('app.vectorstore.in-memory.enabled=true'일 때 사용)
+ *
+ * @param type 구현 방식 (simple: SimpleVectorStore 전체 탐색, hnsw: HnswVectorStore 근사 탐색)
+ * @param hnsw HNSW 그래프 설정
+ * @param quantization HnswVectorStore의 벡터 양자화 설정
+ * @param filterIndex HnswVectorStore의 필터 검색용 메타데이터 색인 설정
+ * @param snapshotPath 시작 시 읽고 ETL 후 저장할 스냅숏 파일 경로 (비워 두면 저장하지 않음)
+ */
+@ConfigurationProperties(prefix = "app.vectorstore.in-memory")
+public record InMemoryVectorStoreProperties(@DefaultValue("simple") Type type,
+                                            @DefaultValue Hnsw hnsw,
+                                            @DefaultValue Quantization quantization,
+                                            @DefaultValue FilterIndex filterIndex,
+                                            Path snapshotPath) {
+
+    public enum Type {
+        SIMPLE, HNSW
+    }
+
+    /**
+     * @param m 노드당 최대 이웃 수 (레벨 0은 2 × m)
+     * @param efConstruction 삽입 시 탐색할 후보 수
+     * @param efSearch 검색 시 탐색할 후보 수 (정확도/지연 시간 조정)
+     */
+    public record Hnsw(@DefaultValue("16") int m,
+                       @DefaultValue("200") int efConstruction,
+                       @DefaultValue("64") int efSearch) {
+    }
+
+    public enum Encoding {
+        NONE, INT8, BINARY
+    }
+
+    /**
+     * @param encoding 그래프 탐색에 사용할 벡터 코드 (none: float32, int8: 1/4, binary: 1/32 힙 사용량)
+     * @param oversample 양자화 시 다시 정렬할 후보 수의 초기 배수 (topK × oversample)
+     * @param recallTolerance 원본 정밀도 결과 대비 허용하는 재현율 손실 (표본 측정으로 oversample을 조정)
+     * @param recallSampleRate 재현율을 측정할 검색의 비율 (0이면 oversample 고정)
+     * @param vectorsPath 원본 정밀도 벡터를 둘 메모리 맵 파일 경로 (비워 두면 임시 파일)
+     */
+    public record Quantization(@DefaultValue("none") Encoding encoding,
+                               @DefaultValue("3.0") double oversample,
+                               @DefaultValue("0.02") double recallTolerance,
+                               @DefaultValue("0.01") double recallSampleRate,
+                               Path vectorsPath) {
+    }
+
+    /**
+     * @param fields 값별 비트맵 색인을 만들 메타데이터 키 (필터 표현식에서 자주 쓰는 키)
+     * @param bruteForceThreshold 필터 후보가 이 수 이하이면 그래프 탐색 대신 후보만 전체 비교
+     */
+    public record FilterIndex(@DefaultValue({"source", "excerpt_keywords"}) List<String> fields,
+                              @DefaultValue("2000") int bruteForceThreshold) {
+    }
+}
@@ -0,0 +1,71 @@
+package kr.hui.springai.rag.vectorstore;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.hui.springai.common.util.AtomicFiles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 인메모리 VectorStore(SimpleVectorStore, HnswVectorStore)를 스냅숏 파일로 저장하고 복원합니다.
+ * 재시작할 때 스냅숏을 읽으면 모든 문서를 다시 임베딩하지 않아도 되며, 증분 ETL도 인메모리 저장소에서 사용할 수 있습니다.
+ */
+@Slf4j
+public final class InMemoryVectorStoreSnapshots {
+
+    private InMemoryVectorStoreSnapshots() {
+    }
+
+    /**
+     * 스냅숏 파일이 있으면 비어 있는 저장소로 읽어 들입니다. 파일이 손상되었으면 경고를 남기고 빈 저장소로 시작하며,
+     * 파일은 '.corrupt'로 옮겨 두어 증분 ETL이 복원되지 않은 저장소로 판단하도록 합니다.
+     *
+     * @param vectorStore 방금 생성한 인메모리 VectorStore
+     * @param path 스냅숏 파일 경로 (null이면 아무것도 하지 않음)
+     * @param objectMapper 메타데이터 역직렬화에 사용할 ObjectMapper
+     */
+    public static void load(VectorStore vectorStore, Path path, ObjectMapper objectMapper) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            if (vectorStore instanceof HnswVectorStore hnswVectorStore) {
+                hnswVectorStore.load(path, objectMapper);
+            } else if (vectorStore instanceof SimpleVectorStore simpleVectorStore) {
+                simpleVectorStore.load(path.toFile());
+                log.info("Loaded vector store snapshot from {}", path);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load vector store snapshot {}, starting empty", path, e);
+            try {
+                log.warn("Moved unreadable vector store snapshot to {}", AtomicFiles.moveAside(path));
+            } catch (IOException moveException) {
+                log.warn("Failed to move unreadable vector store snapshot {}", path, moveException);
+            }
+        }
+    }
+
+    /**
+     * 인메모리 VectorStore를 스냅숏 파일로 원자적으로 저장합니다. 다른 VectorStore는 무시합니다.
+     *
+     * @param vectorStore 저장할 VectorStore
+     * @param path 스냅숏 파일 경로 (null이면 아무것도 하지 않음)
+     * @param objectMapper 메타데이터 직렬화에 사용할 ObjectMapper
+     * @throws IOException 쓰기 중 오류 발생 시
+     */
+    public static void save(Object vectorStore, Path path, ObjectMapper objectMapper) throws IOException {
+        if (path == null) {
+            return;
+        }
+        if (vectorStore instanceof HnswVectorStore hnswVectorStore) {
+            hnswVectorStore.save(path, objectMapper);
+        } else if (vectorStore instanceof SimpleVectorStore simpleVectorStore) {
+            AtomicFiles.replace(path, tempFile -> simpleVectorStore.save(tempFile.toFile()));
+            log.info("Saved vector store snapshot to {}", path);
+        }
+    }
+}
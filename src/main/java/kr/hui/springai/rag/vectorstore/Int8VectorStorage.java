@@ -0,0 +1,77 @@
+package kr.hui.springai.rag.vectorstore;
+
+import java.util.Arrays;
+
+/**
+ * 벡터마다 최대 절댓값을 127로 맞추는 int8 스칼라 양자화 저장소입니다. (float32 대비 힙 사용량 약 1/4)
+ * 질의는 양자화하지 않고 float 그대로 코드와 곱한 뒤 벡터의 스케일을 곱합니다.
+ */
+final class Int8VectorStorage extends QuantizedVectorStorage {
+
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private byte[][] blocks = new byte[0][];
+    private float[] scales = new float[BLOCK_SIZE];
+    private int size;
+
+    Int8VectorStorage(int dimensions, MappedFloatVectors fullVectors) {
+        super(dimensions, fullVectors);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    protected int addCode(float[] vector) {
+        int node = this.size;
+        int block = node >>> BLOCK_SHIFT;
+        if (block == this.blocks.length) {
+            this.blocks = Arrays.copyOf(this.blocks, block + 1);
+            this.blocks[block] = new byte[BLOCK_SIZE * this.dimensions];
+        }
+        if (node == this.scales.length) {
+            this.scales = Arrays.copyOf(this.scales, node * 2);
+        }
+        float maxAbs = 0f;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+        byte[] codes = this.blocks[block];
+        int offset = (node & BLOCK_MASK) * this.dimensions;
+        for (int i = 0; i < this.dimensions; i++) {
+            codes[offset + i] = (byte) Math.round(vector[i] / scale);
+        }
+        this.scales[node] = scale;
+        this.size++;
+        return node;
+    }
+
+    @Override
+    public QueryScorer scorer(float[] query) {
+        return node -> {
+            byte[] codes = this.blocks[node >>> BLOCK_SHIFT];
+            int offset = (node & BLOCK_MASK) * this.dimensions;
+            float sum0 = 0f;
+            float sum1 = 0f;
+            int i = 0;
+            for (int bound = this.dimensions & ~1; i < bound; i += 2) {
+                sum0 += codes[offset + i] * query[i];
+                sum1 += codes[offset + i + 1] * query[i + 1];
+            }
+            if (i < this.dimensions) {
+                sum0 += codes[offset + i] * query[i];
+            }
+            return (sum0 + sum1) * this.scales[node];
+        };
+    }
+
+    @Override
+    public long heapBytesPerVector() {
+        return this.dimensions + Float.BYTES;
+    }
+}
@@ -0,0 +1,114 @@
+package kr.hui.springai.rag.vectorstore;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 원본 정밀도(float32) 벡터를 메모리 맵 파일에 저장합니다.
+ * 벡터는 힙이 아닌 페이지 캐시에 있으므로 자주 쓰이지 않는 벡터는 운영체제가 내보낼 수 있습니다.
+ * 파일은 CHUNK_BYTES 단위로 늘어나며 각 구간을 따로 매핑합니다.
+ * <p>
+ * 스레드 안전하지 않으며, 호출자가 읽기/쓰기 락으로 보호합니다. (읽기는 위치를 바꾸지 않는 절대 접근만 사용)
+ */
+@Slf4j
+final class MappedFloatVectors implements AutoCloseable {
+
+    private static final long CHUNK_BYTES = 64L * 1024 * 1024;
+
+    private final Path path;
+    private final boolean temporary;
+    private final FileChannel channel;
+    private final int dimensions;
+    private final int vectorsPerChunk;
+    private FloatBuffer[] chunks = new FloatBuffer[0];
+    private int size;
+
+    /**
+     * @param path 벡터 파일 경로 (null이면 임시 파일을 만들고 close 시 삭제)
+     * @param dimensions 벡터 차원 수
+     */
+    MappedFloatVectors(Path path, int dimensions) {
+        try {
+            this.temporary = path == null;
+            if (this.temporary) {
+                this.path = Files.createTempFile("hnsw-vectors-", ".f32");
+            } else {
+                this.path = path;
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+            }
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open vector file " + path, e);
+        }
+        this.dimensions = dimensions;
+        this.vectorsPerChunk = (int) Math.max(1, CHUNK_BYTES / ((long) Float.BYTES * dimensions));
+    }
+
+    int add(float[] vector) {
+        int index = this.size;
+        int chunk = index / this.vectorsPerChunk;
+        if (chunk == this.chunks.length) {
+            mapChunk(chunk);
+        }
+        this.chunks[chunk].put((index % this.vectorsPerChunk) * this.dimensions, vector);
+        this.size++;
+        return index;
+    }
+
+    private void mapChunk(int chunk) {
+        long chunkBytes = (long) this.vectorsPerChunk * this.dimensions * Float.BYTES;
+        try {
+            MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, chunk * chunkBytes, chunkBytes);
+            this.chunks = Arrays.copyOf(this.chunks, chunk + 1);
+            this.chunks[chunk] = buffer.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow vector file " + this.path, e);
+        }
+    }
+
+    /**
+     * 저장된 벡터와 query의 내적을 계산합니다.
+     *
+     * @param buffer 벡터를 복사해 올 작업 배열 (길이 ≥ dimensions, 여러 번 호출할 때 재사용)
+     */
+    float dot(int index, float[] query, float[] buffer) {
+        return FloatVectorStorage.dot(read(index, buffer), 0, query, 0, this.dimensions);
+    }
+
+    /**
+     * 저장된 벡터를 buffer에 복사합니다.
+     *
+     * @return buffer
+     */
+    float[] read(int index, float[] buffer) {
+        this.chunks[index / this.vectorsPerChunk].get((index % this.vectorsPerChunk) * this.dimensions, buffer, 0,
+                this.dimensions);
+        return buffer;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+            this.chunks = new FloatBuffer[0];
+            if (this.temporary) {
+                Files.deleteIfExists(this.path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close vector file {}", this.path, e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package kr.hui.springai.rag.vectorstore;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 메타데이터 필드 값별로 노드 번호의 압축 비트맵(RoaringBitmap)을 유지하는 역색인입니다.
+ * 필터 표현식을 비트맵 연산으로 먼저 계산하여 검색할 후보 노드를 좁힙니다.
+ * <ul>
+ *     <li>EQ/IN은 값으로 바로 찾고, 비교 연산(GT/LT 등)은 필드의 서로 다른 값마다 한 번씩만 평가합니다.</li>
+ *     <li>NE/NIN/NOT은 살아 있는 노드 비트맵의 여집합으로 계산하므로 키가 없는 문서도 포함됩니다. ({@link FilterExpressionEvaluator}와 같은 의미)</li>
+ *     <li>색인하지 않은 필드가 포함된 조건은 후보를 좁히지 못하므로, 결과는 정확한 집합이 아닌 상위 집합이 될 수 있습니다.</li>
+ * </ul>
+ * 스레드 안전하지 않으며, HnswVectorStore의 읽기/쓰기 락으로 보호합니다.
+ */
+final class MetadataIndex {
+
+    private static final Candidates UNKNOWN = new Candidates(null, false);
+
+    private final Map<String, Map<Object, RoaringBitmap>> fields = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+
+    /**
+     * @param fieldNames 색인할 메타데이터 키
+     */
+    MetadataIndex(Collection<String> fieldNames) {
+        for (String fieldName : fieldNames) {
+            this.fields.put(fieldName, new HashMap<>());
+        }
+    }
+
+    void add(int node, Map<String, Object> metadata) {
+        this.live.add(node);
+        this.fields.forEach((fieldName, values) -> {
+            Object value = metadata.get(fieldName);
+            if (value != null) {
+                values.computeIfAbsent(indexKey(value), key -> new RoaringBitmap()).add(node);
+            }
+        });
+    }
+
+    void remove(int node, Map<String, Object> metadata) {
+        this.live.remove(node);
+        this.fields.forEach((fieldName, values) -> {
+            Object value = metadata.get(fieldName);
+            if (value != null) {
+                Object key = indexKey(value);
+                RoaringBitmap nodes = values.get(key);
+                if (nodes != null) {
+                    nodes.remove(node);
+                    if (nodes.isEmpty()) {
+                        values.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    void clear() {
+        this.live.clear();
+        this.fields.values().forEach(Map::clear);
+    }
+
+    /**
+     * 필터 조건을 만족할 수 있는 노드 집합을 계산합니다.
+     *
+     * @return 후보 노드 집합 (색인으로 좁힐 수 없으면 null)
+     */
+    Candidates candidates(Filter.Expression filter) {
+        Candidates candidates = evaluate(filter);
+        return candidates.nodes() == null ? null : candidates;
+    }
+
+    /**
+     * @param nodes 후보 노드 (null이면 살아 있는 모든 노드)
+     * @param exact true이면 nodes가 필터를 만족하는 노드와 정확히 같아 다시 평가할 필요가 없음
+     */
+    record Candidates(RoaringBitmap nodes, boolean exact) {
+    }
+
+    private Candidates evaluate(Filter.Operand operand) {
+        if (operand instanceof Filter.Group group) {
+            return evaluate(group.content());
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            return UNKNOWN;
+        }
+        return switch (expression.type()) {
+            case AND -> and(evaluate(expression.left()), evaluate(expression.right()));
+            case OR -> or(evaluate(expression.left()), evaluate(expression.right()));
+            case NOT -> not(evaluate(expression.left()));
+            default -> comparison(expression);
+        };
+    }
+
+    private Candidates and(Candidates left, Candidates right) {
+        if (left.nodes() == null) {
+            return new Candidates(right.nodes(), false);
+        }
+        if (right.nodes() == null) {
+            return new Candidates(left.nodes(), false);
+        }
+        return new Candidates(RoaringBitmap.and(left.nodes(), right.nodes()), left.exact() && right.exact());
+    }
+
+    private Candidates or(Candidates left, Candidates right) {
+        if (left.nodes() == null || right.nodes() == null) {
+            return UNKNOWN;
+        }
+        return new Candidates(RoaringBitmap.or(left.nodes(), right.nodes()), left.exact() && right.exact());
+    }
+
+    private Candidates not(Candidates operand) {
+        if (!operand.exact()) {
+            return UNKNOWN; // 상위 집합의 여집합은 하위 집합이 되어 결과가 빠질 수 있음
+        }
+        return new Candidates(RoaringBitmap.andNot(this.live, operand.nodes()), true);
+    }
+
+    private Candidates comparison(Filter.Expression expression) {
+        if (!(expression.left() instanceof Filter.Key key) || !(expression.right() instanceof Filter.Value value)) {
+            return UNKNOWN;
+        }
+        String fieldName = FilterExpressionEvaluator.unquote(key.key());
+        Map<Object, RoaringBitmap> values = this.fields.get(fieldName);
+        if (values == null) {
+            return UNKNOWN;
+        }
+        RoaringBitmap nodes = switch (expression.type()) {
+            case EQ -> lookup(values, Collections.singletonList(value.value()));
+            case NE -> RoaringBitmap.andNot(this.live, lookup(values, Collections.singletonList(value.value())));
+            case IN -> lookup(values, operands(value.value()));
+            case NIN -> RoaringBitmap.andNot(this.live, lookup(values, operands(value.value())));
+            default -> scan(values, fieldName, expression);
+        };
+        return new Candidates(nodes, true);
+    }
+
+    private static RoaringBitmap lookup(Map<Object, RoaringBitmap> values, Collection<?> operands) {
+        RoaringBitmap nodes = new RoaringBitmap();
+        for (Object operand : operands) {
+            RoaringBitmap matched = operand == null ? null : values.get(indexKey(operand));
+            if (matched != null) {
+                nodes.or(matched);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 범위 비교는 필드의 서로 다른 값마다 한 번씩 평가하고, 만족하는 값의 비트맵을 합칩니다.
+     */
+    private static RoaringBitmap scan(Map<Object, RoaringBitmap> values, String fieldName, Filter.Expression expression) {
+        RoaringBitmap nodes = new RoaringBitmap();
+        values.forEach((value, matched) -> {
+            if (FilterExpressionEvaluator.matches(expression, Map.of(fieldName, value))) {
+                nodes.or(matched);
+            }
+        });
+        return nodes;
+    }
+
+    private static Collection<?> operands(Object value) {
+        return value instanceof Collection<?> collection ? collection : Collections.singletonList(value);
+    }
+
+    /**
+     * FilterExpressionEvaluator와 같은 동등성을 갖도록 숫자는 타입과 관계없이 double 값으로 색인합니다.
+     */
+    private static Object indexKey(Object value) {
+        return value instanceof Number number ? Double.valueOf(number.doubleValue()) : value;
+    }
+}
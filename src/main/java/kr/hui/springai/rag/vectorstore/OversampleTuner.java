@@ -0,0 +1,68 @@
+package kr.hui.springai.rag.vectorstore;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 양자화 검색에서 다시 정렬할 후보 수(topK × factor)를 정합니다.
+ * 일부 검색을 표본으로 골라 원본 정밀도 전체 탐색 결과와 비교한 재현율(recall)의 지수 이동 평균을 유지하고,
+ * 목표(1 - tolerance)보다 낮으면 factor를 늘리고, 충분히 높으면 조금씩 줄입니다.
+ */
+@Slf4j
+final class OversampleTuner {
+
+    private static final double SMOOTHING = 0.1;
+    private static final double MIN_FACTOR = 1.0;
+    private static final double MAX_FACTOR = 20.0;
+
+    private final double targetRecall;
+    private final double sampleRate;
+    private volatile double factor;
+    private volatile double recall = 1.0;
+
+    /**
+     * @param initialFactor 처음 사용할 배수
+     * @param recallTolerance 원본 정밀도 결과 대비 허용하는 재현율 손실 (예: 0.02)
+     * @param sampleRate 재현율을 측정할 검색의 비율 (0이면 측정/조정하지 않음)
+     */
+    OversampleTuner(double initialFactor, double recallTolerance, double sampleRate) {
+        this.factor = Math.min(MAX_FACTOR, Math.max(MIN_FACTOR, initialFactor));
+        this.targetRecall = 1.0 - recallTolerance;
+        this.sampleRate = sampleRate;
+    }
+
+    int candidates(int topK) {
+        return (int) Math.ceil(topK * this.factor);
+    }
+
+    boolean shouldSample() {
+        return this.sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+
+    /**
+     * 표본 검색의 재현율을 반영합니다. 표본은 한 스레드에서만 기록합니다.
+     */
+    void record(double sampleRecall) {
+        double smoothed = this.recall + SMOOTHING * (sampleRecall - this.recall);
+        this.recall = smoothed;
+        double previous = this.factor;
+        if (smoothed < this.targetRecall) {
+            this.factor = Math.min(MAX_FACTOR, previous * 1.25);
+        } else if (smoothed > this.targetRecall + (1.0 - this.targetRecall) / 2) {
+            this.factor = Math.max(MIN_FACTOR, previous * 0.98);
+        }
+        if (previous != this.factor) {
+            log.debug("Quantized search recall {} (target {}), oversample factor {} -> {}", smoothed, this.targetRecall,
+                    previous, this.factor);
+        }
+    }
+
+    double factor() {
+        return this.factor;
+    }
+
+    double recall() {
+        return this.recall;
+    }
+}
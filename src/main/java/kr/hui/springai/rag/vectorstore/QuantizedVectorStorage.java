@@ -0,0 +1,67 @@
+package kr.hui.springai.rag.vectorstore;
+
+/**
+ * 검색 시 그래프 탐색에는 힙에 있는 압축 코드를 사용하고, 원본 정밀도 벡터는 메모리 맵 파일({@link MappedFloatVectors})에 두는 저장소입니다.
+ * 원본 벡터는 그래프 구성과 재정렬에만 읽습니다. 검색 유사도가 근사값이므로 HnswVectorStore는 후보를 여유 있게 찾은 뒤
+ * {@link #exactScore(int, float[])}로 다시 정렬합니다.
+ */
+abstract class QuantizedVectorStorage implements VectorStorage {
+
+    protected final int dimensions;
+    private final MappedFloatVectors fullVectors;
+    private final ThreadLocal<float[][]> buffers;
+
+    protected QuantizedVectorStorage(int dimensions, MappedFloatVectors fullVectors) {
+        this.dimensions = dimensions;
+        this.fullVectors = fullVectors;
+        this.buffers = ThreadLocal.withInitial(() -> new float[2][dimensions]);
+    }
+
+    @Override
+    public int dimensions() {
+        return this.dimensions;
+    }
+
+    @Override
+    public int add(float[] vector) {
+        if (vector.length != this.dimensions) {
+            throw new IllegalArgumentException("Expected " + this.dimensions + " dimensions but got " + vector.length);
+        }
+        int node = addCode(vector);
+        this.fullVectors.add(vector);
+        return node;
+    }
+
+    /**
+     * 벡터를 압축 코드로 변환해 저장합니다.
+     *
+     * @return 새 노드 번호
+     */
+    protected abstract int addCode(float[] vector);
+
+    @Override
+    public float exactScore(int node, float[] query) {
+        return this.fullVectors.dot(node, query, this.buffers.get()[0]);
+    }
+
+    @Override
+    public float exactScore(int a, int b) {
+        float[][] buffers = this.buffers.get();
+        return this.fullVectors.dot(a, this.fullVectors.read(b, buffers[1]), buffers[0]);
+    }
+
+    @Override
+    public float[] vector(int node, float[] buffer) {
+        return this.fullVectors.read(node, buffer);
+    }
+
+    @Override
+    public boolean approximate() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        this.fullVectors.close();
+    }
+}
@@ -0,0 +1,109 @@
+package kr.hui.springai.rag.vectorstore;
+
+import java.util.Arrays;
+
+/**
+ * (유사도, 노드 번호) 쌍을 박싱 없이 담는 이진 힙입니다.
+ * bestFirst가 true이면 유사도가 가장 높은 노드가, false이면 가장 낮은 노드가 맨 위에 옵니다.
+ */
+final class ScoredNodeQueue {
+
+    private final boolean bestFirst;
+    private float[] scores;
+    private int[] nodes;
+    private int size;
+
+    ScoredNodeQueue(int initialCapacity, boolean bestFirst) {
+        this.bestFirst = bestFirst;
+        this.scores = new float[Math.max(1, initialCapacity)];
+        this.nodes = new int[Math.max(1, initialCapacity)];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    void push(int node, float score) {
+        if (this.size == this.nodes.length) {
+            this.scores = Arrays.copyOf(this.scores, this.size * 2);
+            this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+        }
+        int i = this.size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(score, this.scores[parent])) {
+                break;
+            }
+            this.scores[i] = this.scores[parent];
+            this.nodes[i] = this.nodes[parent];
+            i = parent;
+        }
+        this.scores[i] = score;
+        this.nodes[i] = node;
+    }
+
+    int topNode() {
+        return this.nodes[0];
+    }
+
+    float topScore() {
+        return this.scores[0];
+    }
+
+    /**
+     * 맨 위 항목을 제거하고 노드 번호를 반환합니다.
+     */
+    int pop() {
+        int top = this.nodes[0];
+        int last = --this.size;
+        float score = this.scores[last];
+        int node = this.nodes[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && before(this.scores[child + 1], this.scores[child])) {
+                child++;
+            }
+            if (!before(this.scores[child], score)) {
+                break;
+            }
+            this.scores[i] = this.scores[child];
+            this.nodes[i] = this.nodes[child];
+            i = child;
+        }
+        this.scores[i] = score;
+        this.nodes[i] = node;
+        return top;
+    }
+
+    /**
+     * 힙을 비우면서 노드 번호를 유사도가 높은 순서로 반환합니다. (scoresOut이 null이 아니면 유사도도 같은 순서로 채움)
+     */
+    int[] drainBestFirst(float[] scoresOut) {
+        int count = this.size;
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = this.bestFirst ? i : count - 1 - i;
+            if (scoresOut != null) {
+                scoresOut[index] = this.scores[0];
+            }
+            result[index] = pop();
+        }
+        return result;
+    }
+
+    private boolean before(float a, float b) {
+        return this.bestFirst ? a > b : a < b;
+    }
+}
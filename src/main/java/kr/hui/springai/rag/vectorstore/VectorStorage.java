@@ -0,0 +1,66 @@
+package kr.hui.springai.rag.vectorstore;
+
+import java.io.Closeable;
+
+/**
+ * HnswGraph가 사용하는 벡터 저장소입니다. 노드 번호는 추가된 순서이며, 모든 벡터는 단위 길이로 정규화되어 있습니다.
+ * 검색 시 그래프 탐색에 쓰는 유사도({@link #scorer(float[])})는 양자화된 근사값일 수 있고,
+ * exactScore는 항상 원본 정밀도의 코사인 유사도입니다. 그래프 구성(삽입)에는 원본 정밀도 유사도를 사용합니다.
+ * <p>
+ * 구현체는 스레드 안전하지 않아도 되며, 호출자가 읽기/쓰기 락으로 보호합니다.
+ */
+interface VectorStorage extends Closeable {
+
+    int dimensions();
+
+    int size();
+
+    /**
+     * 정규화된 벡터를 추가합니다.
+     *
+     * @return 새 노드 번호
+     */
+    int add(float[] vector);
+
+    /**
+     * 질의 벡터와 저장된 노드의 검색용 유사도를 계산하는 함수를 만듭니다. (질의 양자화는 한 번만 수행)
+     */
+    QueryScorer scorer(float[] query);
+
+    /**
+     * 저장된 노드와 질의 벡터의 원본 정밀도 코사인 유사도입니다.
+     */
+    float exactScore(int node, float[] query);
+
+    /**
+     * 저장된 두 노드의 원본 정밀도 코사인 유사도입니다.
+     */
+    float exactScore(int a, int b);
+
+    /**
+     * 저장된 노드의 원본 정밀도 벡터를 buffer에 복사합니다. (스냅숏 저장용)
+     *
+     * @return buffer
+     */
+    float[] vector(int node, float[] buffer);
+
+    /**
+     * 탐색용 유사도가 근사값이면 true입니다. (검색 결과를 {@link #exactScore(int, float[])}로 다시 정렬해야 함)
+     */
+    boolean approximate();
+
+    /**
+     * 벡터 하나가 힙에서 차지하는 바이트 수입니다.
+     */
+    long heapBytesPerVector();
+
+    @Override
+    default void close() {
+    }
+
+    @FunctionalInterface
+    interface QueryScorer {
+
+        float score(int node);
+    }
+}
@@ -0,0 +1,80 @@
+package kr.hui.springai.tool.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 도구 실행 시간을 도구 이름별로 기록하는 ToolCallback 데코레이터입니다.
+ * 'tool.execution' 지표(tool=도구 이름, outcome=success/error)로 노출되며, 도구 이름은 등록된 도구 수만큼만 있으므로 시계열 수가 제한됩니다.
+ * 정의와 메타데이터(returnDirect 등)는 위임 ToolCallback의 것을 그대로 사용합니다.
+ */
+public class TimedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final Timer successes;
+    private final Timer errors;
+
+    /**
+     * @param delegate 실제 도구를 실행하는 ToolCallback
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public TimedToolCallback(ToolCallback delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.successes = timer(delegate.getToolDefinition().name(), "success", meterRegistry);
+        this.errors = timer(delegate.getToolDefinition().name(), "error", meterRegistry);
+    }
+
+    /**
+     * @param toolCallbacks 감쌀 ToolCallback (e.g., ToolCallbacks.from(tools))
+     * @param meterRegistry 지표를 등록할 MeterRegistry
+     */
+    public static ToolCallback[] wrap(ToolCallback[] toolCallbacks, MeterRegistry meterRegistry) {
+        return Arrays.stream(toolCallbacks)
+                .map(toolCallback -> new TimedToolCallback(toolCallback, meterRegistry))
+                .toArray(ToolCallback[]::new);
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return this.delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return this.delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        long start = System.nanoTime();
+        Timer timer = this.errors;
+        try {
+            String result = this.delegate.call(toolInput, toolContext);
+            timer = this.successes;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(String toolName, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("tool.execution")
+                .description("Tool execution latency")
+                .tag("tool", toolName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
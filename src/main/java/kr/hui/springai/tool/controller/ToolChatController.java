@@ -45,7 +45,7 @@ public class ToolChatController {
         return toolChatService.call(promptBuilder.build(), promptBody.conversationId);
     }
 
-    private static Prompt.Builder getPromptBuilder(PromptBody promptBody) {
+    static Prompt.Builder getPromptBuilder(PromptBody promptBody) {
         List<Message> messages = new ArrayList<>();
         Optional.ofNullable(promptBody.systemPrompt).filter(Predicate.not(String::isBlank))
                 .map(systemPrompt -> SystemMessage.builder().text(systemPrompt).build()).ifPresent(messages::add);
@@ -1,12 +1,15 @@
 package kr.hui.springai.tool.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.hui.springai.common.advisor.AdvisorPipelines;
+import kr.hui.springai.tool.config.TimedToolCallback;
 import kr.hui.springai.tool.config.Tools;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.api.Advisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.support.ToolCallbacks;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -18,12 +21,13 @@ public class ToolChatService {
 
     public ToolChatService(
             ChatClient.Builder chatClientBuilder,
-            Advisor[] advisors,
+            AdvisorPipelines advisorPipelines,
             @Value("${app.chat.default-system-prompt:}") String defaultSystemPrompt,
-            Tools tools) {
+            Tools tools,
+            MeterRegistry meterRegistry) {
         this.chatClient = chatClientBuilder.defaultSystem(defaultSystemPrompt)
-                .defaultAdvisors(advisors)
-                .defaultTools(tools)
+                .defaultAdvisors(advisorPipelines.get(AdvisorPipelines.TOOL))
+                .defaultToolCallbacks(TimedToolCallback.wrap(ToolCallbacks.from(tools), meterRegistry))
                 .defaultOptions(ToolCallingChatOptions.builder()
                         .internalToolExecutionEnabled(true)
                         .temperature(0.2)
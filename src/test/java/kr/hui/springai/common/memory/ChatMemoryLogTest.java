@@ -0,0 +1,160 @@
+package kr.hui.springai.common.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMemoryLogTest {
+
+    private static final long SEGMENT_BYTES = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatesTornTrailingRecordOnOpen() throws IOException {
+        try (ChatMemoryLog log = open(new HashMap<>(), SEGMENT_BYTES)) {
+            log.append(List.of(put("a", "first"), put("b", "second")));
+        }
+        Path segment = onlyFile(".log");
+        long intact = Files.size(segment);
+        byte[] record = put("c", "third").encode();
+        Files.write(segment, Arrays.copyOf(record, record.length / 2), StandardOpenOption.APPEND);
+
+        Map<String, ChatMemoryLog.Location> index = new HashMap<>();
+        try (ChatMemoryLog log = open(index, SEGMENT_BYTES)) {
+            assertThat(index).containsOnlyKeys("a", "b");
+            assertThat(Files.size(segment)).isEqualTo(intact);
+            // 잘라낸 위치부터 다시 덧붙임
+            index.put("c", log.append(List.of(put("c", "third"))).get(0));
+        }
+
+        index = new HashMap<>();
+        try (ChatMemoryLog log = open(index, SEGMENT_BYTES)) {
+            assertThat(index).containsOnlyKeys("a", "b", "c");
+            assertThat(text(log, index.get("c"))).isEqualTo("third");
+        }
+    }
+
+    @Test
+    void dropsTrailingRecordWithBadChecksum() throws IOException {
+        long firstRecordBytes;
+        try (ChatMemoryLog log = open(new HashMap<>(), SEGMENT_BYTES)) {
+            firstRecordBytes = log.append(List.of(put("a", "first"))).get(0).length();
+            log.append(List.of(put("b", "second")));
+        }
+        Path segment = onlyFile(".log");
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x7F; // 마지막 레코드의 본문 한 바이트를 바꿈 (길이는 그대로)
+        Files.write(segment, bytes);
+
+        Map<String, ChatMemoryLog.Location> index = new HashMap<>();
+        try (ChatMemoryLog log = open(index, SEGMENT_BYTES)) {
+            assertThat(index).containsOnlyKeys("a");
+            assertThat(text(log, index.get("a"))).isEqualTo("first");
+            assertThat(Files.size(segment)).isEqualTo(firstRecordBytes);
+        }
+    }
+
+    @Test
+    void compactionWhileAppendingKeepsLatestRecordOfEachConversation() throws Exception {
+        ConcurrentHashMap<String, ChatMemoryLog.Location> index = new ConcurrentHashMap<>();
+        Map<String, String> expected = new HashMap<>(); // 삭제된 대화는 제외
+        AtomicInteger compactions = new AtomicInteger();
+        try (ChatMemoryLog log = open(index, 512)) {
+            AtomicBoolean appending = new AtomicBoolean(true);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread compactor = new Thread(() -> {
+                try {
+                    while (appending.get()) {
+                        if (log.sealedSegments() >= 2 && log.compact(index, 0) > 0) {
+                            compactions.incrementAndGet();
+                        }
+                        Thread.onSpinWait();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            compactor.start();
+
+            // DurableChatMemoryRepository의 쓰기 스레드처럼 덧붙인 뒤 색인을 바꿈
+            Random random = new Random(42);
+            for (int i = 0; i < 3000; i++) {
+                String conversationId = "conversation-" + random.nextInt(40);
+                if (random.nextInt(5) == 0) {
+                    log.append(List.of(delete(conversationId)));
+                    index.remove(conversationId);
+                    expected.remove(conversationId);
+                } else {
+                    String text = "message-" + i;
+                    index.put(conversationId, log.append(List.of(put(conversationId, text))).get(0));
+                    expected.put(conversationId, text);
+                }
+            }
+            appending.set(false);
+            compactor.join();
+            assertThat(failure.get()).isNull();
+            assertThat(compactions.get()).isPositive();
+            assertContents(log, index, expected);
+        }
+
+        // 재시작 후에도 같은 상태 (압축 전에 삭제된 대화가 되살아나지 않음)
+        Map<String, ChatMemoryLog.Location> recovered = new HashMap<>();
+        try (ChatMemoryLog log = open(recovered, 512)) {
+            assertContents(log, recovered, expected);
+        }
+    }
+
+    private ChatMemoryLog open(Map<String, ChatMemoryLog.Location> index, long segmentBytes) throws IOException {
+        ChatMemoryLog log = new ChatMemoryLog(this.directory, segmentBytes);
+        log.open(index);
+        return log;
+    }
+
+    private Path onlyFile(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            List<Path> matches = files.filter(file -> file.toString().endsWith(suffix)).toList();
+            assertThat(matches).hasSize(1);
+            return matches.get(0);
+        }
+    }
+
+    private static void assertContents(ChatMemoryLog log, Map<String, ChatMemoryLog.Location> index,
+                                       Map<String, String> expected) throws IOException {
+        assertThat(index).containsOnlyKeys(expected.keySet().toArray(String[]::new));
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertThat(text(log, index.get(entry.getKey()))).isEqualTo(entry.getValue());
+        }
+    }
+
+    private static String text(ChatMemoryLog log, ChatMemoryLog.Location location) throws IOException {
+        return new String(log.read(location), StandardCharsets.UTF_8);
+    }
+
+    private static ChatMemoryLog.Record put(String conversationId, String text) {
+        return new ChatMemoryLog.Record(ChatMemoryLog.PUT, conversationId, System.currentTimeMillis(),
+                text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ChatMemoryLog.Record delete(String conversationId) {
+        return new ChatMemoryLog.Record(ChatMemoryLog.DELETE, conversationId, System.currentTimeMillis(), new byte[0]);
+    }
+}
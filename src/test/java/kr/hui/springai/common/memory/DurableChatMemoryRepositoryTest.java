@@ -0,0 +1,107 @@
+package kr.hui.springai.common.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DurableChatMemoryRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSavedAndDeletedConversationsAfterRestart() {
+        try (DurableChatMemoryRepository repository = open(1 << 20, null)) {
+            repository.saveAll("kept", conversation("hello", "hi"));
+            repository.saveAll("deleted", conversation("bye", "see you"));
+            repository.deleteByConversationId("deleted");
+            repository.saveAll("emptied", conversation("again", "sure"));
+            repository.saveAll("emptied", List.of()); // 빈 목록 저장은 삭제
+        }
+
+        try (DurableChatMemoryRepository repository = open(1 << 20, null)) {
+            assertThat(repository.findConversationIds()).containsExactly("kept");
+            assertThat(texts(repository.findByConversationId("kept"))).containsExactly("hello", "hi");
+            assertThat(repository.findByConversationId("deleted")).isEmpty();
+            assertThat(repository.findByConversationId("emptied")).isEmpty();
+        }
+    }
+
+    @Test
+    void dropsConversationsOlderThanRetentionAfterRestart() throws InterruptedException {
+        Duration retention = Duration.ofMillis(500);
+        try (DurableChatMemoryRepository repository = open(1 << 20, retention)) {
+            repository.saveAll("stale", conversation("old question", "old answer"));
+        }
+        Thread.sleep(retention.toMillis() * 2);
+        try (DurableChatMemoryRepository repository = open(1 << 20, retention)) {
+            repository.saveAll("recent", conversation("new question", "new answer"));
+        }
+
+        try (DurableChatMemoryRepository repository = open(1 << 20, retention)) {
+            assertThat(repository.findConversationIds()).containsExactly("recent");
+            assertThat(repository.findByConversationId("stale")).isEmpty();
+            assertThat(texts(repository.findByConversationId("recent"))).containsExactly("new question", "new answer");
+        }
+    }
+
+    @Test
+    void compactionWhileSavingNeitherLosesNorResurrectsConversations() throws IOException {
+        Map<String, List<String>> expected = new HashMap<>(); // 삭제된 대화는 제외
+        try (DurableChatMemoryRepository repository = open(1024, null)) {
+            Random random = new Random(7);
+            for (int i = 0; i < 2000; i++) {
+                String conversationId = "conversation-" + random.nextInt(30);
+                if (random.nextInt(4) == 0) {
+                    repository.deleteByConversationId(conversationId);
+                    expected.remove(conversationId);
+                } else {
+                    List<Message> messages = conversation("question-" + i, "answer-" + i);
+                    repository.saveAll(conversationId, messages);
+                    expected.put(conversationId, texts(messages));
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertThat(files.anyMatch(file -> file.toString().endsWith(".compact"))).isTrue();
+        }
+
+        try (DurableChatMemoryRepository repository = open(1024, null)) {
+            assertThat(repository.findConversationIds())
+                    .containsExactlyInAnyOrder(expected.keySet().toArray(String[]::new));
+            expected.forEach((conversationId, texts) ->
+                    assertThat(texts(repository.findByConversationId(conversationId))).isEqualTo(texts));
+        }
+    }
+
+    private DurableChatMemoryRepository open(long segmentBytes, Duration retention) {
+        BoundedChatMemoryRepository cache = new BoundedChatMemoryRepository(100, 1 << 20, null,
+                new SimpleMeterRegistry());
+        return new DurableChatMemoryRepository(this.directory, cache, segmentBytes, Duration.ZERO, 100, 2, retention,
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static List<Message> conversation(String question, String answer) {
+        return List.of(new UserMessage(question), new AssistantMessage(answer));
+    }
+
+    private static List<String> texts(List<Message> messages) {
+        return messages.stream().map(Message::getText).toList();
+    }
+}
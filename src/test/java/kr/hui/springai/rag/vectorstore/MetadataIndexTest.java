@@ -0,0 +1,139 @@
+package kr.hui.springai.rag.vectorstore;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MetadataIndex의 후보 집합이 FilterExpressionEvaluator로 살아 있는 노드를 하나씩 평가한 결과와 같은지(정확한 후보),
+ * 또는 그 상위 집합인지(색인하지 않은 필드가 섞인 조건) 확인합니다.
+ */
+class MetadataIndexTest {
+
+    private static final List<String> INDEXED_FIELDS = List.of("source", "year");
+
+    // 노드 번호 = 목록 순서, null은 추가 후 삭제된 노드 (툼스톤)
+    private static final List<Map<String, Object>> NODES = List.of(
+            Map.of("source", "a", "year", 2023, "tag", "x"),
+            Map.of("source", "b", "year", 2024),
+            Map.of("source", "a", "year", 2024, "tag", "y"),
+            Map.of("year", 2022),                       // source 없음
+            Map.of("source", "c", "year", 2023.0),      // 숫자 타입이 달라도 같은 값
+            Map.of("source", "b", "tag", "x"),          // 삭제됨
+            Map.of("source", "a", "year", 2025),        // 삭제됨
+            Map.of("source", "d", "year", 2024L),
+            Map.of("source", "e"));                     // year 없음
+    private static final List<Integer> DELETED = List.of(5, 6);
+
+    /**
+     * 이름, 필터, 색인만으로 정확한 후보를 계산할 수 있는지 (false이면 상위 집합이거나 전체 탐색)
+     */
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of("EQ", eq("source", "a"), true),
+                Arguments.of("EQ across number types", eq("year", 2024), true),
+                Arguments.of("NE includes missing keys", ne("source", "a"), true),
+                Arguments.of("IN", in("source", List.of("a", "c")), true),
+                Arguments.of("NIN includes missing keys", nin("source", List.of("a", "b")), true),
+                Arguments.of("NOT EQ", not(eq("source", "b")), true),
+                Arguments.of("NOT IN", not(in("year", List.of(2023, 2024))), true),
+                Arguments.of("NOT range includes missing keys", not(new Filter.Expression(Filter.ExpressionType.GT,
+                        new Filter.Key("year"), new Filter.Value(2023))), true),
+                Arguments.of("range", new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("year"),
+                        new Filter.Value(2024)), true),
+                Arguments.of("AND", and(eq("source", "a"), eq("year", 2024)), true),
+                Arguments.of("OR", or(eq("source", "c"), eq("year", 2022)), true),
+                Arguments.of("NOT OR", not(or(eq("source", "a"), eq("source", "b"))), true),
+                Arguments.of("grouped OR in AND", and(group(or(eq("source", "a"), eq("source", "b"))),
+                        ne("year", 2023)), true),
+                Arguments.of("quoted key", eq("'source'", "d"), true),
+                Arguments.of("AND with unindexed field", and(eq("source", "a"), eq("tag", "y")), false),
+                Arguments.of("NE on unindexed field", ne("tag", "x"), false),
+                Arguments.of("OR with unindexed field", or(eq("source", "c"), eq("tag", "x")), false),
+                Arguments.of("NOT of inexact AND", not(and(eq("source", "a"), eq("tag", "x"))), false));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filters")
+    void candidatesAgreeWithEvaluatorOverLiveNodes(String name, Filter.Expression filter, boolean exact) {
+        MetadataIndex index = new MetadataIndex(INDEXED_FIELDS);
+        RoaringBitmap live = new RoaringBitmap();
+        List<Integer> expected = new ArrayList<>();
+        for (int node = 0; node < NODES.size(); node++) {
+            index.add(node, NODES.get(node));
+            if (DELETED.contains(node)) {
+                index.remove(node, NODES.get(node));
+                continue;
+            }
+            live.add(node);
+            if (FilterExpressionEvaluator.matches(filter, NODES.get(node))) {
+                expected.add(node);
+            }
+        }
+
+        MetadataIndex.Candidates candidates = index.candidates(filter);
+        if (exact) {
+            assertThat(candidates).isNotNull();
+            assertThat(candidates.exact()).isTrue();
+            assertThat(toList(candidates.nodes())).containsExactlyElementsOf(expected);
+        } else if (candidates != null) {
+            // 후보를 다시 평가하므로 상위 집합이면 충분 (null이면 전체 탐색)
+            assertThat(candidates.exact()).isFalse();
+            assertThat(toList(candidates.nodes())).containsAll(expected);
+        }
+        if (candidates != null) {
+            assertThat(toList(RoaringBitmap.andNot(candidates.nodes(), live))).isEmpty(); // 툼스톤은 후보가 아님
+        }
+    }
+
+    private static List<Integer> toList(RoaringBitmap bitmap) {
+        List<Integer> nodes = new ArrayList<>();
+        IntIterator iterator = bitmap.getIntIterator();
+        while (iterator.hasNext()) {
+            nodes.add(iterator.next());
+        }
+        return nodes;
+    }
+
+    private static Filter.Expression eq(String key, Object value) {
+        return new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key(key), new Filter.Value(value));
+    }
+
+    private static Filter.Expression ne(String key, Object value) {
+        return new Filter.Expression(Filter.ExpressionType.NE, new Filter.Key(key), new Filter.Value(value));
+    }
+
+    private static Filter.Expression in(String key, List<?> values) {
+        return new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key(key), new Filter.Value(values));
+    }
+
+    private static Filter.Expression nin(String key, List<?> values) {
+        return new Filter.Expression(Filter.ExpressionType.NIN, new Filter.Key(key), new Filter.Value(values));
+    }
+
+    private static Filter.Expression and(Filter.Operand left, Filter.Operand right) {
+        return new Filter.Expression(Filter.ExpressionType.AND, left, right);
+    }
+
+    private static Filter.Expression or(Filter.Operand left, Filter.Operand right) {
+        return new Filter.Expression(Filter.ExpressionType.OR, left, right);
+    }
+
+    private static Filter.Expression not(Filter.Expression operand) {
+        return new Filter.Expression(Filter.ExpressionType.NOT, operand);
+    }
+
+    private static Filter.Group group(Filter.Expression content) {
+        return new Filter.Group(content);
+    }
+}